@@ -9,7 +9,7 @@ package net.jhoogland.jautomata;
  * @author Jasper Hoogland
  */
 
-public class ApproximateConvergence implements  WeightConvergenceCondition<Double>
+public class ApproximateConvergence implements  WeightConvergenceCondition<Double>, DoubleConvergenceCondition
 {
 	double bound;
 	
@@ -32,6 +32,11 @@ public class ApproximateConvergence implements  WeightConvergenceCondition<Doubl
 	}
 
 	public boolean converged(Double w1, Double w2) 
+	{
+		return converged(w1.doubleValue(), w2.doubleValue());
+	}
+
+	public boolean converged(double w1, double w2) 
 	{
 		return Math.abs(w1 - w2) <= bound;
 	}
@@ -13,8 +13,10 @@ import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.Map.Entry;
+import java.util.function.Function;
 
 import net.jhoogland.jautomata.operations.AcceptorIntersection;
+import net.jhoogland.jautomata.operations.Determinization;
 import net.jhoogland.jautomata.operations.Operations;
 import net.jhoogland.jautomata.operations.SingleInitialStateOperation;
 import net.jhoogland.jautomata.queues.DefaultQueueFactory;
@@ -222,6 +224,16 @@ public class Automata
 		return shortestCompleteDistances(intersection, sssd);
 	}
 	
+	/**
+	 * @return
+	 * the weights of the specified strings, in the same order, computed in parallel by a {@link StringScorer}
+	 */
+	
+	public static <L, K> List<K> stringWeights(Automaton<L, K> automaton, Collection<? extends List<L>> strings)
+	{
+		return new StringScorer<L, K>(automaton).scoreAll(strings);
+	}
+	
 	/**
 	 * @return
 	 * a list with the specified number of shortest paths computed by the specified shortest distance algorithm. 
@@ -229,20 +241,15 @@ public class Automata
 	
 	public static <L, K extends Comparable<K>> List<Path<L, K>> shortestPaths(Automaton<L, K> automaton, int numPaths, SingleSourceShortestDistances<List<PathWeight<K>>> sssd)
 	{
-		Semiring<K> sr = automaton.semiring();
-		if (sr.zero().equals(0.0))
-			automaton = (Automaton<L, K>) Operations.realToTropicalSemiring((Automaton<L, Double>) automaton);
+		boolean real = isReal(automaton.semiring());
+		automaton = searchAutomaton(automaton);
 		Automaton<L, List<PathWeight<K>>> kT = Operations.toKTropicalSemiring(automaton, numPaths);
 		List<PathWeight<K>> w = shortestCompleteDistances(kT, sssd);
 		ArrayList<Path<L, K>> paths = new ArrayList<Path<L, K>>();
 		for (PathWeight<K> pw : w) if (! pw.weight.equals(automaton.semiring().zero()))
 		{
 			Path<L, K> path = pw.path(automaton);
-			if (sr.zero().equals(0.0))
-			{	
-				Double nw = Math.exp(- (Double) path.weight);
-				path.weight = (K) nw;
-			}
+			if (real) toRealWeight(path);
 			paths.add(path);
 		}
 		return paths;
@@ -250,13 +257,110 @@ public class Automata
 	
 	/**
 	 * @return
-	 * a list with the specified number of shortest paths computed by the specified shortest distance algorithm. 
+	 * a list with the specified number of shortest paths, enumerated lazily by {@link KShortestPaths}. 
 	 */
 
 	public static <L, K extends Comparable<K>> List<Path<L, K>> shortestPaths(Automaton<L, K> automaton, int numPaths)
 	{
-		SingleSourceShortestDistances<List<PathWeight<K>>> sssd = new SingleSourceShortestDistances<List<PathWeight<K>>>(new KTropicalQueueFactory<K>(), new ExactConvergence<List<PathWeight<K>>>());
-		return shortestPaths(automaton, numPaths, sssd);
+		return new ArrayList<Path<L, K>>(shortestPathsSession(automaton).paths(numPaths));
+	}
+	
+	/**
+	 * @return
+	 * a resumable shortest paths search, which computes additional paths without recomputing the paths found earlier
+	 */
+
+	public static <L, K extends Comparable<K>> ShortestPathsSession<L, K> shortestPathsSession(Automaton<L, K> automaton)
+	{
+		return new ShortestPathsSession<L, K>(automaton);
+	}
+	
+	/**
+	 * @return
+	 * the best path of the automaton, or <code>null</code> if the automaton has no complete paths.
+	 * The search stops as soon as a final state is settled (see <code>bestPath(Automaton, Function)</code>).
+	 */
+	
+	public static <L, K extends Comparable<K>> Path<L, K> bestPath(Automaton<L, K> automaton)
+	{
+		return bestPath(automaton, null);
+	}
+	
+	/**
+	 * Computes the best path with Dijkstra's algorithm, or with A* if a heuristic is specified.
+	 * Every state is settled at most once, and the search stops as soon as a complete path is extracted,
+	 * so on large automata only the states that are better than the best path (according to the heuristic) are visited.
+	 * The weights are required to be monotone, i.e. extending a path never yields a better weight,
+	 * as in the tropical semiring with non-negative weights.
+	 * Automata over the real semiring are searched in the tropical semiring.
+	 * 
+	 * @param heuristic
+	 * a function that assigns to each state a consistent estimate of its distance to the final states,
+	 * in the semiring of the automaton, or <code>null</code> to run Dijkstra's algorithm.
+	 * The distances computed by <code>shortestDistancesToFinalStates</code> are consistent
+	 * (see <code>KShortestPaths.lookup</code>).
+	 * States for which the function returns <code>null</code> are assumed not to lead to a final state.
+	 * 
+	 * @return
+	 * the best path of the automaton, or <code>null</code> if the automaton has no complete paths
+	 */
+	
+	@SuppressWarnings("unchecked")
+	public static <L, K extends Comparable<K>> Path<L, K> bestPath(Automaton<L, K> automaton, Function<Object, K> heuristic)
+	{
+		boolean real = isReal(automaton.semiring());
+		automaton = searchAutomaton(automaton);
+		if (real && heuristic != null)
+		{
+			final Function<Object, Double> realHeuristic = (Function<Object, Double>) heuristic;
+			heuristic = (Function<Object, K>) new Function<Object, Double>()
+			{
+				public Double apply(Object state) 
+				{
+					Double h = realHeuristic.apply(state);
+					return h == null ? null : - Math.log(h);
+				}
+			};
+		}
+		KShortestPaths<L, K> kShortestPaths = new KShortestPaths<L, K>(automaton, heuristic, 1);
+		if (! kShortestPaths.hasNext()) return null;
+		Path<L, K> path = kShortestPaths.next();
+		if (real) toRealWeight(path);
+		return path;
+	}
+	
+	/**
+	 * @return
+	 * true if and only if the specified semiring is the real semiring, 
+	 * whose paths are searched in the tropical semiring
+	 */
+	
+	static boolean isReal(Semiring<?> semiring)
+	{
+		return semiring.zero().equals(0.0);
+	}
+	
+	/**
+	 * @return
+	 * the automaton in which the paths of the specified automaton are searched:
+	 * its conversion to the tropical semiring if it is over the real semiring, and the automaton itself otherwise
+	 */
+	
+	@SuppressWarnings("unchecked")
+	static <L, K> Automaton<L, K> searchAutomaton(Automaton<L, K> automaton)
+	{
+		return isReal(automaton.semiring()) ? (Automaton<L, K>) Operations.realToTropicalSemiring((Automaton<L, Double>) automaton) : automaton;
+	}
+	
+	/**
+	 * Converts the weight of a path that was found in the tropical semiring back to the real semiring.
+	 */
+	
+	@SuppressWarnings("unchecked")
+	static <L, K> void toRealWeight(Path<L, K> path)
+	{
+		Double nw = Math.exp(- (Double) path.weight);
+		path.weight = (K) nw;
 	}
 	
 	/**
@@ -277,8 +381,93 @@ public class Automata
 	
 	public static <L, K extends Comparable<K>> List<Path<L, K>> bestStrings(Automaton<L, K> automaton, int numPaths)
 	{
-		Automaton<L, K> det = Operations.determinizeER(automaton);
-		return shortestPaths(det, numPaths);
+		return bestStrings(automaton, numPaths, 0);
+	}
+	
+	/**
+	 * Computes the best strings with an A* search over the on-the-fly determinization of the 
+	 * epsilon-removed automaton, so only the determinized states that are reached by the search front are computed.
+	 * The heuristic of a determinized state is the sum of its remainder weights multiplied by the shortest distances 
+	 * from the corresponding states to the final states, which are computed on the epsilon-removed automaton.
+	 * Paths with a label sequence that was found before are skipped.
+	 * 
+	 * @param maxStates
+	 * the maximum number of determinized states that are visited, or <code>0</code> for no maximum.
+	 * If the search reaches more states, the strings found so far are returned,
+	 * and <code>isTruncated</code> of the returned list is <code>true</code>.
+	 * 
+	 * @return
+	 * a list with at most the specified number of best strings
+	 */
+	
+	@SuppressWarnings("unchecked")
+	public static <L, K extends Comparable<K>> PathList<L, K> bestStrings(Automaton<L, K> automaton, int numPaths, int maxStates)
+	{
+		Automaton<L, K> er = Operations.epsilonRemoval(automaton);
+		Automaton<L, K> det = Operations.determinize(er);
+		final Semiring<K> sr = automaton.semiring();
+		final Map<Object, K> completionWeights = completionWeights(er);
+		Function<Object, K> heuristic = new Function<Object, K>()
+		{
+			public K apply(Object state) 
+			{
+				K h = sr.zero();
+				Determinization<L, K>.DeterminizationState s = (Determinization<L, K>.DeterminizationState) state;
+				for (int i = 0; i < s.size(); i++)
+				{
+					K c = completionWeights.get(s.operandState(i));
+					if (c != null) h = sr.add(h, sr.multiply(s.remainderWeight(i), c));
+				}
+				return h;
+			}
+		};
+		KShortestPaths<L, K> kShortestPaths = new KShortestPaths<L, K>(det, heuristic, numPaths, maxStates);
+		Set<List<L>> labels = new HashSet<List<L>>();
+		PathList<L, K> paths = new PathList<L, K>();
+		while (paths.size() < numPaths && kShortestPaths.hasNext())
+		{
+			Path<L, K> path = kShortestPaths.next();
+			if (labels.add(path.label)) paths.add(path);
+		}
+		paths.setTruncated(kShortestPaths.isTruncated());
+		return paths;
+	}
+	
+	/**
+	 * @return
+	 * a map that assigns to every state that is reachable from the initial states the shortest distance to the final states
+	 * (including the final weights).
+	 * The distances are computed on a reversed copy of the reachable part of the automaton with an additional source state,
+	 * so the semiring is required to be commutative.
+	 */
+	
+	static <L, K> Map<Object, K> completionWeights(Automaton<L, K> automaton)
+	{
+		Semiring<K> sr = automaton.semiring();
+		StateIndex stateIndex = new StateIndex();
+		CompactAutomaton.Builder<L, K> reversed = new CompactAutomaton.Builder<L, K>(sr);
+		reversed.addState(sr.one(), sr.zero());
+		for (Object s : automaton.initialStates()) stateIndex.index(s);
+		for (int q = 0; q < stateIndex.size(); q++)
+		{
+			Object state = stateIndex.state(q);
+			reversed.addState(sr.zero(), sr.zero());
+			K fw = automaton.finalWeight(state);
+			if (! sr.zero().equals(fw)) reversed.addTransition(0, q + 1, null, fw);
+			for (Object t : automaton.transitionsOut(state))
+			{
+				int to = stateIndex.index(automaton.to(t));
+				reversed.addTransition(to + 1, q + 1, null, automaton.transitionWeight(t));
+			}
+		}
+		Map<Object, K> distances = Operations.defaultShortestDistances(sr).computeShortestDistances(reversed.build(), 0);
+		DenseStateMap<K> completionWeights = new DenseStateMap<K>();
+		for (int q = 0; q < stateIndex.size(); q++)
+		{
+			K d = distances.get(q + 1);
+			if (d != null && ! sr.zero().equals(d)) completionWeights.put(stateIndex.state(q), d);
+		}
+		return completionWeights;
 	}
 	
 	/**
@@ -300,15 +489,7 @@ public class Automata
 		SingleInitialStateOperation<L, K> sisAutomaton = new SingleInitialStateOperation<L, K>(automaton);		
 		Map<Object, K> sisMap = sssd.computeShortestDistances(sisAutomaton, sisAutomaton.initialState());
 		
-		HashMap<Object, K> sdMap = new HashMap<Object, K>();
-		for (Entry<Object, K> e : sisMap.entrySet()) 
-		{	
-			SingleInitialStateOperation<L, K>.SISState s = (SingleInitialStateOperation<L, K>.SISState) e.getKey();
-			if (s.operandState != null) 
-				sdMap.put(s.operandState, e.getValue());
-		}
-		
-		return sdMap;
+		return operandDistances(sisMap);
 	}
 	
 	/**
@@ -331,6 +512,31 @@ public class Automata
 		SingleInitialStateOperation<L, K> sisAutomaton = new SingleInitialStateOperation<L, K>(rev);		
 		Map<Object, K> sisMap = sssd.computeShortestDistances(sisAutomaton, sisAutomaton.initialState());
 		
+		return operandDistances(sisMap);
+	}
+	
+	
+	/**
+	 * Maps the distances of the states of a {@link SingleInitialStateOperation} to the corresponding operand states.
+	 * If the distances are stored in a {@link DoubleStateMap}, the result is a {@link DoubleStateMap} as well.
+	 */
+	
+	@SuppressWarnings("unchecked")
+	static <L, K> Map<Object, K> operandDistances(Map<Object, K> sisMap)
+	{
+		if (sisMap instanceof DoubleStateMap)
+		{
+			DoubleStateMap dsMap = (DoubleStateMap) sisMap;
+			DoubleStateMap sdMap = new DoubleStateMap(dsMap.defaultValue());
+			for (int i = 0; i < dsMap.numIndices(); i++) if (dsMap.containsIndex(i))
+			{
+				SingleInitialStateOperation<L, K>.SISState s = (SingleInitialStateOperation<L, K>.SISState) dsMap.state(i);
+				if (s.operandState != null) 
+					sdMap.putDouble(s.operandState, dsMap.valueAt(i));
+			}
+			return (Map<Object, K>) sdMap;
+		}
+		
 		HashMap<Object, K> sdMap = new HashMap<Object, K>();
 		for (Entry<Object, K> e : sisMap.entrySet()) 
 		{	
@@ -342,7 +548,6 @@ public class Automata
 		return sdMap;
 	}
 	
-	
 	/**
 	 * Computes the shortest distance from the initial states to the final states.
 	 * 
@@ -2,6 +2,7 @@ package net.jhoogland.jautomata;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * Instances of this class contain information of a state, such as initial weight, final weight,
@@ -23,6 +24,8 @@ public class BasicState<K>
 	private Collection<Object> transitionsIn;
 	private K initialWeight;
 	private K finalWeight;
+	private Map<Object, Collection<Object>>[] transitionsOutByKey;
+	private int numGroupedTransitionsOut;
 	
 	public BasicState(K initialWeight, K finalWeight, Collection<Object> transitionsOut, Collection<Object> transitionsIn) 
 	{
@@ -72,4 +75,46 @@ public class BasicState<K>
 	{
 		return transitionsIn;
 	}
+	
+	/**
+	 * @return
+	 * the outgoing transitions of a state grouped by the specified type of key 
+	 * (see <code>ExplicitAutomaton.transitionKey</code>), 
+	 * or <code>null</code> if they have not been grouped since the last change of the outgoing transitions.
+	 * The groups are discarded if the number of outgoing transitions has changed since they were stored,
+	 * so transitions may be added to or removed from the collection returned by <code>transitionsOut()</code> directly.
+	 * If a transition is replaced without changing the number of transitions,
+	 * <code>clearTransitionsOutByKey()</code> has to be called.
+	 */
+	public synchronized Map<Object, Collection<Object>> transitionsOutByKey(int keyType)
+	{
+		if (transitionsOutByKey != null && transitionsOut.size() != numGroupedTransitionsOut) transitionsOutByKey = null;
+		return transitionsOutByKey == null || keyType >= transitionsOutByKey.length ? null : transitionsOutByKey[keyType];
+	}
+	
+	/**
+	 * Stores the outgoing transitions of a state grouped by the specified type of key.
+	 */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public synchronized void setTransitionsOutByKey(int keyType, Map<Object, Collection<Object>> transitionsOutByKey)
+	{
+		if (this.transitionsOutByKey != null && transitionsOut.size() != numGroupedTransitionsOut) this.transitionsOutByKey = null;
+		numGroupedTransitionsOut = transitionsOut.size();
+		if (this.transitionsOutByKey == null || keyType >= this.transitionsOutByKey.length)
+		{
+			Map<Object, Collection<Object>>[] grown = new Map[keyType + 1];
+			if (this.transitionsOutByKey != null) System.arraycopy(this.transitionsOutByKey, 0, grown, 0, this.transitionsOutByKey.length);
+			this.transitionsOutByKey = grown;
+		}
+		this.transitionsOutByKey[keyType] = transitionsOutByKey;
+	}
+	
+	/**
+	 * Discards the grouped outgoing transitions of a state.
+	 * This method has to be called when the outgoing transitions change without a change of their number.
+	 */
+	public synchronized void clearTransitionsOutByKey()
+	{
+		transitionsOutByKey = null;
+	}
 }
@@ -0,0 +1,751 @@
+package net.jhoogland.jautomata;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * <p>
+ * Immutable implementation of {@link Automaton} that stores all states and transitions in primitive arrays.
+ * States are identified by the integers <code>0 ... numStates() - 1</code> and transitions by the integers
+ * <code>0 ... numTransitions() - 1</code>.
+ * The source state, destination state and label index of every transition are stored in <code>int</code> columns.
+ * Transitions are numbered in order of their source state,
+ * so the outgoing transitions of a state form a contiguous range that is stored in a
+ * compressed sparse row offset array.
+ * The incoming transitions are stored in a second compressed sparse row structure.
+ * A third array lists the outgoing transitions of every state sorted by label index,
+ * so the outgoing transitions with a given label are found by binary search (see {@link ExtendedAutomaton}).
+ * If the weights of the semiring are <code>Double</code> values, they are stored in <code>double</code> columns.
+ * </p>
+ * <p>
+ * Compared to {@link ArrayAutomaton}, no objects are allocated per state or transition,
+ * which reduces the memory needed for large automata by roughly an order of magnitude.
+ * Instances are created from an existing automaton or with a {@link CompactAutomaton.Builder}.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ *
+ * @param <K>
+ * weight type (Boolean for regular automata and Double for weighted automata)
+ *
+ */
+
+public class CompactAutomaton<L, K> extends AbstractAutomaton<L, K> implements ReverselyAccessibleAutomaton<L, K>, ExtendedAutomaton<L, K>, IntegerWeightedAutomaton<L, K>
+{
+	private int numStates;
+	private int numTransitions;
+
+	private int[] from;
+	private int[] to;
+	private int[] labelIds;
+	private Object[] labels;
+	private Map<Object, Integer> labelMap;
+
+	private int[] outOffsets;
+	private int[] inOffsets;
+	private int[] inTransitions;
+	private int[] labelOrder;
+
+	private WeightColumn<K> transitionWeights;
+	private WeightColumn<K> initialWeights;
+	private WeightColumn<K> finalWeights;
+
+	private int[] initialStates;
+	private int[] finalStates;
+
+	private long maxIntegerWeight;
+
+	/**
+	 * Constructs an instance of {@link CompactAutomaton} that is identical to the specified source automaton.
+	 * The states of the source automaton are numbered in the order in which they are visited
+	 * by a breadth-first traversal that starts at the initial states.
+	 * The outgoing transitions of every state of the source automaton are retrieved only once.
+	 */
+
+	public CompactAutomaton(Automaton<L, K> src)
+	{
+		this(compile(src));
+	}
+
+	private CompactAutomaton(Builder<L, K> builder)
+	{
+		super(builder.semiring, builder.isForward() ? new IntegerComparator() : null);
+		Semiring<K> semiring = builder.semiring;
+		numStates = builder.numStates;
+		numTransitions = builder.numTransitions;
+		labels = builder.labels.toArray();
+		labelMap = new HashMap<Object, Integer>(builder.labelMap);
+		initialWeights = builder.initialWeights.trim(numStates);
+		finalWeights = builder.finalWeights.trim(numStates);
+
+		// Counting sort of the transitions by source state
+
+		outOffsets = offsets(builder.from, numTransitions, numStates);
+		int[] position = Arrays.copyOf(outOffsets, numStates);
+		int[] order = new int[numTransitions];
+		for (int t = 0; t < numTransitions; t++)
+			order[t] = position[builder.from[t]]++;
+		from = new int[numTransitions];
+		to = new int[numTransitions];
+		labelIds = new int[numTransitions];
+		transitionWeights = builder.transitionWeights.empty(numTransitions);
+		for (int t = 0; t < numTransitions; t++)
+		{
+			int nt = order[t];
+			from[nt] = builder.from[t];
+			to[nt] = builder.to[t];
+			labelIds[nt] = builder.labelIds[t];
+			transitionWeights.copy(builder.transitionWeights, t, nt);
+		}
+
+		// Counting sort of the transitions by destination state
+
+		inOffsets = offsets(to, numTransitions, numStates);
+		position = Arrays.copyOf(inOffsets, numStates);
+		inTransitions = new int[numTransitions];
+		for (int t = 0; t < numTransitions; t++)
+			inTransitions[position[to[t]]++] = t;
+
+		// Counting sort of the transitions by label, followed by a stable counting sort by source state
+
+		int[] labelOffsets = new int[labels.length + 2];
+		for (int t = 0; t < numTransitions; t++)
+			labelOffsets[labelIds[t] + 2]++;
+		for (int l = 0; l <= labels.length; l++)
+			labelOffsets[l + 1] += labelOffsets[l];
+		int[] byLabel = new int[numTransitions];
+		for (int t = 0; t < numTransitions; t++)
+			byLabel[labelOffsets[labelIds[t] + 1]++] = t;
+		position = Arrays.copyOf(outOffsets, numStates);
+		labelOrder = new int[numTransitions];
+		for (int t : byLabel)
+			labelOrder[position[from[t]]++] = t;
+
+		K zero = semiring.zero();
+		int numInitialStates = 0, numFinalStates = 0;
+		for (int s = 0; s < numStates; s++)
+		{
+			if (! zero.equals(initialWeights.get(s))) numInitialStates++;
+			if (! zero.equals(finalWeights.get(s))) numFinalStates++;
+		}
+		initialStates = new int[numInitialStates];
+		finalStates = new int[numFinalStates];
+		numInitialStates = 0;
+		numFinalStates = 0;
+		for (int s = 0; s < numStates; s++)
+		{
+			if (! zero.equals(initialWeights.get(s))) initialStates[numInitialStates++] = s;
+			if (! zero.equals(finalWeights.get(s))) finalStates[numFinalStates++] = s;
+		}
+
+		maxIntegerWeight = -1;
+		if (hasDoubleWeights())
+		{
+			double[] values = ((DoubleColumn<K>) transitionWeights).values;
+			long max = 0;
+			for (int t = 0; t < numTransitions && max >= 0; t++)
+			{
+				double w = values[t];
+				if (w >= 0 && w <= Long.MAX_VALUE && w == Math.rint(w)) max = Math.max(max, (long) w);
+				else max = -1;
+			}
+			maxIntegerWeight = max;
+		}
+	}
+
+	private static int[] offsets(int[] states, int numTransitions, int numStates)
+	{
+		int[] offsets = new int[numStates + 1];
+		for (int t = 0; t < numTransitions; t++)
+			offsets[states[t] + 1]++;
+		for (int s = 0; s < numStates; s++)
+			offsets[s + 1] += offsets[s];
+		return offsets;
+	}
+
+	private static <L, K> Builder<L, K> compile(Automaton<L, K> src)
+	{
+		Builder<L, K> builder = new Builder<L, K>(src.semiring());
+		Map<Object, Integer> stateMap = new HashMap<Object, Integer>();
+		Comparator<Object> order = src.topologicalOrder();
+		Queue<Object> front = order == null ? new LinkedList<Object>() : new PriorityQueue<Object>(11, order);
+		for (Object state : src.initialStates()) if (! stateMap.containsKey(state))
+		{
+			stateMap.put(state, builder.addState(src.initialWeight(state), src.finalWeight(state)));
+			front.add(state);
+		}
+		while (! front.isEmpty())
+		{
+			Object state = front.poll();
+			int s = stateMap.get(state);
+			for (Object transition : src.transitionsOut(state))
+			{
+				Object next = src.to(transition);
+				Integer n = stateMap.get(next);
+				if (n == null)
+				{
+					n = builder.addState(src.initialWeight(next), src.finalWeight(next));
+					stateMap.put(next, n);
+					front.add(next);
+				}
+				builder.addTransition(s, n, src.label(transition), src.transitionWeight(transition));
+			}
+		}
+		return builder;
+	}
+
+	/**
+	 * @return
+	 * the number of states
+	 */
+
+	public int numStates()
+	{
+		return numStates;
+	}
+
+	/**
+	 * @return
+	 * the number of transitions
+	 */
+
+	public int numTransitions()
+	{
+		return numTransitions;
+	}
+
+	/**
+	 * @return
+	 * the first outgoing transition of the specified state.
+	 * The outgoing transitions are <code>outStart(state) ... outEnd(state) - 1</code>.
+	 */
+
+	public int outStart(int state)
+	{
+		return outOffsets[state];
+	}
+
+	/**
+	 * @return
+	 * the outgoing transition that follows the last outgoing transition of the specified state
+	 */
+
+	public int outEnd(int state)
+	{
+		return outOffsets[state + 1];
+	}
+
+	/**
+	 * @return
+	 * the number of incoming transitions of the specified state
+	 */
+
+	public int numTransitionsIn(int state)
+	{
+		return inOffsets[state + 1] - inOffsets[state];
+	}
+
+	/**
+	 * @return
+	 * the <code>i</code>-th incoming transition of the specified state
+	 */
+
+	public int transitionIn(int state, int i)
+	{
+		return inTransitions[inOffsets[state] + i];
+	}
+
+	/**
+	 * @return
+	 * the source state of the specified transition
+	 */
+
+	public int fromState(int transition)
+	{
+		return from[transition];
+	}
+
+	/**
+	 * @return
+	 * the destination state of the specified transition
+	 */
+
+	public int toState(int transition)
+	{
+		return to[transition];
+	}
+
+	/**
+	 * @return
+	 * the index of the label of the specified transition in the label table, or <code>-1</code> for the empty label
+	 */
+
+	public int labelId(int transition)
+	{
+		return labelIds[transition];
+	}
+
+	/**
+	 * @return
+	 * the number of distinct non-empty labels
+	 */
+
+	public int numLabels()
+	{
+		return labels.length;
+	}
+
+	/**
+	 * @return
+	 * the label with the specified index in the label table, or <code>null</code> if the index is <code>-1</code>
+	 */
+
+	@SuppressWarnings("unchecked")
+	public L labelOf(int labelId)
+	{
+		return labelId < 0 ? null : (L) labels[labelId];
+	}
+
+	/**
+	 * @return
+	 * <code>true</code> if the weights are stored in <code>double</code> columns, <code>false</code> otherwise
+	 */
+
+	public boolean hasDoubleWeights()
+	{
+		return transitionWeights instanceof DoubleColumn;
+	}
+
+	/**
+	 * @return
+	 * the largest transition weight if all transition weights are non-negative integers 
+	 * stored in a <code>double</code> column, and <code>-1</code> otherwise
+	 */
+
+	public long maxIntegerTransitionWeight()
+	{
+		return maxIntegerWeight;
+	}
+
+	/**
+	 * @return
+	 * the weight of the specified transition.
+	 * Requires <code>hasDoubleWeights()</code> to be <code>true</code>.
+	 */
+
+	public double doubleTransitionWeight(int transition)
+	{
+		return ((DoubleColumn<K>) transitionWeights).values[transition];
+	}
+
+	/**
+	 * @return
+	 * the initial weight of the specified state.
+	 * Requires <code>hasDoubleWeights()</code> to be <code>true</code>.
+	 */
+
+	public double doubleInitialWeight(int state)
+	{
+		return ((DoubleColumn<K>) initialWeights).values[state];
+	}
+
+	/**
+	 * @return
+	 * the final weight of the specified state.
+	 * Requires <code>hasDoubleWeights()</code> to be <code>true</code>.
+	 */
+
+	public double doubleFinalWeight(int state)
+	{
+		return ((DoubleColumn<K>) finalWeights).values[state];
+	}
+
+	public Collection<Object> initialStates()
+	{
+		return new IntArrayView(initialStates, 0, initialStates.length);
+	}
+
+	public Collection<Object> finalStates()
+	{
+		return new IntArrayView(finalStates, 0, finalStates.length);
+	}
+
+	public Collection<Object> transitionsOut(Object state)
+	{
+		int s = ((Integer) state).intValue();
+		return new RangeView(outOffsets[s], outOffsets[s + 1]);
+	}
+
+	public int maxNumTransitions(Object state)
+	{
+		int s = ((Integer) state).intValue();
+		return outOffsets[s + 1] - outOffsets[s];
+	}
+
+	public Collection<Object> transitionsOut(Object state, L label)
+	{
+		int s = ((Integer) state).intValue();
+		int l = -1;
+		if (label != null)
+		{
+			Integer id = labelMap.get(label);
+			if (id == null) return Collections.emptyList();
+			l = id;
+		}
+		int start = labelBound(outOffsets[s], outOffsets[s + 1], l);
+		int end = labelBound(start, outOffsets[s + 1], l + 1);
+		return new IntArrayView(labelOrder, start, end);
+	}
+
+	/**
+	 * @return
+	 * the first position in the specified range of <code>labelOrder</code> with a label index of at least the specified label index
+	 */
+
+	private int labelBound(int start, int end, int labelId)
+	{
+		while (start < end)
+		{
+			int mid = (start + end) >>> 1;
+			if (labelIds[labelOrder[mid]] < labelId) start = mid + 1;
+			else end = mid;
+		}
+		return start;
+	}
+
+	public Collection<Object> transitionsIn(Object state)
+	{
+		int s = ((Integer) state).intValue();
+		return new IntArrayView(inTransitions, inOffsets[s], inOffsets[s + 1]);
+	}
+
+	public K initialWeight(Object state)
+	{
+		return initialWeights.get(((Integer) state).intValue());
+	}
+
+	public K finalWeight(Object state)
+	{
+		return finalWeights.get(((Integer) state).intValue());
+	}
+
+	public Object from(Object transition)
+	{
+		return from[((Integer) transition).intValue()];
+	}
+
+	public Object to(Object transition)
+	{
+		return to[((Integer) transition).intValue()];
+	}
+
+	public L label(Object transition)
+	{
+		return labelOf(labelIds[((Integer) transition).intValue()]);
+	}
+
+	public K transitionWeight(Object transition)
+	{
+		return transitionWeights.get(((Integer) transition).intValue());
+	}
+
+	public boolean isReverselyAccessible()
+	{
+		return true;
+	}
+
+	/**
+	 *
+	 * Collects states and transitions in growable arrays and creates a {@link CompactAutomaton} from them.
+	 * States are numbered in the order in which they are added.
+	 * Transitions may be added in any order.
+	 *
+	 * @param <L>
+	 * label type
+	 *
+	 * @param <K>
+	 * weight type
+	 */
+
+	public static class Builder<L, K>
+	{
+		private Semiring<K> semiring;
+		private int numStates;
+		private int numTransitions;
+		private int[] from;
+		private int[] to;
+		private int[] labelIds;
+		private List<Object> labels;
+		private Map<Object, Integer> labelMap;
+		private WeightColumn<K> transitionWeights;
+		private WeightColumn<K> initialWeights;
+		private WeightColumn<K> finalWeights;
+
+		public Builder(Semiring<K> semiring)
+		{
+			this.semiring = semiring;
+			from = new int[16];
+			to = new int[16];
+			labelIds = new int[16];
+			labels = new ArrayList<Object>();
+			labelMap = new HashMap<Object, Integer>();
+			transitionWeights = WeightColumn.create(semiring, 16);
+			initialWeights = WeightColumn.create(semiring, 16);
+			finalWeights = WeightColumn.create(semiring, 16);
+		}
+
+		/**
+		 * Adds a state with the specified initial and final weight.
+		 *
+		 * @return
+		 * the number of the new state
+		 */
+
+		public int addState(K initialWeight, K finalWeight)
+		{
+			int state = numStates++;
+			initialWeights = initialWeights.set(state, initialWeight);
+			finalWeights = finalWeights.set(state, finalWeight);
+			return state;
+		}
+
+		/**
+		 * Adds a transition between the specified states.
+		 * The number of a transition in the resulting automaton may differ from the order in which it was added,
+		 * because the transitions are sorted by source state.
+		 */
+
+		public void addTransition(int from, int to, L label, K weight)
+		{
+			if (numTransitions == this.from.length)
+			{
+				int capacity = 2 * numTransitions;
+				this.from = Arrays.copyOf(this.from, capacity);
+				this.to = Arrays.copyOf(this.to, capacity);
+				this.labelIds = Arrays.copyOf(this.labelIds, capacity);
+			}
+			this.from[numTransitions] = from;
+			this.to[numTransitions] = to;
+			this.labelIds[numTransitions] = labelId(label);
+			transitionWeights = transitionWeights.set(numTransitions, weight);
+			numTransitions++;
+		}
+
+		public void addTransition(int from, int to, L label)
+		{
+			addTransition(from, to, label, semiring.one());
+		}
+
+		/**
+		 * @return
+		 * the number of states added so far
+		 */
+
+		public int numStates()
+		{
+			return numStates;
+		}
+
+		/**
+		 * @return
+		 * a {@link CompactAutomaton} with the states and transitions added to this builder
+		 */
+
+		public CompactAutomaton<L, K> build()
+		{
+			return new CompactAutomaton<L, K>(this);
+		}
+
+		private int labelId(L label)
+		{
+			if (label == null) return -1;
+			Integer id = labelMap.get(label);
+			if (id == null)
+			{
+				id = labels.size();
+				labels.add(label);
+				labelMap.put(label, id);
+			}
+			return id;
+		}
+
+		/**
+		 * @return
+		 * <code>true</code> if every transition leads to a state with a higher number,
+		 * in which case the natural order of the state numbers is a topological order
+		 */
+
+		private boolean isForward()
+		{
+			for (int t = 0; t < numTransitions; t++)
+				if (from[t] >= to[t]) return false;
+			return true;
+		}
+	}
+
+	/**
+	 * Stores the weights of states or transitions in a primitive column if possible.
+	 */
+
+	static abstract class WeightColumn<K>
+	{
+		static <K> WeightColumn<K> create(Semiring<K> semiring, int capacity)
+		{
+			if (semiring.zero() instanceof Double) return new DoubleColumn<K>(capacity);
+			else return new ObjectColumn<K>(capacity);
+		}
+
+		abstract K get(int i);
+		abstract WeightColumn<K> set(int i, K weight);
+		abstract WeightColumn<K> empty(int size);
+		abstract WeightColumn<K> trim(int size);
+		abstract void copy(WeightColumn<K> src, int srcIndex, int index);
+	}
+
+	static class DoubleColumn<K> extends WeightColumn<K>
+	{
+		double[] values;
+
+		DoubleColumn(int size)
+		{
+			values = new double[size];
+		}
+
+		@SuppressWarnings("unchecked")
+		K get(int i)
+		{
+			return (K) (Double) values[i];
+		}
+
+		WeightColumn<K> set(int i, K weight)
+		{
+			if (i >= values.length) values = Arrays.copyOf(values, Math.max(2 * values.length, i + 1));
+			values[i] = (Double) weight;
+			return this;
+		}
+
+		WeightColumn<K> empty(int size)
+		{
+			return new DoubleColumn<K>(size);
+		}
+
+		WeightColumn<K> trim(int size)
+		{
+			values = Arrays.copyOf(values, size);
+			return this;
+		}
+
+		void copy(WeightColumn<K> src, int srcIndex, int index)
+		{
+			values[index] = ((DoubleColumn<K>) src).values[srcIndex];
+		}
+	}
+
+	static class ObjectColumn<K> extends WeightColumn<K>
+	{
+		Object[] values;
+
+		ObjectColumn(int size)
+		{
+			values = new Object[size];
+		}
+
+		@SuppressWarnings("unchecked")
+		K get(int i)
+		{
+			return (K) values[i];
+		}
+
+		WeightColumn<K> set(int i, K weight)
+		{
+			if (i >= values.length) values = Arrays.copyOf(values, Math.max(2 * values.length, i + 1));
+			values[i] = weight;
+			return this;
+		}
+
+		WeightColumn<K> empty(int size)
+		{
+			return new ObjectColumn<K>(size);
+		}
+
+		WeightColumn<K> trim(int size)
+		{
+			values = Arrays.copyOf(values, size);
+			return this;
+		}
+
+		void copy(WeightColumn<K> src, int srcIndex, int index)
+		{
+			values[index] = ((ObjectColumn<K>) src).values[srcIndex];
+		}
+	}
+
+	/**
+	 * Read-only view of a range of integers as a collection of states or transitions.
+	 */
+
+	static class RangeView extends AbstractList<Object>
+	{
+		int start;
+		int end;
+
+		RangeView(int start, int end)
+		{
+			this.start = start;
+			this.end = end;
+		}
+
+		public Object get(int index)
+		{
+			return start + index;
+		}
+
+		public int size()
+		{
+			return end - start;
+		}
+	}
+
+	/**
+	 * Read-only view of a part of an <code>int</code> array as a collection of states or transitions.
+	 */
+
+	static class IntArrayView extends AbstractList<Object>
+	{
+		int[] values;
+		int start;
+		int end;
+
+		IntArrayView(int[] values, int start, int end)
+		{
+			this.values = values;
+			this.start = start;
+			this.end = end;
+		}
+
+		public Object get(int index)
+		{
+			return values[start + index];
+		}
+
+		public int size()
+		{
+			return end - start;
+		}
+	}
+}
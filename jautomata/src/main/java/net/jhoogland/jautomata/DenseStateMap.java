@@ -0,0 +1,163 @@
+package net.jhoogland.jautomata;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *
+ * A map from states to weights that stores the weights in an array.
+ * Every state that is added to the map is assigned a dense index by a {@link StateIndex}.
+ * For automata with <code>Integer</code> states, such as {@link CompactAutomaton}, the map
+ * is a plain table indexed by state number.
+ * The entries are iterated in the order in which the states were first added.
+ * Null values are not supported.
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * weight type
+ * (Boolean for regular automata and Double for weighted automata)
+ */
+
+public class DenseStateMap<K> extends AbstractMap<Object, K> implements IndexedStateMap<K>
+{
+	private StateIndex states;
+	private Object[] values;
+	private int size;
+
+	public DenseStateMap()
+	{
+		states = new StateIndex();
+		values = new Object[16];
+	}
+
+	public StateIndex stateIndex()
+	{
+		return states;
+	}
+
+	/**
+	 * @return
+	 * the index of the specified state.
+	 * A new index is assigned if the state has no index yet.
+	 * Assigning an index does not add the state to the map.
+	 */
+
+	public int index(Object state)
+	{
+		int index = states.index(state);
+		if (index >= values.length) values = Arrays.copyOf(values, Math.max(index + 1, 2 * values.length));
+		return index;
+	}
+
+	/**
+	 * @return
+	 * the weight stored at the specified index, or <code>null</code> if no weight is stored
+	 */
+
+	@SuppressWarnings("unchecked")
+	public K valueAt(int index)
+	{
+		return index < values.length ? (K) values[index] : null;
+	}
+
+	/**
+	 * Stores the specified weight at the specified index.
+	 */
+
+	public void setValueAt(int index, K value)
+	{
+		if (value == null) throw new NullPointerException("DenseStateMap does not support null values.");
+		if (index >= values.length) values = Arrays.copyOf(values, Math.max(index + 1, 2 * values.length));
+		if (values[index] == null) size++;
+		values[index] = value;
+	}
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return get(key) != null;
+	}
+
+	@Override
+	public K get(Object key)
+	{
+		int index = states.indexOf(key);
+		return index < 0 ? null : valueAt(index);
+	}
+
+	@Override
+	public K put(Object key, K value)
+	{
+		int index = index(key);
+		K previous = valueAt(index);
+		setValueAt(index, value);
+		return previous;
+	}
+
+	@Override
+	public K remove(Object key)
+	{
+		int index = states.indexOf(key);
+		if (index < 0 || valueAt(index) == null) return null;
+		K previous = valueAt(index);
+		values[index] = null;
+		size--;
+		return previous;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public Set<Entry<Object, K>> entrySet()
+	{
+		return new AbstractSet<Entry<Object, K>>()
+		{
+			public Iterator<Entry<Object, K>> iterator()
+			{
+				return new Iterator<Entry<Object, K>>()
+				{
+					int next = advance(0);
+					int last = -1;
+
+					private int advance(int index)
+					{
+						while (index < states.size() && valueAt(index) == null) index++;
+						return index;
+					}
+
+					public boolean hasNext()
+					{
+						return next < states.size();
+					}
+
+					public Entry<Object, K> next()
+					{
+						if (! hasNext()) throw new NoSuchElementException();
+						last = next;
+						next = advance(next + 1);
+						return new SimpleImmutableEntry<Object, K>(states.state(last), valueAt(last));
+					}
+
+					public void remove()
+					{
+						DenseStateMap.this.remove(states.state(last));
+					}
+				};
+			}
+
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+}
@@ -0,0 +1,21 @@
+package net.jhoogland.jautomata;
+
+/**
+ *
+ * Weight convergence conditions that can be evaluated on primitive <code>double</code> values
+ * implement this interface.
+ * Shortest distance algorithms use it to test convergence without creating <code>Double</code> objects.
+ *
+ * @author Jasper Hoogland
+ *
+ * @see WeightConvergenceCondition
+ */
+
+public interface DoubleConvergenceCondition
+{
+	/**
+	 * @return
+	 * true if the computed weights have converged, false otherwise
+	 */
+	public boolean converged(double w1, double w2);
+}
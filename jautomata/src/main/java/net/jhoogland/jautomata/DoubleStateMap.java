@@ -0,0 +1,253 @@
+package net.jhoogland.jautomata;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ *
+ * A {@link Map} from states to <code>double</code> weights that stores the weights in a primitive array.
+ * Every state that is added to the map is assigned a dense index by a {@link StateIndex},
+ * and the weights are stored in a <code>double</code> array at that index.
+ * Shortest distance algorithms use this map to store distances over semirings that implement
+ * {@link net.jhoogland.jautomata.semirings.DoubleSemiring} without creating a <code>Double</code>
+ * object for every update.
+ * The methods of {@link Map} are supported as well; they convert the weights from and to <code>Double</code> objects.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class DoubleStateMap extends AbstractMap<Object, Double> implements IndexedStateMap<Double>
+{
+	private StateIndex states;
+	private double[] values;
+	private boolean[] present;
+	private int size;
+	private double defaultValue;
+
+	/**
+	 * Creates an empty map.
+	 * The method <code>getDouble</code> returns the specified default value for states that are not in the map.
+	 */
+
+	public DoubleStateMap(double defaultValue)
+	{
+		this.defaultValue = defaultValue;
+		states = new StateIndex();
+		values = new double[16];
+		present = new boolean[16];
+		Arrays.fill(values, defaultValue);
+	}
+
+	/**
+	 * @return
+	 * the value returned by <code>getDouble</code> for states that are not in the map
+	 */
+
+	public double defaultValue()
+	{
+		return defaultValue;
+	}
+
+	/**
+	 * @return
+	 * the index of the specified state, or <code>-1</code> if the state has no index
+	 */
+
+	public int indexOf(Object state)
+	{
+		return states.indexOf(state);
+	}
+
+	/**
+	 * @return
+	 * the index of the specified state.
+	 * A new index is assigned if the state has no index yet.
+	 * Assigning an index does not add the state to the map.
+	 */
+
+	public int index(Object state)
+	{
+		int index = states.index(state);
+		if (index >= values.length) grow(index);
+		return index;
+	}
+
+	private void grow(int index)
+	{
+		int length = values.length;
+		values = Arrays.copyOf(values, Math.max(index + 1, 2 * length));
+		present = Arrays.copyOf(present, values.length);
+		Arrays.fill(values, length, values.length, defaultValue);
+	}
+
+	public StateIndex stateIndex()
+	{
+		return states;
+	}
+
+	/**
+	 * @return
+	 * the number of states that have been assigned an index
+	 */
+
+	public int numIndices()
+	{
+		return states.size();
+	}
+
+	/**
+	 * @return
+	 * the state with the specified index
+	 */
+
+	public Object state(int index)
+	{
+		return states.state(index);
+	}
+
+	/**
+	 * @return
+	 * the weight stored at the specified index, or the default value if no weight is stored
+	 */
+
+	public double valueAt(int index)
+	{
+		return index < values.length ? values[index] : defaultValue;
+	}
+
+	/**
+	 * @return
+	 * the weight of the specified state, or the default value if the state is not in the map
+	 */
+
+	public double getDouble(Object state)
+	{
+		int index = indexOf(state);
+		return index < 0 ? defaultValue : valueAt(index);
+	}
+
+	/**
+	 * Stores the specified weight at the specified index.
+	 */
+
+	public void setValueAt(int index, double value)
+	{
+		if (index >= values.length) grow(index);
+		values[index] = value;
+		if (! present[index])
+		{
+			present[index] = true;
+			size++;
+		}
+	}
+
+	/**
+	 * Stores the specified weight for the specified state.
+	 */
+
+	public void putDouble(Object state, double value)
+	{
+		setValueAt(index(state), value);
+	}
+
+	/**
+	 * @return
+	 * <code>true</code> if a weight is stored at the specified index
+	 */
+
+	public boolean containsIndex(int index)
+	{
+		return index >= 0 && index < present.length && present[index];
+	}
+
+	@Override
+	public boolean containsKey(Object key)
+	{
+		return containsIndex(indexOf(key));
+	}
+
+	@Override
+	public Double get(Object key)
+	{
+		int index = indexOf(key);
+		return containsIndex(index) ? values[index] : null;
+	}
+
+	@Override
+	public Double put(Object key, Double value)
+	{
+		int index = index(key);
+		Double previous = present[index] ? values[index] : null;
+		setValueAt(index, value);
+		return previous;
+	}
+
+	@Override
+	public Double remove(Object key)
+	{
+		int index = indexOf(key);
+		if (! containsIndex(index)) return null;
+		present[index] = false;
+		size--;
+		Double previous = values[index];
+		values[index] = defaultValue;
+		return previous;
+	}
+
+	@Override
+	public int size()
+	{
+		return size;
+	}
+
+	@Override
+	public Set<Entry<Object, Double>> entrySet()
+	{
+		return new AbstractSet<Entry<Object, Double>>()
+		{
+			public Iterator<Entry<Object, Double>> iterator()
+			{
+				return new Iterator<Entry<Object, Double>>()
+				{
+					int next = advance(0);
+					int last = -1;
+
+					private int advance(int index)
+					{
+						while (index < states.size() && ! containsIndex(index)) index++;
+						return index;
+					}
+
+					public boolean hasNext()
+					{
+						return next < states.size();
+					}
+
+					public Entry<Object, Double> next()
+					{
+						if (! hasNext()) throw new NoSuchElementException();
+						last = next;
+						next = advance(next + 1);
+						return new SimpleImmutableEntry<Object, Double>(states.state(last), values[last]);
+					}
+
+					public void remove()
+					{
+						DoubleStateMap.this.remove(states.state(last));
+					}
+				};
+			}
+
+			public int size()
+			{
+				return size;
+			}
+		};
+	}
+}
@@ -12,10 +12,15 @@ package net.jhoogland.jautomata;
  * (Boolean for regular automata and Double for weighted automata)
  */
 
-public class ExactConvergence<K> implements WeightConvergenceCondition<K> 
+public class ExactConvergence<K> implements WeightConvergenceCondition<K>, DoubleConvergenceCondition
 {
 	public boolean converged(K w1, K w2) 
 	{		
 		return w1.equals(w2);
 	}
+
+	public boolean converged(double w1, double w2) 
+	{
+		return Double.doubleToLongBits(w1) == Double.doubleToLongBits(w2);
+	}
 }
@@ -2,6 +2,7 @@ package net.jhoogland.jautomata;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -11,6 +12,9 @@ import net.jhoogland.jautomata.semirings.Semiring;
  * Subclasses of this abstract class implement automaton types that explicitly store information of states 
  * (initial weight, final weight, incoming/outgoing transitions) and transitions 
  * (previous/next state, label, weight).    
+ * The outgoing transitions of every state are grouped by label in a hash map the first time 
+ * <code>transitionsOut(state, label)</code> is called for that state,
+ * so the transitions with a given label are found in constant time (see {@link ExtendedAutomaton}).
  * 
  * @author Jasper Hoogland
  *
@@ -21,8 +25,13 @@ import net.jhoogland.jautomata.semirings.Semiring;
  * weight type
  * (Boolean for regular automata and Double for weighted automata)
  */
-public abstract class ExplicitAutomaton<L, K> extends AbstractAutomaton<L, K>  implements ReverselyAccessibleAutomaton<L, K>
+public abstract class ExplicitAutomaton<L, K> extends AbstractAutomaton<L, K>  implements ReverselyAccessibleAutomaton<L, K>, ExtendedAutomaton<L, K>
 {
+	/**
+	 * The key type by which <code>transitionsOut(state, label)</code> groups the transitions: the label itself.
+	 */
+	protected static final int LABEL = 0;
+	
 	protected Collection<Object> initialStates;
 	protected Collection<Object> finalStates;	
 	
@@ -86,6 +95,54 @@ public abstract class ExplicitAutomaton<L, K> extends AbstractAutomaton<L, K>  i
 		return getState(state).transitionsIn();
 	}
 
+	public int maxNumTransitions(Object state) 
+	{
+		return getState(state).transitionsOut().size();
+	}
+
+	public Collection<Object> transitionsOut(Object state, L label) 
+	{
+		return transitionsOutByKey(state, LABEL, label);
+	}
+	
+	/**
+	 * @return
+	 * the outgoing transitions of the specified state of which the key of the specified type is equal to the specified key
+	 */
+	protected Collection<Object> transitionsOutByKey(Object state, int keyType, Object key)
+	{
+		BasicState<K> stateData = getState(state);
+		Map<Object, Collection<Object>> byKey = stateData.transitionsOutByKey(keyType);
+		if (byKey == null)
+		{
+			byKey = new HashMap<Object, Collection<Object>>();
+			for (Object transition : stateData.transitionsOut())
+			{
+				Object k = transitionKey(keyType, getTransition(transition).label());
+				Collection<Object> transitions = byKey.get(k);
+				if (transitions == null)
+				{
+					transitions = new ArrayList<Object>(1);
+					byKey.put(k, transitions);
+				}
+				transitions.add(transition);
+			}
+			stateData.setTransitionsOutByKey(keyType, byKey);
+		}
+		Collection<Object> transitions = byKey.get(key);
+		return transitions == null ? Collections.emptyList() : transitions;
+	}
+	
+	/**
+	 * @return
+	 * the key of the specified type of a transition with the specified label.
+	 * The only key type of this class is <code>LABEL</code>, for which the key is the label.
+	 */
+	protected Object transitionKey(int keyType, L label)
+	{
+		return label;
+	}
+
 	/**
 	 * @return
 	 * An instance of {@link BasicState} that contains all information on the specified state
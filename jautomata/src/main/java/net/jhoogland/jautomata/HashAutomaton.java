@@ -112,6 +112,7 @@ public class HashAutomaton<L, K> extends ExplicitAutomaton<L, K>
 		if (! states.containsKey(to)) addState(to, semiring().zero(), semiring().zero());
 		transitions.put(transition, new BasicTransition<L, K>(from, label, weight, to));
 		getState(from).transitionsOut().add(transition);
+		getState(from).clearTransitionsOutByKey();
 		getState(to).transitionsIn().add(transition);
 	}
 }
@@ -1,5 +1,6 @@
 package net.jhoogland.jautomata;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -10,6 +11,8 @@ import net.jhoogland.jautomata.semirings.Semiring;
  * Implementation of {@link Automaton} that is backed up by {@link HashMap}s that contain information of
  * states and transitions.
  * This class is the transducer version of {@link HashAutomaton}, of which it is a subclass.
+ * The outgoing transitions of every state are also grouped by input label and by output label,
+ * so transducer compositions find matching transitions in constant time (see {@link ExtendedTransducer}).
  * 
  * @author Jasper Hoogland
  *
@@ -24,8 +27,11 @@ import net.jhoogland.jautomata.semirings.Semiring;
  * (Boolean for regular automata and Double for weighted automata)
  */
 
-public class HashTransducer<I, O, K> extends HashAutomaton<TLabel<I, O>, K> implements Transducer<I, O, K>
+public class HashTransducer<I, O, K> extends HashAutomaton<TLabel<I, O>, K> implements ExtendedTransducer<I, O, K>
 {
+	private static final int INPUT = 1;
+	private static final int OUTPUT = 2;
+	
 	public HashTransducer(Automaton<TLabel<I, O>, K> src) 
 	{
 		super(src);
@@ -35,4 +41,22 @@ public class HashTransducer<I, O, K> extends HashAutomaton<TLabel<I, O>, K> impl
 	{
 		super(states, transitions, semiring);		
 	}
+
+	public Collection<Object> transitionsOutI(Object state, I label) 
+	{
+		return transitionsOutByKey(state, INPUT, label);
+	}
+	
+	public Collection<Object> transitionsOutO(Object state, O label) 
+	{
+		return transitionsOutByKey(state, OUTPUT, label);
+	}
+	
+	@Override
+	protected Object transitionKey(int keyType, TLabel<I, O> label) 
+	{
+		if (keyType == INPUT) return label == null ? null : label.in();
+		if (keyType == OUTPUT) return label == null ? null : label.out();
+		return label;
+	}
 }
@@ -0,0 +1,47 @@
+package net.jhoogland.jautomata;
+
+/**
+ * Hash functions for the state and transition wrappers of operations and for open addressing tables.
+ * The results spread the bits of their arguments over all bits,
+ * so they can be reduced to a table slot with a mask.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class Hashing
+{
+	private static final int GOLDEN_RATIO = 0x9E3779B9;
+
+	/**
+	 * @return
+	 * the mixed hash code
+	 */
+
+	public static int mix(int h)
+	{
+		h ^= h >>> 16;
+		h *= GOLDEN_RATIO;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return
+	 * the mixed hash code of the specified sequence of two hash codes
+	 */
+
+	public static int mix(int h1, int h2)
+	{
+		return mix(h1 * GOLDEN_RATIO + h2);
+	}
+
+	/**
+	 * @return
+	 * the mixed hash code of the specified sequence of three hash codes
+	 */
+
+	public static int mix(int h1, int h2, int h3)
+	{
+		return mix((h1 * GOLDEN_RATIO + h2) * GOLDEN_RATIO + h3);
+	}
+}
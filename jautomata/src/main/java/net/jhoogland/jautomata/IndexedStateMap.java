@@ -0,0 +1,26 @@
+package net.jhoogland.jautomata;
+
+import java.util.Map;
+
+/**
+ *
+ * Maps from states to weights that store the weights in arrays indexed by a {@link StateIndex}
+ * implement this interface.
+ * State queues that are created for such a map use the same index,
+ * so that every state is looked up only once.
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * weight type
+ * (Boolean for regular automata and Double for weighted automata)
+ */
+
+public interface IndexedStateMap<K> extends Map<Object, K>
+{
+	/**
+	 * @return
+	 * the index that assigns the array positions to the states of this map
+	 */
+	public StateIndex stateIndex();
+}
@@ -0,0 +1,33 @@
+package net.jhoogland.jautomata;
+
+/**
+ * <p>
+ * Automata classes that implement this interface report whether all their transition weights are non-negative integers,
+ * which allows shortest distance algorithms to use bucket queues instead of comparison-based queues
+ * (see <code>DefaultQueueFactory</code>).
+ * </p>
+ * <p>
+ * Some classes that implement this interface only have integer weights if certain conditions are met.
+ * For example, an automaton class that performs a unary operation on an operand automaton
+ * may only have integer weights if the operand has integer weights as well.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ *
+ * @param <K>
+ * weight type
+ * (Boolean for regular automata and Double for weighted automata)
+ */
+
+public interface IntegerWeightedAutomaton<L, K> extends Automaton<L, K>
+{
+	/**
+	 * @return
+	 * the largest transition weight if all transition weights are non-negative integers, and <code>-1</code> otherwise
+	 */
+
+	public long maxIntegerTransitionWeight();
+}
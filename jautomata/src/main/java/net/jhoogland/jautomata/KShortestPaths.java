@@ -0,0 +1,412 @@
+package net.jhoogland.jautomata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+
+import net.jhoogland.jautomata.semirings.NaturalOrder;
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * <p>
+ * Enumerates the complete paths of an automaton lazily, from best to worst.
+ * Paths are ordered by the {@link NaturalOrder} of the semiring,
+ * e.g. from the smallest to the largest weight in the tropical semiring.
+ * The semiring is required to be monotone with respect to this order,
+ * i.e. extending a path never yields a better weight
+ * (the tropical semiring with non-negative weights and the Boolean semiring satisfy this requirement).
+ * </p>
+ * <p>
+ * The enumerator performs a best-first (A*) search over path prefixes.
+ * Each prefix is stored in an arena as a reference to its parent prefix and its last transition,
+ * so extending a prefix takes constant space.
+ * If the search is guided by the exact best completion weight of every state (see <code>bestCompletionWeights</code>),
+ * only prefixes of the returned paths and their immediate extensions are created,
+ * so memory grows with the number of paths actually consumed.
+ * Without a heuristic, the search is a uniform-cost search.
+ * </p>
+ * <p>
+ * The outgoing transitions of every state are retrieved only once,
+ * which makes the enumerator suitable for automata that are computed on the fly.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ *
+ * @param <K>
+ * weight type
+ */
+
+public class KShortestPaths<L, K extends Comparable<K>> implements Iterator<Path<L, K>>
+{
+	private Automaton<L, K> automaton;
+	private Semiring<K> sr;
+	private Comparator<K> order;
+	private Function<Object, K> heuristic;
+	private int maxPopsPerState;
+	private int maxStates;
+	private boolean truncated;
+
+	private StateIndex stateIndex;
+	private ArrayList<Collection<Object>> transitionsOut;
+	private int[] numPops;
+
+	private int[] parents;
+	private ArrayList<Object> arenaTransitions;
+
+	private PriorityQueue<Entry> queue;
+	private long numEntries;
+	private Path<L, K> next;
+	private int numPaths;
+
+	/**
+	 * Creates an enumerator that is guided by the exact best completion weights of the states.
+	 * All states that are reachable from the initial states are visited once to compute the completion weights.
+	 */
+
+	public KShortestPaths(Automaton<L, K> automaton)
+	{
+		this(automaton, null, 0);
+		heuristic = lookup(bestCompletionWeights(automaton, stateIndex, transitionsOut));
+	}
+
+	/**
+	 * Creates an enumerator.
+	 *
+	 * @param heuristic
+	 * a function that assigns to each state a weight that is at least as good as the weight of its best path to a final state,
+	 * or <code>null</code> to perform a uniform-cost search.
+	 * States for which the function returns <code>null</code> are assumed not to lead to a final state.
+	 *
+	 * @param maxPopsPerState
+	 * the maximum number of times the prefixes ending in a state are extended, or <code>0</code> for no maximum.
+	 * If at most <code>k</code> paths are requested, setting this value to <code>k</code> does not change the result.
+	 */
+
+	public KShortestPaths(Automaton<L, K> automaton, Function<Object, K> heuristic, int maxPopsPerState)
+	{
+		this(automaton, heuristic, maxPopsPerState, 0);
+	}
+
+	/**
+	 * Creates an enumerator that visits at most the specified number of states, or any number of states if <code>maxStates</code> is <code>0</code>.
+	 * If the search reaches more states, it stops and <code>isTruncated</code> returns <code>true</code>.
+	 */
+
+	public KShortestPaths(Automaton<L, K> automaton, Function<Object, K> heuristic, int maxPopsPerState, int maxStates)
+	{
+		this.maxStates = maxStates;
+		this.automaton = automaton;
+		this.sr = automaton.semiring();
+		this.order = new NaturalOrder<K>(sr);
+		this.heuristic = heuristic;
+		this.maxPopsPerState = maxPopsPerState;
+		stateIndex = new StateIndex();
+		transitionsOut = new ArrayList<Collection<Object>>();
+		numPops = new int[16];
+		parents = new int[16];
+		arenaTransitions = new ArrayList<Object>();
+		queue = new PriorityQueue<Entry>();
+	}
+
+	public boolean hasNext()
+	{
+		if (next == null) next = search();
+		return next != null;
+	}
+
+	public Path<L, K> next()
+	{
+		if (! hasNext()) throw new NoSuchElementException();
+		Path<L, K> path = next;
+		next = null;
+		numPaths++;
+		return path;
+	}
+
+	public void remove()
+	{
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * @return
+	 * the number of paths returned so far
+	 */
+
+	public int numPaths()
+	{
+		return numPaths;
+	}
+
+	/**
+	 * @return
+	 * true if and only if the search stopped because it reached more than the maximum number of states
+	 */
+
+	public boolean isTruncated()
+	{
+		return truncated;
+	}
+
+	/**
+	 * @return
+	 * the number of path prefixes created so far
+	 */
+
+	public int numPrefixes()
+	{
+		return arenaTransitions.size();
+	}
+
+	private Path<L, K> search()
+	{
+		if (numEntries == 0) start();
+		Entry e;
+		while ((e = queue.poll()) != null)
+		{
+			if (e.complete) return path(e.record, e.weight);
+			if (maxStates > 0 && stateIndex.size() > maxStates)
+			{
+				truncated = true;
+				queue.clear();
+				return null;
+			}
+			if (maxPopsPerState > 0)
+			{
+				if (e.state >= numPops.length) numPops = Arrays.copyOf(numPops, Math.max(e.state + 1, 2 * numPops.length));
+				if (numPops[e.state]++ >= maxPopsPerState) continue;
+			}
+			Object state = stateIndex.state(e.state);
+			K fw = automaton.finalWeight(state);
+			if (! sr.zero().equals(fw)) push(sr.multiply(e.weight, fw), null, e.record, -1, true);
+			for (Object t : transitionsOut(e.state))
+			{
+				K w = sr.multiply(e.weight, automaton.transitionWeight(t));
+				if (! sr.zero().equals(w))
+					push(w, automaton.to(t), prefix(e.record, t), 0, false);
+			}
+		}
+		return null;
+	}
+
+	private void start()
+	{
+		numEntries = 1;
+		for (Object s : automaton.initialStates())
+		{
+			K w = automaton.initialWeight(s);
+			if (! sr.zero().equals(w)) push(w, s, prefix(-1, null), 0, false);
+		}
+	}
+
+	private void push(K weight, Object state, int record, int stateId, boolean complete)
+	{
+		K priority = weight;
+		if (! complete)
+		{
+			if (heuristic != null)
+			{
+				K h = heuristic.apply(state);
+				if (h == null || sr.zero().equals(h)) return;
+				priority = sr.multiply(weight, h);
+			}
+			stateId = stateIndex.index(state);
+		}
+		queue.add(new Entry(priority, weight, record, stateId, complete, numEntries++));
+	}
+
+	private int prefix(int parent, Object transition)
+	{
+		int record = arenaTransitions.size();
+		if (record == parents.length) parents = Arrays.copyOf(parents, 2 * record);
+		parents[record] = parent;
+		arenaTransitions.add(transition);
+		return record;
+	}
+
+	private Collection<Object> transitionsOut(int state)
+	{
+		while (transitionsOut.size() <= state) transitionsOut.add(null);
+		Collection<Object> out = transitionsOut.get(state);
+		if (out == null)
+		{
+			out = automaton.transitionsOut(stateIndex.state(state));
+			transitionsOut.set(state, out);
+		}
+		return out;
+	}
+
+	private Path<L, K> path(int record, K weight)
+	{
+		LinkedList<Object> transitions = new LinkedList<Object>();
+		for (int r = record; r >= 0; r = parents[r])
+		{
+			Object t = arenaTransitions.get(r);
+			if (t != null) transitions.addFirst(t);
+		}
+		return new Path<L, K>(transitions, weight, automaton);
+	}
+
+	/**
+	 * @return
+	 * a heuristic that looks up the weights of the states in the specified map,
+	 * such as the map returned by <code>bestCompletionWeights</code>
+	 */
+
+	public static <K> Function<Object, K> lookup(final Map<Object, K> weights)
+	{
+		return new Function<Object, K>()
+		{
+			public K apply(Object state)
+			{
+				return weights.get(state);
+			}
+		};
+	}
+
+	/**
+	 * @return
+	 * a map that assigns to every state that is reachable from the initial states the weight of its best path to a final state
+	 * (including the final weight), according to the {@link NaturalOrder} of the semiring.
+	 * States from which no final state can be reached are not in the map.
+	 */
+
+	public static <L, K extends Comparable<K>> Map<Object, K> bestCompletionWeights(Automaton<L, K> automaton)
+	{
+		return bestCompletionWeights(automaton, new StateIndex(), new ArrayList<Collection<Object>>());
+	}
+
+	/**
+	 * Computes the best completion weights with a reversed Dijkstra search from the final states.
+	 * The outgoing transitions of the reachable states are stored in the specified list
+	 * at the indices assigned by the specified state index.
+	 */
+
+	@SuppressWarnings("unchecked")
+	static <L, K extends Comparable<K>> Map<Object, K> bestCompletionWeights(Automaton<L, K> automaton, StateIndex stateIndex, ArrayList<Collection<Object>> transitionsOut)
+	{
+		Semiring<K> sr = automaton.semiring();
+		final NaturalOrder<K> order = new NaturalOrder<K>(sr);
+		K zero = sr.zero();
+
+		// Forward exploration of the reachable states; the incoming arcs are stored in compressed sparse row format.
+
+		for (Object s : automaton.initialStates()) stateIndex.index(s);
+		int[] arcFrom = new int[16];
+		int[] arcTo = new int[16];
+		ArrayList<Object> arcs = new ArrayList<Object>();
+		for (int q = 0; q < stateIndex.size(); q++)
+		{
+			Collection<Object> out = q < transitionsOut.size() && transitionsOut.get(q) != null ? transitionsOut.get(q) : automaton.transitionsOut(stateIndex.state(q));
+			while (transitionsOut.size() <= q) transitionsOut.add(null);
+			transitionsOut.set(q, out);
+			for (Object t : out)
+			{
+				int n = arcs.size();
+				if (n == arcFrom.length)
+				{
+					arcFrom = Arrays.copyOf(arcFrom, 2 * n);
+					arcTo = Arrays.copyOf(arcTo, 2 * n);
+				}
+				arcFrom[n] = q;
+				arcTo[n] = stateIndex.index(automaton.to(t));
+				arcs.add(t);
+			}
+		}
+		int numStates = stateIndex.size();
+		int numArcs = arcs.size();
+		int[] inStart = new int[numStates + 1];
+		for (int a = 0; a < numArcs; a++) inStart[arcTo[a] + 1]++;
+		for (int q = 0; q < numStates; q++) inStart[q + 1] += inStart[q];
+		int[] position = Arrays.copyOf(inStart, numStates);
+		int[] inArcs = new int[numArcs];
+		for (int a = 0; a < numArcs; a++) inArcs[position[arcTo[a]]++] = a;
+
+		// Reversed Dijkstra search
+
+		Object[] h = new Object[numStates];
+		boolean[] settled = new boolean[numStates];
+		PriorityQueue<Object[]> queue = new PriorityQueue<Object[]>(11, new Comparator<Object[]>()
+		{
+			public int compare(Object[] e1, Object[] e2)
+			{
+				int c = order.compare((K) e1[2], (K) e2[2]);
+				return c != 0 ? c : Long.compare((Long) e1[1], (Long) e2[1]);
+			}
+		});
+		DenseStateMap<K> completionWeights = new DenseStateMap<K>();
+		long version = 0;
+		long[] versions = new long[numStates];
+		for (int q = 0; q < numStates; q++)
+		{
+			K fw = automaton.finalWeight(stateIndex.state(q));
+			if (! zero.equals(fw))
+			{
+				h[q] = fw;
+				versions[q] = ++version;
+				queue.add(new Object[] { q, versions[q], fw });
+			}
+		}
+		Object[] e;
+		while ((e = queue.poll()) != null)
+		{
+			int q = (Integer) e[0];
+			if (settled[q] || (Long) e[1] != versions[q]) continue;
+			settled[q] = true;
+			completionWeights.put(stateIndex.state(q), (K) h[q]);
+			for (int i = inStart[q]; i < inStart[q + 1]; i++)
+			{
+				int a = inArcs[i];
+				int p = arcFrom[a];
+				if (settled[p]) continue;
+				K w = sr.multiply(automaton.transitionWeight(arcs.get(a)), (K) h[q]);
+				if (zero.equals(w)) continue;
+				if (h[p] == null || order.compare(w, (K) h[p]) < 0)
+				{
+					h[p] = w;
+					versions[p] = ++version;
+					queue.add(new Object[] { p, versions[p], w });
+				}
+			}
+		}
+		return completionWeights;
+	}
+
+	class Entry implements Comparable<Entry>
+	{
+		K priority;
+		K weight;
+		int record;
+		int state;
+		boolean complete;
+		long sequenceNumber;
+
+		public Entry(K priority, K weight, int record, int state, boolean complete, long sequenceNumber)
+		{
+			this.priority = priority;
+			this.weight = weight;
+			this.record = record;
+			this.state = state;
+			this.complete = complete;
+			this.sequenceNumber = sequenceNumber;
+		}
+
+		public int compareTo(Entry other)
+		{
+			int c = order.compare(priority, other.priority);
+			if (c != 0) return c;
+			if (complete != other.complete) return complete ? -1 : 1;
+			return Long.compare(sequenceNumber, other.sequenceNumber);
+		}
+	}
+}
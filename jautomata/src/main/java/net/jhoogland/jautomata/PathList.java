@@ -0,0 +1,40 @@
+package net.jhoogland.jautomata;
+
+import java.util.ArrayList;
+
+/**
+ * A list of paths found by a search that may have been stopped early.
+ * If the search visited the maximum number of states before it found the requested number of paths,
+ * the list contains the paths found so far and <code>isTruncated</code> returns <code>true</code>.
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ *
+ * @param <K>
+ * weight type
+ */
+
+public class PathList<L, K> extends ArrayList<Path<L, K>>
+{
+	private static final long serialVersionUID = 1L;
+
+	private boolean truncated;
+
+	/**
+	 * @return
+	 * true if and only if the search stopped because it reached more than the maximum number of states,
+	 * so that better paths may be missing
+	 */
+
+	public boolean isTruncated()
+	{
+		return truncated;
+	}
+
+	void setTruncated(boolean truncated)
+	{
+		this.truncated = truncated;
+	}
+}
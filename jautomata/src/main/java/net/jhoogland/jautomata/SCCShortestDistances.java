@@ -0,0 +1,325 @@
+package net.jhoogland.jautomata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+import net.jhoogland.jautomata.semirings.ClosedSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * <p>
+ * Single-source shortest distance algorithm that decomposes the part of the automaton that is reachable
+ * from the source into strongly connected components (using Tarjan's algorithm) and processes the components
+ * in topological order.
+ * The distances within a component are computed as follows:
+ * </p>
+ * <ul>
+ * <li>A component without cycles (a single state without self-loops) requires no computation.</li>
+ * <li>If the semiring is a {@link ClosedSemiring}, the closure of a single state with self-loops is computed in closed form,
+ *     and the closure of a component with at most <code>maxClosureSize</code> states is computed with the
+ *     Floyd-Warshall-Kleene algorithm described in [1].</li>
+ * <li>The distances within other components are computed with the generic relaxation algorithm of [2],
+ *     restricted to the component.</li>
+ * </ul>
+ * <p>
+ * This algorithm is much faster than {@link SingleSourceShortestDistances} for non-idempotent semirings,
+ * such as the real and log semirings, on automata with cycles, because the relaxation algorithm may need many
+ * iterations before the weights converge.
+ * </p>
+ * <p>
+ * [1] D.J. Lehmann. Algebraic structures for transitive closure. 1977 <br>
+ * [2] M. Mohri. General algebraic frameworks and algorithms for shortest distance
+ *     problems. 1998
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * weight type
+ * (Boolean for regular automata and Double for weighted automata)
+ */
+
+public class SCCShortestDistances<K> implements SingleSourceShortestDistancesInterface<K>
+{
+	public WeightConvergenceCondition<K> equalityDef;
+	public int maxClosureSize;
+
+	/**
+	 * Creates an instance that computes the closure of components with at most the specified number of states directly.
+	 * The convergence condition is used by the relaxation algorithm in larger components.
+	 */
+
+	public SCCShortestDistances(WeightConvergenceCondition<K> equalityDef, int maxClosureSize)
+	{
+		this.equalityDef = equalityDef;
+		this.maxClosureSize = maxClosureSize;
+	}
+
+	/**
+	 * Creates an instance that computes the closure of components with at most 64 states directly.
+	 */
+
+	public SCCShortestDistances(WeightConvergenceCondition<K> equalityDef)
+	{
+		this(equalityDef, 64);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <L> Map<Object, K> computeShortestDistances(Automaton<L, K> automaton, Object source)
+	{
+		Semiring<K> sr = automaton.semiring();
+		ClosedSemiring<K> csr = sr instanceof ClosedSemiring ? (ClosedSemiring<K>) sr : null;
+		K zero = sr.zero();
+
+		// Explore the reachable states in breadth-first order.
+		// The states are indexed in the order in which they are discovered,
+		// so the transitions are stored in compressed sparse row format.
+
+		DenseStateMap<K> distances = new DenseStateMap<K>();
+		StateIndex stateIndex = distances.stateIndex();
+		stateIndex.index(source);
+		int[] outStart = new int[17];
+		int[] arcTo = new int[16];
+		ArrayList<Object> arcWeights = new ArrayList<Object>();
+		int numArcs = 0;
+		for (int q = 0; q < stateIndex.size(); q++)
+		{
+			if (q + 1 >= outStart.length) outStart = Arrays.copyOf(outStart, 2 * outStart.length);
+			for (Object e : automaton.transitionsOut(stateIndex.state(q)))
+			{
+				if (numArcs == arcTo.length) arcTo = Arrays.copyOf(arcTo, 2 * numArcs);
+				arcTo[numArcs++] = stateIndex.index(automaton.to(e));
+				arcWeights.add(automaton.transitionWeight(e));
+			}
+			outStart[q + 1] = numArcs;
+		}
+		int numStates = stateIndex.size();
+
+		int[][] components = components(numStates, outStart, arcTo);
+		int[] component = new int[numStates];
+		for (int c = 0; c < components.length; c++)
+			for (int q : components[c]) component[q] = c;
+
+		Object[] d = new Object[numStates];
+		d[0] = sr.one();
+		int[] position = new int[numStates];
+
+		// Tarjan's algorithm finds the components in reverse topological order.
+
+		for (int c = components.length - 1; c >= 0; c--)
+		{
+			int[] members = components[c];
+			boolean cyclic = members.length > 1;
+			K loops = zero;
+			if (! cyclic)
+			{
+				int q = members[0];
+				for (int a = outStart[q]; a < outStart[q + 1]; a++) if (arcTo[a] == q)
+				{
+					cyclic = true;
+					loops = sr.add(loops, (K) arcWeights.get(a));
+				}
+			}
+
+			if (cyclic)
+			{
+				if (csr != null && members.length == 1)
+				{
+					int q = members[0];
+					if (d[q] != null) d[q] = sr.multiply((K) d[q], csr.star(loops));
+				}
+				else if (csr != null && members.length <= maxClosureSize)
+					closure(csr, members, position, component, c, d, outStart, arcTo, arcWeights);
+				else
+					relax(sr, members, component, c, d, outStart, arcTo, arcWeights);
+			}
+
+			for (int q : members) if (d[q] != null)
+			{
+				for (int a = outStart[q]; a < outStart[q + 1]; a++) if (component[arcTo[a]] != c)
+				{
+					int ne = arcTo[a];
+					K rwe = sr.multiply((K) d[q], (K) arcWeights.get(a));
+					d[ne] = d[ne] == null ? rwe : sr.add((K) d[ne], rwe);
+				}
+			}
+		}
+
+		// As in [2], the distance of the source is one.
+		
+		d[0] = sr.one();
+		for (int q = 0; q < numStates; q++)
+			if (d[q] != null && (q == 0 || ! equalityDef.converged(zero, (K) d[q])))
+				distances.setValueAt(q, (K) d[q]);
+		return distances;
+	}
+
+	/**
+	 * Computes the distances within a component from the closure of its transition matrix.
+	 */
+
+	@SuppressWarnings("unchecked")
+	private void closure(ClosedSemiring<K> sr, int[] members, int[] position, int[] component, int c, Object[] d,
+			int[] outStart, int[] arcTo, ArrayList<Object> arcWeights)
+	{
+		int n = members.length;
+		K zero = sr.zero();
+		Object[][] m = new Object[n][n];
+		Object[][] next = new Object[n][n];
+		for (int i = 0; i < n; i++)
+		{
+			Arrays.fill(m[i], zero);
+			position[members[i]] = i;
+		}
+		for (int i = 0; i < n; i++)
+		{
+			int q = members[i];
+			for (int a = outStart[q]; a < outStart[q + 1]; a++) if (component[arcTo[a]] == c)
+			{
+				int j = position[arcTo[a]];
+				m[i][j] = sr.add((K) m[i][j], (K) arcWeights.get(a));
+			}
+		}
+		for (int k = 0; k < n; k++)
+		{
+			K starKK = sr.star((K) m[k][k]);
+			for (int i = 0; i < n; i++)
+			{
+				K ik = sr.multiply((K) m[i][k], starKK);
+				for (int j = 0; j < n; j++)
+					next[i][j] = sr.add((K) m[i][j], sr.multiply(ik, (K) m[k][j]));
+			}
+			Object[][] swap = m;
+			m = next;
+			next = swap;
+		}
+
+		// m now contains the weights of the non-empty paths within the component.
+
+		Object[] x = new Object[n];
+		for (int i = 0; i < n; i++) x[i] = d[members[i]] == null ? zero : d[members[i]];
+		for (int j = 0; j < n; j++)
+		{
+			K dj = (K) x[j];
+			for (int i = 0; i < n; i++) dj = sr.add(dj, sr.multiply((K) x[i], (K) m[i][j]));
+			d[members[j]] = dj;
+		}
+	}
+
+	/**
+	 * Computes the distances within a component with the generic relaxation algorithm.
+	 */
+
+	@SuppressWarnings("unchecked")
+	private void relax(Semiring<K> sr, int[] members, int[] component, int c, Object[] d,
+			int[] outStart, int[] arcTo, ArrayList<Object> arcWeights)
+	{
+		K zero = sr.zero();
+		Object[] r = new Object[d.length];
+		boolean[] queued = new boolean[d.length];
+		int[] queue = new int[members.length + 1];
+		int head = 0;
+		int tail = 0;
+		for (int q : members) if (d[q] != null)
+		{
+			r[q] = d[q];
+			queued[q] = true;
+			queue[tail++] = q;
+		}
+		while (head != tail)
+		{
+			int q = queue[head];
+			head = (head + 1) % queue.length;
+			queued[q] = false;
+			K rQ = (K) r[q];
+			r[q] = zero;
+			for (int a = outStart[q]; a < outStart[q + 1]; a++) if (component[arcTo[a]] == c)
+			{
+				int ne = arcTo[a];
+				K dne = d[ne] == null ? zero : (K) d[ne];
+				K rwe = sr.multiply(rQ, (K) arcWeights.get(a));
+				K sumDneRwe = sr.add(dne, rwe);
+				if (! equalityDef.converged(dne, sumDneRwe))
+				{
+					d[ne] = sumDneRwe;
+					r[ne] = r[ne] == null ? rwe : sr.add((K) r[ne], rwe);
+					if (! queued[ne])
+					{
+						queued[ne] = true;
+						queue[tail] = ne;
+						tail = (tail + 1) % queue.length;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the strongly connected components of a graph in compressed sparse row format
+	 * with Tarjan's algorithm, implemented without recursion.
+	 *
+	 * @return
+	 * the components in reverse topological order
+	 */
+
+	static int[][] components(int numStates, int[] outStart, int[] arcTo)
+	{
+		int[] number = new int[numStates];
+		int[] low = new int[numStates];
+		Arrays.fill(number, -1);
+		boolean[] onStack = new boolean[numStates];
+		int[] stack = new int[numStates];
+		int top = 0;
+		int[] callStack = new int[numStates];
+		int[] nextArc = new int[numStates];
+		int callTop = 0;
+		int counter = 0;
+		ArrayList<int[]> components = new ArrayList<int[]>();
+
+		for (int root = 0; root < numStates; root++) if (number[root] < 0)
+		{
+			number[root] = low[root] = counter++;
+			stack[top++] = root;
+			onStack[root] = true;
+			nextArc[root] = outStart[root];
+			callStack[callTop++] = root;
+			while (callTop > 0)
+			{
+				int q = callStack[callTop - 1];
+				if (nextArc[q] < outStart[q + 1])
+				{
+					int ne = arcTo[nextArc[q]++];
+					if (number[ne] < 0)
+					{
+						number[ne] = low[ne] = counter++;
+						stack[top++] = ne;
+						onStack[ne] = true;
+						nextArc[ne] = outStart[ne];
+						callStack[callTop++] = ne;
+					}
+					else if (onStack[ne] && number[ne] < low[q]) low[q] = number[ne];
+				}
+				else
+				{
+					callTop--;
+					if (callTop > 0)
+					{
+						int parent = callStack[callTop - 1];
+						if (low[q] < low[parent]) low[parent] = low[q];
+					}
+					if (low[q] == number[q])
+					{
+						int start = top;
+						do start--; while (stack[start] != q);
+						int[] component = Arrays.copyOfRange(stack, start, top);
+						for (int s : component) onStack[s] = false;
+						top = start;
+						components.add(component);
+					}
+				}
+			}
+		}
+		return components.toArray(new int[components.size()][]);
+	}
+}
@@ -0,0 +1,94 @@
+package net.jhoogland.jautomata;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * A resumable search for the shortest paths of an automaton.
+ * The session keeps the search frontier of a {@link KShortestPaths} enumerator and the paths found so far,
+ * so requesting <code>k + d</code> paths after <code>k</code> paths only computes the <code>d</code> additional paths.
+ * This makes it cheap to increase the number of paths until some property of the paths converges.
+ * </p>
+ * <p>
+ * As in <code>Automata.shortestPaths</code>, automata over the real semiring are searched in the tropical semiring,
+ * and the weights of the returned paths are converted back to the real semiring.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ *
+ * @param <K>
+ * weight type
+ */
+
+public class ShortestPathsSession<L, K extends Comparable<K>>
+{
+	private KShortestPaths<L, K> kShortestPaths;
+	private boolean real;
+	private ArrayList<Path<L, K>> paths;
+
+	public ShortestPathsSession(Automaton<L, K> automaton)
+	{
+		real = Automata.isReal(automaton.semiring());
+		kShortestPaths = new KShortestPaths<L, K>(Automata.searchAutomaton(automaton));
+		paths = new ArrayList<Path<L, K>>();
+	}
+
+	/**
+	 * @return
+	 * an unmodifiable list with the specified number of shortest paths,
+	 * or all paths if the automaton has fewer paths.
+	 * Only the paths that were not returned by earlier calls are computed.
+	 */
+
+	public List<Path<L, K>> paths(int numPaths)
+	{
+		extend(numPaths);
+		return Collections.unmodifiableList(paths.subList(0, Math.min(numPaths, paths.size())));
+	}
+
+	/**
+	 * @return
+	 * the <code>i</code>-th shortest path (starting from <code>0</code>), or <code>null</code> if the automaton has at most <code>i</code> paths
+	 */
+
+	public Path<L, K> path(int i)
+	{
+		extend(i + 1);
+		return i < paths.size() ? paths.get(i) : null;
+	}
+
+	/**
+	 * @return
+	 * the number of paths found so far
+	 */
+
+	public int numPaths()
+	{
+		return paths.size();
+	}
+
+	/**
+	 * @return
+	 * true if and only if all paths of the automaton have been found
+	 */
+
+	public boolean isExhausted()
+	{
+		return ! kShortestPaths.hasNext();
+	}
+
+	private void extend(int numPaths)
+	{
+		while (paths.size() < numPaths && kShortestPaths.hasNext())
+		{
+			Path<L, K> path = kShortestPaths.next();
+			if (real) Automata.toRealWeight(path);
+			paths.add(path);
+		}
+	}
+}
@@ -1,12 +1,16 @@
 package net.jhoogland.jautomata;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 
+import net.jhoogland.jautomata.queues.DefaultQueueFactory;
 import net.jhoogland.jautomata.queues.QueueFactory;
+import net.jhoogland.jautomata.queues.TopologicalQueueFactory;
+import net.jhoogland.jautomata.semirings.DoubleSemiring;
 import net.jhoogland.jautomata.semirings.Semiring;
 
 /**
@@ -18,6 +22,21 @@ import net.jhoogland.jautomata.semirings.Semiring;
  * [1] M. Mohri. General algebraic frameworks and algorithms for shortest distance 
  *     problems. 1998
  * </p>
+ * <p>
+ * The distances are stored in a {@link DenseStateMap}, and the residual weights in an array indexed by 
+ * the same state indices.
+ * If the semiring implements {@link DoubleSemiring} and the convergence condition implements
+ * {@link DoubleConvergenceCondition}, the distances are computed on primitive <code>double</code> values
+ * and returned in a {@link DoubleStateMap}.
+ * </p>
+ * <p>
+ * If the automaton provides a topological order and the queue factory is a {@link DefaultQueueFactory} or 
+ * {@link TopologicalQueueFactory}, the states that are reachable from the source are sorted topologically 
+ * once (using Kahn's algorithm) and each transition is relaxed exactly once.
+ * The topological order of some operations, such as intersection with an automaton that has
+ * epsilon-cycles, does not guarantee that the automaton is acyclic. 
+ * If a cycle is detected, the distances are computed by the general algorithm instead. 
+ * </p>
  *  
  * @author Jasper Hoogland
  *
@@ -37,26 +56,46 @@ public class SingleSourceShortestDistances<K> implements SingleSourceShortestDis
 		this.equalityDef = equalityDef;
 	}
 
+	@SuppressWarnings("unchecked")
 	public <L> Map<Object, K> computeShortestDistances(Automaton<L, K> automaton, Object source) 
 	{
-		Map<Object, K> distances = new HashMap<Object, K>();
-		Queue<Object> queue = (Queue<Object>) this.queueFactory.createQueue(automaton, distances);		
+		boolean acyclic = automaton.topologicalOrder() != null 
+				&& (queueFactory instanceof DefaultQueueFactory || queueFactory instanceof TopologicalQueueFactory);
+		if (automaton.semiring() instanceof DoubleSemiring && equalityDef instanceof DoubleConvergenceCondition)
+		{
+			DoubleStateMap distances = acyclic ? computeDoubleAcyclicShortestDistances((Automaton<L, Double>) automaton, source) : null;
+			if (distances == null) distances = computeDoubleShortestDistances((Automaton<L, Double>) automaton, source);
+			return (Map<Object, K>) distances;
+		}
+		if (acyclic)
+		{
+			Map<Object, K> distances = computeAcyclicShortestDistances(automaton, source);
+			if (distances != null) return distances;
+		}
+		DenseStateMap<K> distances = new DenseStateMap<K>();
+		Queue<Object> queue = this.queueFactory.createQueue(automaton, distances);		
 		Semiring<K> sr = automaton.semiring();
-		HashMap<Object, K> r = new HashMap<Object, K>();
+		K zero = sr.zero();
 		K one = sr.one();
-		distances.put(source, one);
-		r.put(source, one);
+		Object[] r = new Object[16];
+		int s = distances.index(source);
+		distances.setValueAt(s, one);
+		r[s] = one;
 		queue.add(source);
 		
 		while (! queue.isEmpty())
 		{
 			Object q = queue.poll();
-			K rQ = r.remove(q);			
+			int iq = distances.index(q);
+			K rQ = (K) r[iq];
+			r[iq] = null;
 			for (Object e : automaton.transitionsOut(q))
 			{
 				Object ne = automaton.to(e);
-				K dne = distances.get(ne);
-				if (dne == null) dne = sr.zero();
+				int ine = distances.index(ne);
+				if (ine >= r.length) r = Arrays.copyOf(r, Math.max(ine + 1, 2 * r.length));
+				K dne = distances.valueAt(ine);
+				if (dne == null) dne = zero;
 				K rwe = sr.multiply(rQ, automaton.transitionWeight(e));
 				K sumDneRwe = sr.add(dne, rwe);
 
@@ -64,15 +103,188 @@ public class SingleSourceShortestDistances<K> implements SingleSourceShortestDis
 				if (! eq)
 				{
 					queue.remove(ne);
-					distances.put(ne, sumDneRwe);
-					K rne = r.get(ne);
-					if (rne == null) rne = sr.zero();
-					r.put(ne, sr.add(rne, rwe));
+					distances.setValueAt(ine, sumDneRwe);
+					K rne = (K) r[ine];
+					if (rne == null) rne = zero;
+					r[ine] = sr.add(rne, rwe);
+					queue.add(ne); 
+				}						
+			}
+		}		
+		distances.setValueAt(s, one);
+		return distances;
+	}
+	
+	/**
+	 * Computes the shortest distances on primitive <code>double</code> values.
+	 * The residual weights are stored in an array indexed by the state indices of the distance map.
+	 */
+
+	@SuppressWarnings("unchecked")
+	<L> DoubleStateMap computeDoubleShortestDistances(Automaton<L, Double> automaton, Object source) 
+	{
+		DoubleSemiring sr = (DoubleSemiring) automaton.semiring();
+		DoubleConvergenceCondition equalityDef = (DoubleConvergenceCondition) this.equalityDef;
+		double zero = sr.zeroDouble();
+		double one = sr.oneDouble();
+		DoubleStateMap distances = new DoubleStateMap(zero);
+		Queue<Object> queue = this.queueFactory.createQueue((Automaton<L, K>) automaton, (Map<Object, K>) distances);
+		double[] r = new double[16];
+		Arrays.fill(r, zero);
+		int s = distances.index(source);
+		distances.setValueAt(s, one);
+		r[s] = one;
+		queue.add(source);
+		
+		while (! queue.isEmpty())
+		{
+			Object q = queue.poll();
+			int iq = distances.index(q);
+			double rQ = r[iq];
+			r[iq] = zero;
+			for (Object e : automaton.transitionsOut(q))
+			{
+				Object ne = automaton.to(e);
+				int ine = distances.index(ne);
+				if (ine >= r.length)
+				{
+					int length = r.length;
+					r = Arrays.copyOf(r, 2 * ine);
+					Arrays.fill(r, length, r.length, zero);
+				}
+				double dne = distances.valueAt(ine);
+				double rwe = sr.multiplyDouble(rQ, automaton.transitionWeight(e));
+				double sumDneRwe = sr.addDouble(dne, rwe);
+
+				if (! equalityDef.converged(dne, sumDneRwe))
+				{
+					queue.remove(ne);
+					distances.setValueAt(ine, sumDneRwe);
+					r[ine] = sr.addDouble(r[ine], rwe);
 					queue.add(ne); 
 				}						
 			}
 		}		
-		distances.put(source, one);
+		distances.setValueAt(s, one);
+		return distances;
+	}
+	
+	/**
+	 * Computes the shortest distances of an acyclic automaton by relaxing the transitions 
+	 * in topological order.
+	 * 
+	 * @return
+	 * the shortest distances, or <code>null</code> if the automaton contains a cycle that is reachable from the source
+	 */
+	
+	<L> Map<Object, K> computeAcyclicShortestDistances(Automaton<L, K> automaton, Object source) 
+	{
+		DenseStateMap<K> distances = new DenseStateMap<K>();
+		ArrayList<Collection<Object>> transitions = new ArrayList<Collection<Object>>();
+		int[] order = topologicalOrder(automaton, source, distances.stateIndex(), transitions);
+		if (order == null) return null;
+		Semiring<K> sr = automaton.semiring();
+		K zero = sr.zero();
+		distances.setValueAt(order[0], sr.one());
+		for (int q : order)
+		{
+			K dq = distances.valueAt(q);
+			if (dq == null) continue;
+			for (Object e : transitions.get(q))
+			{
+				int ne = distances.index(automaton.to(e));
+				K dne = distances.valueAt(ne);
+				if (dne == null) dne = zero;
+				K sumDneRwe = sr.add(dne, sr.multiply(dq, automaton.transitionWeight(e)));
+				if (! equalityDef.converged(dne, sumDneRwe)) distances.setValueAt(ne, sumDneRwe);
+			}
+		}
+		return distances;
+	}
+	
+	/**
+	 * Computes the shortest distances of an acyclic automaton on primitive <code>double</code> values.
+	 * 
+	 * @return
+	 * the shortest distances, or <code>null</code> if the automaton contains a cycle that is reachable from the source
+	 */
+	
+	<L> DoubleStateMap computeDoubleAcyclicShortestDistances(Automaton<L, Double> automaton, Object source) 
+	{
+		DoubleSemiring sr = (DoubleSemiring) automaton.semiring();
+		DoubleConvergenceCondition equalityDef = (DoubleConvergenceCondition) this.equalityDef;
+		DoubleStateMap distances = new DoubleStateMap(sr.zeroDouble());
+		ArrayList<Collection<Object>> transitions = new ArrayList<Collection<Object>>();
+		int[] order = topologicalOrder(automaton, source, distances.stateIndex(), transitions);
+		if (order == null) return null;
+		distances.setValueAt(order[0], sr.oneDouble());
+		for (int q : order)
+		{
+			if (! distances.containsIndex(q)) continue;
+			double dq = distances.valueAt(q);
+			for (Object e : transitions.get(q))
+			{
+				int ne = distances.index(automaton.to(e));
+				double dne = distances.valueAt(ne);
+				double sumDneRwe = sr.addDouble(dne, sr.multiplyDouble(dq, automaton.transitionWeight(e)));
+				if (! equalityDef.converged(dne, sumDneRwe)) distances.setValueAt(ne, sumDneRwe);
+			}
+		}
 		return distances;
 	}
+	
+	/**
+	 * Sorts the states that are reachable from the source topologically using Kahn's algorithm.
+	 * The states are assigned indices by the specified state index, 
+	 * and the outgoing transitions of each state are stored in the specified list at the index of the state.
+	 * 
+	 * @return
+	 * the indices of the reachable states in topological order, starting with the source, 
+	 * or <code>null</code> if the reachable states contain a cycle
+	 */
+	
+	static <L, K> int[] topologicalOrder(Automaton<L, K> automaton, Object source, StateIndex stateIndex, ArrayList<Collection<Object>> transitions)
+	{
+		int[] inDegrees = new int[16];
+		int s = stateIndex.index(source);
+		int[] stack = new int[16];
+		int top = 0;
+		stack[top++] = s;
+		int numVisited = 0;
+		while (top > 0)
+		{
+			int q = stack[--top];
+			Collection<Object> out = automaton.transitionsOut(stateIndex.state(q));
+			while (transitions.size() <= q) transitions.add(null);
+			transitions.set(q, out);
+			numVisited++;
+			for (Object e : out)
+			{
+				int n = stateIndex.size();
+				int ne = stateIndex.index(automaton.to(e));
+				if (ne >= inDegrees.length) inDegrees = Arrays.copyOf(inDegrees, Math.max(ne + 1, 2 * inDegrees.length));
+				inDegrees[ne]++;
+				if (ne == n)
+				{
+					if (top == stack.length) stack = Arrays.copyOf(stack, 2 * top);
+					stack[top++] = ne;
+				}
+			}
+		}
+		
+		int[] order = new int[numVisited];
+		int head = 0;
+		int tail = 0;
+		if (inDegrees[s] == 0) order[tail++] = s;
+		while (head < tail)
+		{
+			int q = order[head++];
+			for (Object e : transitions.get(q))
+			{
+				int ne = stateIndex.indexOf(automaton.to(e));
+				if (--inDegrees[ne] == 0) order[tail++] = ne;
+			}
+		}
+		return tail < numVisited ? null : order;
+	}
 }
@@ -0,0 +1,97 @@
+package net.jhoogland.jautomata;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ *
+ * Assigns dense indices <code>0, 1, 2, ...</code> to states in the order in which they are added.
+ * States that are small non-negative <code>Integer</code> objects, such as the states of
+ * {@link CompactAutomaton} and {@link ArrayAutomaton}, are looked up in an array;
+ * all other states are looked up in a hash map.
+ * State maps and queues use the indices to store their data in arrays.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class StateIndex
+{
+	private int[] integerIndices;
+	private Map<Object, Integer> indices;
+	private ArrayList<Object> states;
+
+	public StateIndex()
+	{
+		integerIndices = new int[16];
+		Arrays.fill(integerIndices, -1);
+		indices = new HashMap<Object, Integer>();
+		states = new ArrayList<Object>();
+	}
+
+	/**
+	 * @return
+	 * the index of the specified state, or <code>-1</code> if the state has no index
+	 */
+
+	public int indexOf(Object state)
+	{
+		if (state instanceof Integer)
+		{
+			int i = (Integer) state;
+			if (i >= 0 && i < integerIndices.length && integerIndices[i] >= 0) return integerIndices[i];
+		}
+		if (indices.isEmpty()) return -1;
+		Integer index = indices.get(state);
+		return index == null ? -1 : index.intValue();
+	}
+
+	/**
+	 * @return
+	 * the index of the specified state.
+	 * A new index is assigned if the state has no index yet.
+	 */
+
+	public int index(Object state)
+	{
+		int index = indexOf(state);
+		if (index >= 0) return index;
+		index = states.size();
+		states.add(state);
+		if (state instanceof Integer && (Integer) state >= 0 && (Integer) state < 4 * (index + 256))
+		{
+			int i = (Integer) state;
+			if (i >= integerIndices.length)
+			{
+				int length = integerIndices.length;
+				integerIndices = Arrays.copyOf(integerIndices, Math.max(i + 1, 2 * length));
+				Arrays.fill(integerIndices, length, integerIndices.length, -1);
+			}
+			integerIndices[i] = index;
+		}
+		else indices.put(state, index);
+		return index;
+	}
+
+	/**
+	 * @return
+	 * the number of states that have been assigned an index
+	 */
+
+	public int size()
+	{
+		return states.size();
+	}
+
+	/**
+	 * @return
+	 * the state with the specified index
+	 */
+
+	public Object state(int index)
+	{
+		return states.get(index);
+	}
+}
@@ -0,0 +1,436 @@
+package net.jhoogland.jautomata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import net.jhoogland.jautomata.operations.Operations;
+import net.jhoogland.jautomata.semirings.DoubleSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * <p>
+ * Computes the weights of many strings in an automaton.
+ * The automaton is compiled once into arrays in which the outgoing transitions of every state are sorted by label,
+ * after removing epsilon transitions if there are any.
+ * The weight of a string is computed as follows:
+ * </p>
+ * <ul>
+ * <li>If the compiled automaton is deterministic, the unique path of the string is followed directly.</li>
+ * <li>Otherwise, the weights of the paths of the prefixes of the string are propagated as a sparse vector over the states.</li>
+ * </ul>
+ * <p>
+ * No objects are created per string, except for the weight itself if it is not a primitive <code>double</code>.
+ * The sparse vectors are stored in buffers that are reused by every thread,
+ * so instances of this class can be used concurrently, for example by the parallel batch methods.
+ * If the semiring implements {@link DoubleSemiring}, the weights are computed on primitive <code>double</code> values.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ *
+ * @param <K>
+ * weight type
+ * (Boolean for regular automata and Double for weighted automata)
+ */
+
+public class StringScorer<L, K>
+{
+	private Semiring<K> sr;
+	private DoubleSemiring dsr;
+	private int numStates;
+	private Map<Object, Integer> labelIds;
+	private int[] outStart;
+	private int[] arcLabels;
+	private int[] arcTo;
+	private double[] doubleArcWeights;
+	private Object[] arcWeights;
+	private int[] initialStates;
+	private double[] doubleInitialWeights;
+	private Object[] initialWeights;
+	private double[] doubleFinalWeights;
+	private Object[] finalWeights;
+	private boolean deterministic;
+	private ThreadLocal<Buffers> buffers;
+
+	@SuppressWarnings("unchecked")
+	public StringScorer(Automaton<L, K> automaton)
+	{
+		CompactAutomaton<L, K> compact = new CompactAutomaton<L, K>(automaton);
+		boolean epsilon = false;
+		for (int t = 0; t < compact.numTransitions() && ! epsilon; t++)
+			epsilon = compact.labelId(t) < 0;
+		if (epsilon) compact = new CompactAutomaton<L, K>(Operations.epsilonRemoval(automaton));
+
+		sr = compact.semiring();
+		dsr = sr instanceof DoubleSemiring && compact.hasDoubleWeights() ? (DoubleSemiring) sr : null;
+		numStates = compact.numStates();
+		labelIds = new HashMap<Object, Integer>();
+		for (int l = 0; l < compact.numLabels(); l++) labelIds.put(compact.labelOf(l), l);
+
+		// The outgoing transitions of every state are sorted by label.
+
+		int numTransitions = compact.numTransitions();
+		outStart = new int[numStates + 1];
+		arcLabels = new int[numTransitions];
+		arcTo = new int[numTransitions];
+		if (dsr != null) doubleArcWeights = new double[numTransitions];
+		else arcWeights = new Object[numTransitions];
+		deterministic = true;
+		for (int s = 0; s < numStates; s++)
+		{
+			int start = compact.outStart(s);
+			int end = compact.outEnd(s);
+			outStart[s + 1] = end;
+			Integer[] order = new Integer[end - start];
+			for (int i = 0; i < order.length; i++) order[i] = start + i;
+			final CompactAutomaton<L, K> c = compact;
+			Arrays.sort(order, new Comparator<Integer>()
+			{
+				public int compare(Integer t1, Integer t2)
+				{
+					return Integer.compare(c.labelId(t1), c.labelId(t2));
+				}
+			});
+			for (int i = 0; i < order.length; i++)
+			{
+				int t = order[i];
+				int a = start + i;
+				arcLabels[a] = compact.labelId(t);
+				arcTo[a] = compact.toState(t);
+				if (dsr != null) doubleArcWeights[a] = compact.doubleTransitionWeight(t);
+				else arcWeights[a] = compact.transitionWeight(t);
+				if (i > 0 && arcLabels[a] == arcLabels[a - 1]) deterministic = false;
+			}
+		}
+
+		Collection<Object> initial = compact.initialStates();
+		initialStates = new int[initial.size()];
+		int i = 0;
+		for (Object s : initial) initialStates[i++] = (Integer) s;
+		if (initialStates.length > 1) deterministic = false;
+		if (dsr != null)
+		{
+			doubleInitialWeights = new double[initialStates.length];
+			for (i = 0; i < initialStates.length; i++) doubleInitialWeights[i] = compact.doubleInitialWeight(initialStates[i]);
+			doubleFinalWeights = new double[numStates];
+			for (int s = 0; s < numStates; s++) doubleFinalWeights[s] = compact.doubleFinalWeight(s);
+		}
+		else
+		{
+			initialWeights = new Object[initialStates.length];
+			for (i = 0; i < initialStates.length; i++) initialWeights[i] = compact.initialWeight(initialStates[i]);
+			finalWeights = new Object[numStates];
+			for (int s = 0; s < numStates; s++) finalWeights[s] = compact.finalWeight(s);
+		}
+
+		buffers = new ThreadLocal<Buffers>()
+		{
+			@Override
+			protected Buffers initialValue()
+			{
+				return new Buffers();
+			}
+		};
+	}
+
+	/**
+	 * @return
+	 * true if and only if the compiled automaton is deterministic,
+	 * in which case the weight of a string is computed by following its unique path
+	 */
+
+	public boolean isDeterministic()
+	{
+		return deterministic;
+	}
+
+	/**
+	 * @return
+	 * the weight of the specified string
+	 */
+
+	@SuppressWarnings("unchecked")
+	public K score(List<L> string)
+	{
+		if (dsr != null) return (K) (Double) scoreDouble(string);
+		return deterministic ? scoreDeterministic(string) : scoreSparse(string);
+	}
+
+	/**
+	 * @return
+	 * the weight of the specified string as a primitive <code>double</code>.
+	 * The semiring is required to implement {@link DoubleSemiring}.
+	 */
+
+	public double scoreDouble(List<L> string)
+	{
+		if (dsr == null) return (Double) score(string);
+		return deterministic ? scoreDeterministicDouble(string) : scoreSparseDouble(string);
+	}
+
+	/**
+	 * @return
+	 * the weights of the specified strings, in the same order, computed in parallel on the common fork-join pool
+	 */
+
+	public List<K> scoreAll(Collection<? extends List<L>> strings)
+	{
+		return scores(strings.parallelStream()).collect(Collectors.<K>toList());
+	}
+
+	/**
+	 * @return
+	 * the weights of the specified strings, in the same order, computed in parallel on the specified fork-join pool
+	 */
+
+	public List<K> scoreAll(final Collection<? extends List<L>> strings, ForkJoinPool pool)
+	{
+		try
+		{
+			return pool.submit(new Callable<List<K>>()
+			{
+				public List<K> call()
+				{
+					return scoreAll(strings);
+				}
+			}).get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	/**
+	 * @return
+	 * a stream of the weights of the strings in the specified stream.
+	 * The weights are computed in parallel if the specified stream is parallel.
+	 */
+
+	public Stream<K> scores(Stream<? extends List<L>> strings)
+	{
+		return strings.map(new Function<List<L>, K>()
+		{
+			public K apply(List<L> string)
+			{
+				return score(string);
+			}
+		});
+	}
+
+	private int findArc(int state, int labelId)
+	{
+		int lo = outStart[state];
+		int hi = outStart[state + 1];
+		while (lo < hi)
+		{
+			int mid = (lo + hi) >>> 1;
+			if (arcLabels[mid] < labelId) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo < outStart[state + 1] && arcLabels[lo] == labelId ? lo : -1;
+	}
+
+	private int labelId(L label)
+	{
+		Integer id = labelIds.get(label);
+		return id == null ? -1 : id;
+	}
+
+	private double scoreDeterministicDouble(List<L> string)
+	{
+		if (initialStates.length == 0) return dsr.zeroDouble();
+		int state = initialStates[0];
+		double weight = doubleInitialWeights[0];
+		for (L label : string)
+		{
+			int l = labelId(label);
+			int a = l < 0 ? -1 : findArc(state, l);
+			if (a < 0) return dsr.zeroDouble();
+			weight = dsr.multiplyDouble(weight, doubleArcWeights[a]);
+			state = arcTo[a];
+		}
+		return dsr.multiplyDouble(weight, doubleFinalWeights[state]);
+	}
+
+	@SuppressWarnings("unchecked")
+	private K scoreDeterministic(List<L> string)
+	{
+		if (initialStates.length == 0) return sr.zero();
+		int state = initialStates[0];
+		K weight = (K) initialWeights[0];
+		for (L label : string)
+		{
+			int l = labelId(label);
+			int a = l < 0 ? -1 : findArc(state, l);
+			if (a < 0) return sr.zero();
+			weight = sr.multiply(weight, (K) arcWeights[a]);
+			state = arcTo[a];
+		}
+		return sr.multiply(weight, (K) finalWeights[state]);
+	}
+
+	private double scoreSparseDouble(List<L> string)
+	{
+		Buffers b = buffers.get();
+		double zero = dsr.zeroDouble();
+		int size = 0;
+		int stamp = b.nextStamp();
+		for (int i = 0; i < initialStates.length; i++)
+		{
+			int s = initialStates[i];
+			if (b.marks[s] != stamp)
+			{
+				b.marks[s] = stamp;
+				b.doubleWeights[s] = zero;
+				b.active[size++] = s;
+			}
+			b.doubleWeights[s] = dsr.addDouble(b.doubleWeights[s], doubleInitialWeights[i]);
+		}
+		for (L label : string)
+		{
+			int l = labelId(label);
+			if (l < 0) return zero;
+			int nextSize = 0;
+			stamp = b.nextStamp();
+			for (int i = 0; i < size; i++)
+			{
+				int q = b.active[i];
+				double w = b.doubleWeights[q];
+				for (int a = findArc(q, l); a >= 0 && a < outStart[q + 1] && arcLabels[a] == l; a++)
+				{
+					int ne = arcTo[a];
+					if (b.marks[ne] != stamp)
+					{
+						b.marks[ne] = stamp;
+						b.nextDoubleWeights[ne] = zero;
+						b.nextActive[nextSize++] = ne;
+					}
+					b.nextDoubleWeights[ne] = dsr.addDouble(b.nextDoubleWeights[ne], dsr.multiplyDouble(w, doubleArcWeights[a]));
+				}
+			}
+			if (nextSize == 0) return zero;
+			b.swap();
+			size = nextSize;
+		}
+		double weight = zero;
+		for (int i = 0; i < size; i++)
+		{
+			int q = b.active[i];
+			weight = dsr.addDouble(weight, dsr.multiplyDouble(b.doubleWeights[q], doubleFinalWeights[q]));
+		}
+		return weight;
+	}
+
+	@SuppressWarnings("unchecked")
+	private K scoreSparse(List<L> string)
+	{
+		Buffers b = buffers.get();
+		K zero = sr.zero();
+		int size = 0;
+		int stamp = b.nextStamp();
+		for (int i = 0; i < initialStates.length; i++)
+		{
+			int s = initialStates[i];
+			if (b.marks[s] != stamp)
+			{
+				b.marks[s] = stamp;
+				b.weights[s] = zero;
+				b.active[size++] = s;
+			}
+			b.weights[s] = sr.add((K) b.weights[s], (K) initialWeights[i]);
+		}
+		for (L label : string)
+		{
+			int l = labelId(label);
+			if (l < 0) return zero;
+			int nextSize = 0;
+			stamp = b.nextStamp();
+			for (int i = 0; i < size; i++)
+			{
+				int q = b.active[i];
+				K w = (K) b.weights[q];
+				for (int a = findArc(q, l); a >= 0 && a < outStart[q + 1] && arcLabels[a] == l; a++)
+				{
+					int ne = arcTo[a];
+					if (b.marks[ne] != stamp)
+					{
+						b.marks[ne] = stamp;
+						b.nextWeights[ne] = zero;
+						b.nextActive[nextSize++] = ne;
+					}
+					b.nextWeights[ne] = sr.add((K) b.nextWeights[ne], sr.multiply(w, (K) arcWeights[a]));
+				}
+			}
+			if (nextSize == 0) return zero;
+			b.swap();
+			size = nextSize;
+		}
+		K weight = zero;
+		for (int i = 0; i < size; i++)
+		{
+			int q = b.active[i];
+			weight = sr.add(weight, sr.multiply((K) b.weights[q], (K) finalWeights[q]));
+			b.weights[q] = null;
+		}
+		return weight;
+	}
+
+	/**
+	 * Sparse state vectors of one thread.
+	 * A state is in the current vector if its mark equals the current stamp,
+	 * so the vectors are cleared in constant time.
+	 */
+
+	class Buffers
+	{
+		int[] marks = new int[numStates];
+		int stamp;
+		int[] active = new int[numStates];
+		int[] nextActive = new int[numStates];
+		double[] doubleWeights = dsr == null ? null : new double[numStates];
+		double[] nextDoubleWeights = dsr == null ? null : new double[numStates];
+		Object[] weights = dsr == null ? new Object[numStates] : null;
+		Object[] nextWeights = dsr == null ? new Object[numStates] : null;
+
+		int nextStamp()
+		{
+			if (++stamp == Integer.MAX_VALUE)
+			{
+				Arrays.fill(marks, 0);
+				stamp = 1;
+			}
+			return stamp;
+		}
+
+		void swap()
+		{
+			int[] a = active;
+			active = nextActive;
+			nextActive = a;
+			double[] dw = doubleWeights;
+			doubleWeights = nextDoubleWeights;
+			nextDoubleWeights = dw;
+			Object[] w = weights;
+			weights = nextWeights;
+			nextWeights = w;
+		}
+	}
+}
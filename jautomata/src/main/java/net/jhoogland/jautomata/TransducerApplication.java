@@ -0,0 +1,320 @@
+package net.jhoogland.jautomata;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * <p>
+ * Applies strings to the input tape of a transducer without building a composition.
+ * The transducer is compiled once into arrays in which the outgoing transitions of every state are sorted by input label,
+ * with the transitions that have an epsilon input label first.
+ * A string is applied by exploring the pairs (state, position) that are reachable from the initial states at position <code>0</code>:
+ * a transition with an epsilon input label keeps the position,
+ * and a transition whose input label is the label at the current position advances the position.
+ * The explored pairs from which a pair at the end of the string with a nonzero final weight is reachable
+ * are the states of the output acceptor, which is returned as a {@link CompactAutomaton}.
+ * </p>
+ * <p>
+ * The output acceptor has the same weighted output strings as the acceptor returned by <code>Transducers.apply</code>,
+ * but it is built eagerly, so the transducer is required to have finitely many states.
+ * Instances of this class can be used concurrently.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <I>
+ * input label type
+ *
+ * @param <O>
+ * output label type
+ *
+ * @param <K>
+ * weight type
+ */
+
+public class TransducerApplication<I, O, K>
+{
+	private Semiring<K> sr;
+	private int numStates;
+	private Map<Object, Integer> inputIds;
+	private int[] outStart;
+	private int[] epsilonEnd;
+	private int[] arcInputs;
+	private int[] arcTo;
+	private Object[] arcOutputs;
+	private Object[] arcWeights;
+	private int[] initialStates;
+	private Object[] initialWeights;
+	private Object[] finalWeights;
+
+	@SuppressWarnings("unchecked")
+	public TransducerApplication(Automaton<TLabel<I, O>, K> transducer)
+	{
+		final CompactAutomaton<TLabel<I, O>, K> compact = new CompactAutomaton<TLabel<I, O>, K>(transducer);
+		sr = compact.semiring();
+		numStates = compact.numStates();
+
+		// The input labels are numbered, and the epsilon input label is numbered -1.
+
+		inputIds = new HashMap<Object, Integer>();
+		final int[] labelInputs = new int[compact.numLabels()];
+		for (int l = 0; l < labelInputs.length; l++)
+		{
+			I in = compact.labelOf(l).in();
+			if (in == null) labelInputs[l] = -1;
+			else
+			{
+				Integer id = inputIds.get(in);
+				if (id == null)
+				{
+					id = inputIds.size();
+					inputIds.put(in, id);
+				}
+				labelInputs[l] = id;
+			}
+		}
+
+		// The outgoing transitions of every state are sorted by input label.
+
+		int numTransitions = compact.numTransitions();
+		outStart = new int[numStates + 1];
+		epsilonEnd = new int[numStates];
+		arcInputs = new int[numTransitions];
+		arcTo = new int[numTransitions];
+		arcOutputs = new Object[numTransitions];
+		arcWeights = new Object[numTransitions];
+		for (int s = 0; s < numStates; s++)
+		{
+			int start = compact.outStart(s);
+			int end = compact.outEnd(s);
+			outStart[s + 1] = end;
+			Integer[] order = new Integer[end - start];
+			for (int i = 0; i < order.length; i++) order[i] = start + i;
+			Arrays.sort(order, new Comparator<Integer>()
+			{
+				public int compare(Integer t1, Integer t2)
+				{
+					return Integer.compare(inputId(compact, labelInputs, t1), inputId(compact, labelInputs, t2));
+				}
+			});
+			epsilonEnd[s] = start;
+			for (int i = 0; i < order.length; i++)
+			{
+				int t = order[i];
+				int a = start + i;
+				arcInputs[a] = inputId(compact, labelInputs, t);
+				arcTo[a] = compact.toState(t);
+				TLabel<I, O> label = compact.labelId(t) < 0 ? null : compact.labelOf(compact.labelId(t));
+				arcOutputs[a] = label == null ? null : label.out();
+				arcWeights[a] = compact.transitionWeight(t);
+				if (arcInputs[a] < 0) epsilonEnd[s] = a + 1;
+			}
+		}
+
+		Collection<Object> initial = compact.initialStates();
+		initialStates = new int[initial.size()];
+		int i = 0;
+		for (Object s : initial) initialStates[i++] = (Integer) s;
+		initialWeights = new Object[numStates];
+		finalWeights = new Object[numStates];
+		for (int s = 0; s < numStates; s++)
+		{
+			initialWeights[s] = compact.initialWeight(s);
+			finalWeights[s] = compact.finalWeight(s);
+		}
+	}
+
+	/**
+	 * @return
+	 * the acceptor of the weighted output strings of the specified input string
+	 */
+
+	@SuppressWarnings("unchecked")
+	public CompactAutomaton<O, K> apply(List<I> string)
+	{
+		int n = string.size();
+		int[] labels = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			Integer id = inputIds.get(string.get(i));
+			labels[i] = id == null ? -2 : id;
+		}
+
+		// The reachable pairs (state, position) are explored in the order in which they are found.
+
+		Pairs pairs = new Pairs();
+		for (int s : initialStates) pairs.add(s, 0);
+		int numArcs = 0;
+		int[] arcFrom = new int[16];
+		int[] arcToPair = new int[16];
+		int[] arcIndex = new int[16];
+		for (int p = 0; p < pairs.size; p++)
+		{
+			int q = pairs.states[p];
+			int pos = pairs.positions[p];
+			int start = outStart[q];
+			int end = epsilonEnd[q];
+			for (int pass = 0; pass < 2; pass++)
+			{
+				for (int a = start; a < end; a++)
+				{
+					int next = pairs.add(arcTo[a], pass == 0 ? pos : pos + 1);
+					if (numArcs == arcFrom.length)
+					{
+						arcFrom = Arrays.copyOf(arcFrom, 2 * numArcs);
+						arcToPair = Arrays.copyOf(arcToPair, 2 * numArcs);
+						arcIndex = Arrays.copyOf(arcIndex, 2 * numArcs);
+					}
+					arcFrom[numArcs] = p;
+					arcToPair[numArcs] = next;
+					arcIndex[numArcs] = a;
+					numArcs++;
+				}
+				if (pos == n || labels[pos] < 0) break;
+				start = findArc(q, labels[pos]);
+				end = start;
+				while (end >= 0 && end < outStart[q + 1] && arcInputs[end] == labels[pos]) end++;
+			}
+		}
+
+		// Only the pairs from which a final pair is reachable are kept.
+
+		int numPairs = pairs.size;
+		int[] inStart = new int[numPairs + 1];
+		for (int i = 0; i < numArcs; i++) inStart[arcToPair[i] + 1]++;
+		for (int p = 0; p < numPairs; p++) inStart[p + 1] += inStart[p];
+		int[] fill = Arrays.copyOf(inStart, numPairs);
+		int[] arcsIn = new int[numArcs];
+		for (int i = 0; i < numArcs; i++) arcsIn[fill[arcToPair[i]]++] = i;
+		int[] ids = new int[numPairs];
+		Arrays.fill(ids, -1);
+		int[] stack = new int[numPairs];
+		int top = 0;
+		for (int p = 0; p < numPairs; p++)
+			if (pairs.positions[p] == n && ! sr.zero().equals(finalWeights[pairs.states[p]]))
+			{
+				ids[p] = 0;
+				stack[top++] = p;
+			}
+		while (top > 0)
+		{
+			int p = stack[--top];
+			for (int i = inStart[p]; i < inStart[p + 1]; i++)
+			{
+				int from = arcFrom[arcsIn[i]];
+				if (ids[from] < 0)
+				{
+					ids[from] = 0;
+					stack[top++] = from;
+				}
+			}
+		}
+
+		CompactAutomaton.Builder<O, K> builder = new CompactAutomaton.Builder<O, K>(sr);
+		for (int p = 0; p < numPairs; p++)
+			if (ids[p] == 0)
+			{
+				int q = pairs.states[p];
+				int pos = pairs.positions[p];
+				K initialWeight = pos == 0 ? (K) initialWeights[q] : sr.zero();
+				K finalWeight = pos == n ? (K) finalWeights[q] : sr.zero();
+				ids[p] = builder.addState(initialWeight, finalWeight);
+			}
+		for (int i = 0; i < numArcs; i++)
+		{
+			int from = ids[arcFrom[i]];
+			int to = ids[arcToPair[i]];
+			if (from >= 0 && to >= 0)
+			{
+				int a = arcIndex[i];
+				builder.addTransition(from, to, (O) arcOutputs[a], (K) arcWeights[a]);
+			}
+		}
+		return builder.build();
+	}
+
+	private int findArc(int state, int inputId)
+	{
+		int lo = epsilonEnd[state];
+		int hi = outStart[state + 1];
+		while (lo < hi)
+		{
+			int mid = (lo + hi) >>> 1;
+			if (arcInputs[mid] < inputId) lo = mid + 1;
+			else hi = mid;
+		}
+		return lo < outStart[state + 1] && arcInputs[lo] == inputId ? lo : -1;
+	}
+
+	private static int inputId(CompactAutomaton<?, ?> compact, int[] labelInputs, int transition)
+	{
+		int l = compact.labelId(transition);
+		return l < 0 ? -1 : labelInputs[l];
+	}
+
+	/**
+	 * The explored pairs (state, position), numbered in the order in which they are added.
+	 * The numbers are found in an open addressing hash table.
+	 */
+
+	private static class Pairs
+	{
+		int[] states = new int[16];
+		int[] positions = new int[16];
+		int size;
+		int[] table = newTable(32);
+
+		int add(int state, int position)
+		{
+			int mask = table.length - 1;
+			int slot = hash(state, position) & mask;
+			int p;
+			while ((p = table[slot]) >= 0)
+			{
+				if (states[p] == state && positions[p] == position) return p;
+				slot = (slot + 1) & mask;
+			}
+			p = size++;
+			if (p == states.length)
+			{
+				states = Arrays.copyOf(states, 2 * p);
+				positions = Arrays.copyOf(positions, 2 * p);
+			}
+			states[p] = state;
+			positions[p] = position;
+			table[slot] = p;
+			if (2 * size > table.length) rehash();
+			return p;
+		}
+
+		void rehash()
+		{
+			table = newTable(2 * table.length);
+			int mask = table.length - 1;
+			for (int p = 0; p < size; p++)
+			{
+				int slot = hash(states[p], positions[p]) & mask;
+				while (table[slot] >= 0) slot = (slot + 1) & mask;
+				table[slot] = p;
+			}
+		}
+
+		static int[] newTable(int capacity)
+		{
+			int[] table = new int[capacity];
+			Arrays.fill(table, -1);
+			return table;
+		}
+
+		static int hash(int state, int position)
+		{
+			return Hashing.mix(state, position);
+		}
+	}
+}
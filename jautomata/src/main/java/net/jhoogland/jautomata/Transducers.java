@@ -2,9 +2,11 @@ package net.jhoogland.jautomata;
 
 import java.util.List;
 
+import net.jhoogland.jautomata.operations.BeamPruner;
 import net.jhoogland.jautomata.operations.Concatenation;
 import net.jhoogland.jautomata.operations.LabelConversion;
 import net.jhoogland.jautomata.operations.Operations;
+import net.jhoogland.jautomata.operations.PrunedTransducerComposition;
 import net.jhoogland.jautomata.operations.TransducerComposition;
 import net.jhoogland.jautomata.operations.TransducerLabelConversion;
 import net.jhoogland.jautomata.operations.Union;
@@ -40,6 +42,43 @@ public class Transducers
 		return apply(transducer, Automata.toCharacterList(string));
 	}
 	
+	/**
+	 * Applies a string to the input tape of the specified transducer with beam pruning (see {@link BeamPruner})
+	 * and returns the resulting acceptor of the output labels.
+	 * States that are outside the beam of the specified threshold (or <code>null</code>) 
+	 * and beam width (or <code>0</code>) are not created, so a beam width bounds the number of states per depth.
+	 * The created states are kept by the composition (see {@link PrunedTransducerComposition}),
+	 * so the memory grows linearly with the length of the string.
+	 */
+	
+	public static <I, O, K extends Comparable<K>> Automaton<O, K> apply(Automaton<TLabel<I, O>, K> transducer, List<I> string, K threshold, int beamWidth)
+	{		
+		Automaton<TLabel<I, I>, K> t = identity(Automata.createSingleStringAutomaton(transducer.semiring(), string));
+		return outputAcceptor(new PrunedTransducerComposition<I, I, O, K>(t, transducer, threshold, beamWidth));
+	}
+	
+	/**
+	 * @return
+	 * a {@link TransducerApplication} that applies strings to the input tape of the specified transducer
+	 * without building a composition.
+	 * The transducer is compiled once, so it is required to have finitely many states.
+	 */
+
+	public static <I, O, K> TransducerApplication<I, O, K> application(Automaton<TLabel<I, O>, K> transducer)
+	{
+		return new TransducerApplication<I, O, K>(transducer);
+	}
+
+	/**
+	 * @return
+	 * a list with the specified number of best output strings of the specified input string
+	 */
+
+	public static <I, O, K extends Comparable<K>> List<Path<O, K>> bestOutputs(TransducerApplication<I, O, K> application, List<I> string, int numOutputs)
+	{
+		return Automata.bestStrings(application.apply(string), numOutputs);
+	}
+
 	/**
 	 * @return
 	 * the acceptor that is the projection of the specified transducer on the input tape 
@@ -16,11 +16,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 import net.jhoogland.jautomata.AbstractAutomaton;
-import net.jhoogland.jautomata.ArrayAutomaton;
 import net.jhoogland.jautomata.Automata;
 import net.jhoogland.jautomata.Automaton;
 import net.jhoogland.jautomata.BasicState;
 import net.jhoogland.jautomata.BasicTransition;
+import net.jhoogland.jautomata.CompactAutomaton;
 import net.jhoogland.jautomata.HashAutomaton;
 import net.jhoogland.jautomata.ReverselyAccessibleAutomaton;
 import net.jhoogland.jautomata.operations.Operations;
@@ -106,7 +106,7 @@ public class AcceptorIO
 	
 	public static <L, K> void write(Automaton<L, K> automaton, Writer writer, Format<L> labelFormat) throws FileNotFoundException
 	{
-		ReverselyAccessibleAutomaton<L, K> a = new ArrayAutomaton<L, K>(automaton.initialStates().size() > 1 ? Operations.singleInitialState(automaton) : automaton);	
+		ReverselyAccessibleAutomaton<L, K> a = new CompactAutomaton<L, K>(automaton.initialStates().size() > 1 ? Operations.singleInitialState(automaton) : automaton);	
 		PrintWriter pw = writer instanceof PrintWriter ? (PrintWriter) writer : new PrintWriter(writer);
 		K one = automaton.semiring().one();
 		for (Object t : Automata.transitions(a))
@@ -7,9 +7,9 @@ import java.io.PrintWriter;
 import java.io.Reader;
 import java.io.Writer;
 
-import net.jhoogland.jautomata.ArrayAutomaton;
 import net.jhoogland.jautomata.Automata;
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
 import net.jhoogland.jautomata.HashTransducer;
 import net.jhoogland.jautomata.ReverselyAccessibleAutomaton;
 import net.jhoogland.jautomata.TLabel;
@@ -96,7 +96,7 @@ public class TransducerIO
 	
 	public static <I, O, K> void write(Automaton<TLabel<I, O>, K> transducer, Writer writer, Format<I> inputLabelFormat, Format<O> outputLabelFormat) throws FileNotFoundException
 	{
-		ReverselyAccessibleAutomaton<TLabel<I, O>, K> a = new ArrayAutomaton<TLabel<I, O>, K>(transducer.initialStates().size() > 1 ? Operations.singleInitialState(transducer) : transducer);	
+		ReverselyAccessibleAutomaton<TLabel<I, O>, K> a = new CompactAutomaton<TLabel<I, O>, K>(transducer.initialStates().size() > 1 ? Operations.singleInitialState(transducer) : transducer);	
 		PrintWriter pw = writer instanceof PrintWriter ? (PrintWriter) writer : new PrintWriter(writer);
 		K one = transducer.semiring().one();
 		for (Object t : Automata.transitions(a))
@@ -1,12 +1,17 @@
 package net.jhoogland.jautomata.operations;
 
+import java.util.Collection;
+
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.ExtendedAutomaton;
 
 /**
  * Implementation of acceptor intersection.
  * The weight of every string is the product of the weights of that string in the operand acceptors.
  * In the case of unweighted acceptors, the intersection accepts a string if and only if it is accepted
  * by both operands.  
+ * If an operand is an {@link ExtendedAutomaton}, its transitions that match a transition of the other operand
+ * are looked up by label.
  * 
  * @author Jasper Hoogland
  *
@@ -23,6 +28,24 @@ public class AcceptorIntersection<L, K> extends Intersection<L, L, L, K>
 	{
 		super(operand1, operand2);		
 	}
+	
+	/**
+	 * Creates an intersection of which the states are interned if <code>internStates</code> is true (see {@link Intersection}).
+	 */
+	
+	public AcceptorIntersection(Automaton<L, K> operand1, Automaton<L, K> operand2, boolean internStates) 
+	{
+		super(operand1, operand2, null, internStates);
+	}
+	
+	/**
+	 * Creates an intersection of which the outgoing transitions are pruned by the specified pruner (see {@link Intersection}).
+	 */
+	
+	protected AcceptorIntersection(Automaton<L, K> operand1, Automaton<L, K> operand2, BeamPruner<?> pruner) 
+	{
+		super(operand1, operand2, pruner);
+	}
 
 	@Override
 	protected Object intersectionLabel1(L label) 
@@ -42,4 +65,27 @@ public class AcceptorIntersection<L, K> extends Intersection<L, L, L, K>
 		if (label1 != null) return label1;
 		else return label2;
 	}
+
+	@Override
+	protected int extensionType() 
+	{
+		if (operand1 instanceof ExtendedAutomaton)
+			return operand2 instanceof ExtendedAutomaton ? BOTH1 : EXT1;
+		else
+			return operand2 instanceof ExtendedAutomaton ? EXT2 : NONE;
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	protected Collection<Object> transitionsOut1(Object state, Object label) 
+	{
+		return ((ExtendedAutomaton<L, K>) operand1).transitionsOut(state, (L) label);
+	}
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	protected Collection<Object> transitionsOut2(Object state, Object label) 
+	{
+		return ((ExtendedAutomaton<L, K>) operand2).transitionsOut(state, (L) label);
+	}
 }
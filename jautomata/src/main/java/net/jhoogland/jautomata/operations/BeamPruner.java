@@ -0,0 +1,180 @@
+package net.jhoogland.jautomata.operations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.semirings.NaturalOrder;
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * <p>
+ * Beam pruning for automata that are computed on the fly, such as {@link PrunedAcceptorIntersection}
+ * and {@link PrunedTransducerComposition}.
+ * The pruner records the best forward weight of every state that is reached while the automaton is traversed,
+ * and the depth (number of transitions from an initial state) at which the state was first reached.
+ * A transition is dropped if the forward weight of its target is outside the beam of its depth:
+ * </p>
+ * <ul>
+ * <li>if the forward weight is worse than the best forward weight seen so far at that depth, multiplied by the threshold, or</li>
+ * <li>if its target is a new state and <code>beamWidth</code> states have already been reached at that depth.</li>
+ * </ul>
+ * <p>
+ * So at most <code>beamWidth</code> states are created per depth.
+ * The outgoing transitions of a state are considered from best to worst,
+ * so the beam is filled with the best targets of the states that are expanded first.
+ * Pruning is approximate: the weights are compared according to the {@link NaturalOrder} of the semiring,
+ * and paths that leave the beam are lost even if they would have become the best paths later.
+ * The outgoing transitions of states that are neither initial states nor reached through the pruner are not pruned.
+ * The forward weights and depths of the reached states are kept for the lifetime of the pruner.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * weight type
+ */
+
+public class BeamPruner<K extends Comparable<K>>
+{
+	private Semiring<K> sr;
+	private Comparator<K> order;
+	private K threshold;
+	private int beamWidth;
+
+	private Map<Object, K> forwardWeights;
+	private Map<Object, Integer> depths;
+	private List<K> bestWeights;
+	private List<Integer> beamSizes;
+
+	/**
+	 * Creates a pruner.
+	 *
+	 * @param threshold
+	 * the weight that is multiplied with the best forward weight of a depth to obtain the worst forward weight in the beam
+	 * (e.g. an additive beam in the tropical semiring or a factor below one in the real semiring),
+	 * or <code>null</code> for no threshold
+	 *
+	 * @param beamWidth
+	 * the maximum number of states per depth, or <code>0</code> for no maximum
+	 */
+
+	public BeamPruner(Semiring<K> semiring, K threshold, int beamWidth)
+	{
+		this.sr = semiring;
+		this.order = new NaturalOrder<K>(semiring);
+		this.threshold = threshold;
+		this.beamWidth = beamWidth;
+		forwardWeights = new HashMap<Object, K>();
+		depths = new HashMap<Object, Integer>();
+		bestWeights = new ArrayList<K>();
+		beamSizes = new ArrayList<Integer>();
+	}
+
+	/**
+	 * @return
+	 * the transitions among the specified outgoing transitions of the specified state that are in the beam
+	 */
+
+	public synchronized <L> Collection<Object> prune(Automaton<L, K> automaton, Object state, Collection<Object> transitionsOut)
+	{
+		K forwardWeight = forwardWeights.get(state);
+		Integer depth = depths.get(state);
+		if (forwardWeight == null)
+		{
+			K initialWeight = automaton.initialWeight(state);
+			if (sr.zero().equals(initialWeight)) return transitionsOut;
+			forwardWeight = initialWeight;
+			depth = 0;
+			admit(state, forwardWeight, 0);
+		}
+		int d = depth + 1;
+
+		int n = transitionsOut.size();
+		final Object[] transitions = transitionsOut.toArray();
+		final Object[] weights = new Object[n];
+		Integer[] positions = new Integer[n];
+		for (int i = 0; i < n; i++)
+		{
+			weights[i] = sr.multiply(forwardWeight, automaton.transitionWeight(transitions[i]));
+			positions[i] = i;
+		}
+		Arrays.sort(positions, new Comparator<Integer>()
+		{
+			@SuppressWarnings("unchecked")
+			public int compare(Integer i1, Integer i2)
+			{
+				return order.compare((K) weights[i1], (K) weights[i2]);
+			}
+		});
+
+		Collection<Object> pruned = new ArrayList<Object>(n);
+		for (int i : positions)
+		{
+			@SuppressWarnings("unchecked")
+			K w = (K) weights[i];
+			if (sr.zero().equals(w)) continue;
+			K best = best(d);
+			if (best == null || order.compare(w, best) < 0)
+			{
+				best = w;
+				bestWeights.set(d, w);
+			}
+			if (threshold != null && order.compare(w, sr.multiply(best, threshold)) > 0) continue;
+			Object next = automaton.to(transitions[i]);
+			K previous = forwardWeights.get(next);
+			if (previous == null)
+			{
+				if (! admit(next, w, d)) continue;
+			}
+			else if (order.compare(w, previous) < 0) forwardWeights.put(next, w);
+			pruned.add(transitions[i]);
+		}
+		return pruned;
+	}
+
+	/**
+	 * @return
+	 * the number of states in the beam
+	 */
+
+	public synchronized int numStates()
+	{
+		return forwardWeights.size();
+	}
+
+	/**
+	 * Adds the specified state to the beam of the specified depth if fewer than <code>beamWidth</code> states 
+	 * have been added to it.
+	 * 
+	 * @return
+	 * true if and only if the state was added
+	 */
+	
+	private boolean admit(Object state, K forwardWeight, int depth)
+	{
+		if (beamWidth > 0)
+		{
+			while (beamSizes.size() <= depth) beamSizes.add(0);
+			int beamSize = beamSizes.get(depth);
+			if (beamSize == beamWidth) return false;
+			beamSizes.set(depth, beamSize + 1);
+		}
+		forwardWeights.put(state, forwardWeight);
+		depths.put(state, depth);
+		K best = best(depth);
+		if (best == null || order.compare(forwardWeight, best) < 0) bestWeights.set(depth, forwardWeight);
+		return true;
+	}
+
+	private K best(int depth)
+	{
+		while (bestWeights.size() <= depth) bestWeights.add(null);
+		return bestWeights.get(depth);
+	}
+}
@@ -0,0 +1,255 @@
+package net.jhoogland.jautomata.operations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import net.jhoogland.jautomata.Automaton;
+
+/**
+ * <p>
+ * Remembers the outgoing transitions and final weights of the states of an automaton that is computed on the fly,
+ * such as the result of determinization, intersection or composition,
+ * so the automaton can be traversed many times without recomputing its states and without building it completely.
+ * </p>
+ * <p>
+ * The outgoing transitions of a state are copied, with their labels, targets and weights, when the state is expanded first.
+ * The expanded states are kept in least recently used order, and the least recently used states are evicted
+ * if there are more than <code>maxStates</code> expanded states
+ * or more than <code>maxTransitions</code> transitions of expanded states
+ * (a bound of <code>0</code> means no maximum).
+ * Transitions that have been returned remain valid after their source state has been evicted.
+ * The cache only bounds its own memory. Intersections keep no table of their states unless they are created to intern them
+ * (see {@link Intersection}), so the cache bounds the memory of an unpruned intersection that is traversed through it.
+ * The numbers of hits and misses of the cache are counted.
+ * Instances of this class can be used concurrently if the operand can be used concurrently.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ *
+ * @param <K>
+ * weight type
+ * (Boolean for regular automata and Double for weighted automata)
+ */
+
+public class CachedAutomaton<L, K> extends UnaryOperation<L, L, K, K>
+{
+	private int maxStates;
+	private long maxTransitions;
+
+	private LinkedHashMap<Object, Expansion> cache;
+	private long numTransitions;
+	private long hits;
+	private long misses;
+
+	public CachedAutomaton(Automaton<L, K> operand, int maxStates, long maxTransitions)
+	{
+		super(operand, operand.semiring());
+		this.maxStates = maxStates;
+		this.maxTransitions = maxTransitions;
+		cache = new LinkedHashMap<Object, Expansion>(16, 0.75f, true);
+	}
+
+	public Collection<Object> transitionsOut(Object state)
+	{
+		return expansion(state).transitionsOut;
+	}
+
+	public K initialWeight(Object state)
+	{
+		return operand.initialWeight(state);
+	}
+
+	public K finalWeight(Object state)
+	{
+		return expansion(state).finalWeight;
+	}
+
+	public Object from(Object transition)
+	{
+		return ((CachedTransition) transition).from;
+	}
+
+	public Object to(Object transition)
+	{
+		return ((CachedTransition) transition).to;
+	}
+
+	@SuppressWarnings("unchecked")
+	public L label(Object transition)
+	{
+		return (L) ((CachedTransition) transition).label;
+	}
+
+	@SuppressWarnings("unchecked")
+	public K transitionWeight(Object transition)
+	{
+		return (K) ((CachedTransition) transition).weight;
+	}
+
+	/**
+	 * @return
+	 * the number of calls for which the state was found in the cache
+	 */
+
+	public synchronized long hits()
+	{
+		return hits;
+	}
+
+	/**
+	 * @return
+	 * the number of calls for which the state had to be expanded
+	 */
+
+	public synchronized long misses()
+	{
+		return misses;
+	}
+
+	/**
+	 * @return
+	 * the number of states in the cache
+	 */
+
+	public synchronized int numCachedStates()
+	{
+		return cache.size();
+	}
+
+	/**
+	 * @return
+	 * the number of outgoing transitions of the states in the cache
+	 */
+
+	public synchronized long numCachedTransitions()
+	{
+		return numTransitions;
+	}
+
+	/**
+	 * Removes all states from the cache and resets the counters.
+	 */
+
+	public synchronized void clear()
+	{
+		cache.clear();
+		numTransitions = 0;
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Returns the cached expansion of the specified state.
+	 * On a miss, the state is expanded without holding the lock, so concurrent misses may expand the same state twice.
+	 */
+
+	private Expansion expansion(Object state)
+	{
+		synchronized (this)
+		{
+			Expansion expansion = cache.get(state);
+			if (expansion != null)
+			{
+				hits++;
+				return expansion;
+			}
+			misses++;
+		}
+		Expansion expansion = expand(state);
+		synchronized (this)
+		{
+			Expansion previous = cache.put(state, expansion);
+			if (previous != null) numTransitions -= previous.transitionsOut.size();
+			numTransitions += expansion.transitionsOut.size();
+			evict(state);
+		}
+		return expansion;
+	}
+
+	private Expansion expand(Object state)
+	{
+		Collection<Object> operandTransitions = operand.transitionsOut(state);
+		ArrayList<Object> transitionsOut = new ArrayList<Object>(operandTransitions.size());
+		for (Object t : operandTransitions)
+			transitionsOut.add(new CachedTransition(t, state, operand.to(t), operand.label(t), operand.transitionWeight(t)));
+		return new Expansion(operand.finalWeight(state), Collections.unmodifiableList(transitionsOut));
+	}
+
+	/**
+	 * Evicts the least recently used states, except the specified state, while a bound is exceeded.
+	 */
+
+	private void evict(Object state)
+	{
+		Iterator<Map.Entry<Object, Expansion>> it = cache.entrySet().iterator();
+		while (((maxStates > 0 && cache.size() > maxStates) || (maxTransitions > 0 && numTransitions > maxTransitions)) && it.hasNext())
+		{
+			Map.Entry<Object, Expansion> e = it.next();
+			if (e.getKey().equals(state)) continue;
+			numTransitions -= e.getValue().transitionsOut.size();
+			it.remove();
+		}
+	}
+
+	private class Expansion
+	{
+		K finalWeight;
+		Collection<Object> transitionsOut;
+
+		Expansion(K finalWeight, Collection<Object> transitionsOut)
+		{
+			this.finalWeight = finalWeight;
+			this.transitionsOut = transitionsOut;
+		}
+	}
+
+	/**
+	 * A copy of a transition of the operand.
+	 * Copies are equal if and only if the transitions of the operand are equal.
+	 */
+
+	public static class CachedTransition
+	{
+		public Object operandTransition;
+		public Object from;
+		public Object to;
+		public Object label;
+		public Object weight;
+
+		public CachedTransition(Object operandTransition, Object from, Object to, Object label, Object weight)
+		{
+			this.operandTransition = operandTransition;
+			this.from = from;
+			this.to = to;
+			this.label = label;
+			this.weight = weight;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if (this == obj) return true;
+			if (obj instanceof CachedTransition) return operandTransition.equals(((CachedTransition) obj).operandTransition);
+			else return false;
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return operandTransition.hashCode();
+		}
+
+		@Override
+		public String toString()
+		{
+			return "CachedTransition(" + operandTransition + ")";
+		}
+	}
+}
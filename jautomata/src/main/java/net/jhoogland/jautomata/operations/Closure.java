@@ -7,6 +7,7 @@ import java.util.Comparator;
 
 import net.jhoogland.jautomata.Automata;
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.Hashing;
 
 /**
  * 
@@ -25,9 +26,12 @@ import net.jhoogland.jautomata.Automaton;
 
 public class Closure<L, K> extends UnaryOperation<L, L, K, K> 
 {
+	private State initialState;
+	
 	public Closure(Automaton<L, K> operand)
 	{
 		super(operand, operand.semiring());
+		initialState = new State(null);
 	}
 
 	public Collection<Object> initialStates() 
@@ -52,7 +56,7 @@ public class Closure<L, K> extends UnaryOperation<L, L, K, K>
 			if (Automata.isFinalState(operand, s.opState))
 				transitionsOut.add(new Transition(s.opState, false));
 		}
-		
+		for (Object t : transitionsOut) ((Transition) t).fromState = s;
 		return transitionsOut;
 	}
 
@@ -69,22 +73,26 @@ public class Closure<L, K> extends UnaryOperation<L, L, K, K>
 	public Object from(Object transition) 
 	{		
 		Transition t = (Transition) transition;
-		if (t.inOperand()) return new State(operand.from(t.opTransition));
-		else if (t.fromInitialState) return initialState();
-		else return new State(t.opState);
+		if (t.fromState != null) return t.fromState;
+		if (t.inOperand()) t.fromState = new State(operand.from(t.opTransition));
+		else if (t.fromInitialState) t.fromState = initialState;
+		else t.fromState = new State(t.opState);
+		return t.fromState;
 	}
 
 	private Object initialState()
 	{
-		return new State(null);
+		return initialState;
 	}
-
+	
 	public Object to(Object transition) 
 	{
 		Transition t = (Transition) transition;
-		if (t.inOperand()) return new State(operand.to(t.opTransition));
-		else if (t.fromInitialState) return new State(t.opState);
-		else return initialState();
+		if (t.toState != null) return t.toState;
+		if (t.inOperand()) t.toState = new State(operand.to(t.opTransition));
+		else if (t.fromInitialState) t.toState = new State(t.opState);
+		else t.toState = initialState;
+		return t.toState;
 	}
 
 	public L label(Object transition) 
@@ -111,25 +119,28 @@ public class Closure<L, K> extends UnaryOperation<L, L, K, K>
 	class State
 	{
 		Object opState;
+		private int hashCode;
 		
 		public State(Object opState) 
 		{
 			this.opState = opState;
 			if (opState instanceof Closure.State)
 				throw new RuntimeException();
+			this.hashCode = Hashing.mix(this.opState == null ? 0 : this.opState.hashCode());
 		}
 		
 		@Override
 		public boolean equals(Object obj) 
 		{			
+			if (obj == this) return true;
 			State other = (State) obj;
-			return this.opState == null ? other.opState == null : this.opState.equals(other.opState);
+			return this.opState == null ? other.opState == null : this.hashCode == other.hashCode && this.opState.equals(other.opState);
 		}
 		
 		@Override
 		public int hashCode() 
 		{			
-			return this.opState == null ? 0 : this.opState.hashCode();
+			return hashCode;
 		}
 		
 		@Override
@@ -150,12 +161,16 @@ public class Closure<L, K> extends UnaryOperation<L, L, K, K>
 		Object opTransition;
 		Object opState;
 		boolean fromInitialState;
+		private int hashCode;
+		State fromState;
+		State toState;
 		
 		public Transition(Object opTransition) 
 		{
 			this.opTransition = opTransition;
 			if (opTransition instanceof Closure.Transition)
 				throw new RuntimeException();
+			this.hashCode = hash();
 		}
 		
 		public Transition(Object opState, boolean fromInitialState) 
@@ -164,6 +179,13 @@ public class Closure<L, K> extends UnaryOperation<L, L, K, K>
 			this.fromInitialState = fromInitialState;
 			if (opState instanceof Closure.State)
 				throw new RuntimeException();
+			this.hashCode = hash();
+		}
+		
+		private int hash()
+		{
+			return Hashing.mix(this.opState == null ? 0 : this.opState.hashCode(), 
+					this.opTransition == null ? 0 : this.opTransition.hashCode());
 		}
 		
 		boolean inOperand()
@@ -175,8 +197,10 @@ public class Closure<L, K> extends UnaryOperation<L, L, K, K>
 		@Override
 		public boolean equals(Object obj) 
 		{			
+			if (obj == this) return true;
 			Transition other = (Transition) obj;
-			return (this.opState == null ? other.opState == null : this.opState.equals(other.opState))
+			return this.hashCode == other.hashCode
+					&& (this.opState == null ? other.opState == null : this.opState.equals(other.opState))
 					&& (this.opTransition == null ? other.opTransition == null : this.opTransition.equals(other.opTransition))
 					&& this.fromInitialState == other.fromInitialState;
 		}
@@ -184,8 +208,7 @@ public class Closure<L, K> extends UnaryOperation<L, L, K, K>
 		@Override
 		public int hashCode() 
 		{			
-			return (this.opState == null ? 0 : this.opState.hashCode())
-					+ (this.opTransition == null ? 0 : this.opTransition.hashCode());
+			return hashCode;
 		}
 		
 		@Override
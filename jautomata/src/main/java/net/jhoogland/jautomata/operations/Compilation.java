@@ -0,0 +1,196 @@
+package net.jhoogland.jautomata.operations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+
+/**
+ * <p>
+ * Expands an automaton that is computed on the fly into a {@link CompactAutomaton}.
+ * The states are visited in a breadth-first traversal that starts at the initial states.
+ * The states of every level of the traversal are expanded in parallel by the tasks of a fork-join pool,
+ * which steal each other's work,
+ * and the outgoing transitions of every state are retrieved only once.
+ * The operand is therefore required to be safe for concurrent use,
+ * which is the case for the operations of this package.
+ * </p>
+ * <p>
+ * If deterministic numbering is requested, the tasks only look up the numbers of the states that were found before,
+ * and the new states of a level are numbered after the level has been expanded,
+ * in the order of their source states and transitions.
+ * The numbering is then the same as that of the <code>CompactAutomaton(Automaton)</code> constructor
+ * for automata without a topological order.
+ * Otherwise, the states are numbered by the tasks in a concurrent hash table as soon as they are found.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class Compilation
+{
+	private static final int BATCH_SIZE = 8;
+
+	/**
+	 * @return
+	 * a {@link CompactAutomaton} that is identical to the specified automaton, expanded by the tasks of the specified pool
+	 */
+
+	@SuppressWarnings("unchecked")
+	public static <L, K> CompactAutomaton<L, K> compile(Automaton<L, K> src, boolean deterministicNumbering, ForkJoinPool pool)
+	{
+		Map<Object, Integer> ids = deterministicNumbering ? new HashMap<Object, Integer>() : new ConcurrentHashMap<Object, Integer>();
+		AtomicInteger numStates = new AtomicInteger();
+		List<Object> frontier = new ArrayList<Object>();
+		for (Object state : src.initialStates()) if (! ids.containsKey(state))
+		{
+			ids.put(state, numStates.getAndIncrement());
+			frontier.add(state);
+		}
+
+		List<Expansion> expansions = new ArrayList<Expansion>();
+		while (! frontier.isEmpty())
+		{
+			Expansion[] level = new Expansion[frontier.size()];
+			ConcurrentLinkedQueue<Object> found = deterministicNumbering ? null : new ConcurrentLinkedQueue<Object>();
+			pool.invoke(new ExpandTask<L, K>(src, frontier, level, 0, level.length, ids, deterministicNumbering ? null : numStates, found));
+			List<Object> next = new ArrayList<Object>();
+			for (Expansion expansion : level)
+			{
+				if (deterministicNumbering) for (int i = 0; i < expansion.targets.length; i++)
+				{
+					if (expansion.targetIds[i] >= 0) continue;
+					Object target = expansion.targets[i];
+					Integer id = ids.get(target);
+					if (id == null)
+					{
+						id = numStates.getAndIncrement();
+						ids.put(target, id);
+						next.add(target);
+					}
+					expansion.targetIds[i] = id;
+				}
+				expansion.targets = null;
+				expansions.add(expansion);
+			}
+			if (! deterministicNumbering) next.addAll(found);
+			frontier = next;
+		}
+
+		Expansion[] byId = new Expansion[numStates.get()];
+		for (Expansion expansion : expansions) byId[expansion.id] = expansion;
+		CompactAutomaton.Builder<L, K> builder = new CompactAutomaton.Builder<L, K>(src.semiring());
+		for (Expansion expansion : byId) builder.addState((K) expansion.initialWeight, (K) expansion.finalWeight);
+		for (Expansion expansion : byId)
+			for (int i = 0; i < expansion.targetIds.length; i++)
+				builder.addTransition(expansion.id, expansion.targetIds[i], (L) expansion.labels[i], (K) expansion.weights[i]);
+		return builder.build();
+	}
+
+	/**
+	 * The weights and outgoing transitions of a state.
+	 */
+
+	static class Expansion
+	{
+		int id;
+		Object initialWeight;
+		Object finalWeight;
+		Object[] targets;
+		int[] targetIds;
+		Object[] labels;
+		Object[] weights;
+	}
+
+	/**
+	 * Expands a range of the states of a level, splitting the range while it is larger than <code>BATCH_SIZE</code>.
+	 */
+
+	static class ExpandTask<L, K> extends RecursiveAction
+	{
+		private static final long serialVersionUID = 1L;
+
+		Automaton<L, K> src;
+		List<Object> frontier;
+		Expansion[] level;
+		int start;
+		int end;
+		Map<Object, Integer> ids;
+		AtomicInteger numStates;
+		ConcurrentLinkedQueue<Object> found;
+
+		ExpandTask(Automaton<L, K> src, List<Object> frontier, Expansion[] level, int start, int end,
+				Map<Object, Integer> ids, AtomicInteger numStates, ConcurrentLinkedQueue<Object> found)
+		{
+			this.src = src;
+			this.frontier = frontier;
+			this.level = level;
+			this.start = start;
+			this.end = end;
+			this.ids = ids;
+			this.numStates = numStates;
+			this.found = found;
+		}
+
+		@Override
+		protected void compute()
+		{
+			if (end - start > BATCH_SIZE)
+			{
+				int mid = (start + end) >>> 1;
+				invokeAll(new ExpandTask<L, K>(src, frontier, level, start, mid, ids, numStates, found),
+						new ExpandTask<L, K>(src, frontier, level, mid, end, ids, numStates, found));
+				return;
+			}
+			Function<Object, Integer> number = numStates == null ? null : new Function<Object, Integer>()
+			{
+				public Integer apply(Object state)
+				{
+					found.add(state);
+					return numStates.getAndIncrement();
+				}
+			};
+			for (int i = start; i < end; i++)
+			{
+				Object state = frontier.get(i);
+				Expansion expansion = new Expansion();
+				expansion.id = ids.get(state);
+				expansion.initialWeight = src.initialWeight(state);
+				expansion.finalWeight = src.finalWeight(state);
+				Collection<Object> transitions = src.transitionsOut(state);
+				int n = transitions.size();
+				expansion.targetIds = new int[n];
+				expansion.labels = new Object[n];
+				expansion.weights = new Object[n];
+				if (number == null) expansion.targets = new Object[n];
+				int t = 0;
+				for (Object transition : transitions)
+				{
+					Object target = src.to(transition);
+					Integer id = ids.get(target);
+					if (number == null)
+					{
+						expansion.targets[t] = target;
+						expansion.targetIds[t] = id != null ? id : -1;
+					}
+					else expansion.targetIds[t] = id != null ? id : ((ConcurrentHashMap<Object, Integer>) ids).computeIfAbsent(target, number);
+					expansion.labels[t] = src.label(transition);
+					expansion.weights[t] = src.transitionWeight(transition);
+					t++;
+				}
+				level[i] = expansion;
+			}
+		}
+	}
+}
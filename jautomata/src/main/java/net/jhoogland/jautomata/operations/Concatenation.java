@@ -7,6 +7,7 @@ import java.util.Comparator;
 import net.jhoogland.jautomata.AbstractAutomaton;
 import net.jhoogland.jautomata.Automata;
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.Hashing;
 
 /**
  * Concatenation of multiple automata.
@@ -51,7 +52,7 @@ public class Concatenation<L, K> extends AbstractAutomaton<L, K>
 	{
 		Collection<Object> initialStates = new ArrayList<Object>();
 		for (Object ios : operands[0].initialStates())
-			initialStates.add(new ConcatenationElement(0, 0, ios));
+			initialStates.add(new ConcatenationElement(STATE_IN_OPERAND, 0, ios));
 		return initialStates;
 	}
 	
@@ -73,6 +74,7 @@ public class Concatenation<L, K> extends AbstractAutomaton<L, K>
 				transitionsOut.add(new ConcatenationElement(TRANSITION_FROM_CONSTATE, s.index, ios));
 				
 		}		
+		for (Object t : transitionsOut) ((ConcatenationElement) t).fromState = s;
 		return transitionsOut;
 	}
 
@@ -93,6 +95,12 @@ public class Concatenation<L, K> extends AbstractAutomaton<L, K>
 	public Object from(Object transition)
 	{
 		ConcatenationElement t = (ConcatenationElement) transition;
+		if (t.fromState == null) t.fromState = createFrom(t);
+		return t.fromState;
+	}
+	
+	private ConcatenationElement createFrom(ConcatenationElement t)
+	{
 		if (t.type == TRANSITION_IN_OPERAND) 
 			return new ConcatenationElement(STATE_IN_OPERAND, t.index, operands[t.index].from(t.value));
 		else if (t.type == TRANSITION_TO_CONSTATE)
@@ -105,6 +113,12 @@ public class Concatenation<L, K> extends AbstractAutomaton<L, K>
 	public Object to(Object transition) 
 	{
 		ConcatenationElement t = (ConcatenationElement) transition;
+		if (t.toState == null) t.toState = createTo(t);
+		return t.toState;
+	}
+	
+	private ConcatenationElement createTo(ConcatenationElement t)
+	{
 		if (t.type == TRANSITION_IN_OPERAND) 
 			return new ConcatenationElement(STATE_IN_OPERAND, t.index, operands[t.index].to(t.value));
 		else if (t.type == TRANSITION_TO_CONSTATE)
@@ -169,12 +183,19 @@ public class Concatenation<L, K> extends AbstractAutomaton<L, K>
 			// 2 transition in operand, 3 to connection state, 4 from connection state
 		public int index;
 		public Object value;
+		private int hashCode;
+		
+		// Source and target state of a transition element, cached by from() and to():
+		
+		ConcatenationElement fromState;
+		ConcatenationElement toState;
 		
 		public ConcatenationElement(int inOperand, int index, Object value) 
 		{
 			this.index = index;
 			this.value = value;
 			this.type = inOperand;
+			this.hashCode = Hashing.mix(5 * index + type, value == null ? 0 : value.hashCode());
 		}
 		
 		@Override
@@ -186,10 +207,12 @@ public class Concatenation<L, K> extends AbstractAutomaton<L, K>
 		@Override
 		public boolean equals(Object obj) 
 		{			
+			if (obj == this) return true;
 			if (obj == null || ! (obj instanceof Concatenation.ConcatenationElement)) 
 				return false;
 			ConcatenationElement other = (ConcatenationElement) obj;			
-			return this.type == other.type
+			return this.hashCode == other.hashCode
+					&& this.type == other.type
 					&& this.index == other.index 
 					&& (this.value == null ? other.value == null : this.value.equals(other.value));
 		}
@@ -197,7 +220,7 @@ public class Concatenation<L, K> extends AbstractAutomaton<L, K>
 		@Override
 		public int hashCode() 
 		{			
-			return type + index + (value == null ? 0 : value.hashCode());
+			return hashCode;
 		}
 	}	
 }
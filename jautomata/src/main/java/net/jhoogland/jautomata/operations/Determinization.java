@@ -4,183 +4,398 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.Hashing;
+import net.jhoogland.jautomata.semirings.DoubleSemifield;
 import net.jhoogland.jautomata.semirings.Semifield;
 import net.jhoogland.jautomata.semirings.Semiring;
 
 /**
  * <p>
- * This is an implementation of the on-the-fly determinization algorithm described in [1]. 
+ * This is an implementation of the on-the-fly determinization algorithm described in [1].
  * The result of determinization is an automaton that is equivalent to its operand,
- * such that no two paths yield the same string.  
- * The semiring of the automaton is required to be a semifield, i.e. it must have an inverse for multiplication.  
+ * such that no two paths yield the same string.
+ * The semiring of the automaton is required to be a semifield, i.e. it must have an inverse for multiplication.
+ * If the semiring implements {@link DoubleSemifield}, the weights are accumulated on primitive <code>double</code> values.
+ * </p>
+ * <p>
+ * A state of the determinization is a subset of operand states with remainder weights.
+ * The operand states are numbered, and a subset is stored as an array of operand state numbers in increasing order
+ * with parallel arrays of the operand states and their remainder weights, and its hash code is computed once.
+ * The subsets are interned, so every subset is created once.
+ * The outgoing transitions of the operand states of a subset are grouped by label by sorting their label numbers
+ * in reusable buffers.
+ * </p>
+ * <p>
+ * If a quantization step <code>delta</code> is specified, the determinization is approximate:
+ * every remainder weight is rounded to the nearest multiple of <code>delta</code> before the subset is interned,
+ * so subsets whose remainder weights differ by rounding errors become the same state.
+ * Remainder weights that would be rounded to the zero of the semiring, and infinite weights, are not rounded.
+ * The largest difference between a remainder weight and its rounded value is reported by <code>maxWeightError()</code>.
+ * Quantization requires a semiring that implements {@link DoubleSemifield}.
  * </p>
  * <p>
  * [1] M. Mohri, Finite-State Transducers in Language and Speech Processing. 1997
  * </p>
- * 
+ *
  * @author Jasper Hoogland
- * 
+ *
  * @param <L>
  * label type
- * 
+ *
  * @param <K>
- * weight type 
+ * weight type
  * (Boolean for regular automata and Double for weighted automata)
- * 
+ *
  */
 
-public class Determinization<L, K> extends UnaryOperation<L, L, K, K> 
+public class Determinization<L, K> extends UnaryOperation<L, L, K, K>
 {
+	private static final Object NULL_LABEL = new Object();
+
+	private volatile DeterminizationState initialState;
+	private boolean doubleWeights;
+	private Map<Object, Integer> operandStateIds;
+	private AtomicInteger numOperandStates;
+	private Map<Object, Integer> labelIds;
+	private AtomicInteger numLabels;
+	private Map<DeterminizationState, DeterminizationState> subsets;
+	private ThreadLocal<Buffers> buffers;
+	private double delta;
+	private volatile double maxWeightError;
+
 	public Determinization(Automaton<L, K> operand)
+	{
+		this(operand, 0.0);
+	}
+
+	/**
+	 * Creates a determinization that rounds the remainder weights to multiples of the specified step,
+	 * or an exact determinization if the step is <code>0</code>.
+	 */
+
+	public Determinization(Automaton<L, K> operand, double delta)
 	{
 		super(operand, operand.semiring());
 		if (! (semiring()  instanceof Semifield)) throw new RuntimeException("The semiring of the operand is not a semifield.");
+		doubleWeights = semiring() instanceof DoubleSemifield;
+		if (delta < 0.0) throw new RuntimeException("The quantization step is negative.");
+		if (delta > 0.0 && ! doubleWeights) throw new RuntimeException("Quantization requires a semiring that implements DoubleSemifield.");
+		this.delta = delta;
+		operandStateIds = new ConcurrentHashMap<Object, Integer>();
+		numOperandStates = new AtomicInteger();
+		labelIds = new ConcurrentHashMap<Object, Integer>();
+		numLabels = new AtomicInteger();
+		subsets = new ConcurrentHashMap<DeterminizationState, DeterminizationState>();
+		buffers = new ThreadLocal<Buffers>()
+		{
+			@Override
+			protected Buffers initialValue()
+			{
+				return new Buffers();
+			}
+		};
 	}
 
 	@Override
-	public Collection<Object> initialStates() 
+	public Collection<Object> initialStates()
 	{
 		return Arrays.asList((Object) getInitialState());
 	}
-	
+
+	/**
+	 * @return
+	 * the initial state, which is created once
+	 */
+
 	public DeterminizationState getInitialState()
 	{
-		Map<Object, K> remainderWeights = new HashMap<Object, K>();
-		for (Object initialOperandState : operand.initialStates())
-			remainderWeights.put(initialOperandState, operand.initialWeight(initialOperandState));
-		return new DeterminizationState(remainderWeights);		
+		if (initialState == null)
+		{
+			Buffers b = buffers.get();
+			b.numEntries = 0;
+			for (Object initialOperandState : operand.initialStates())
+			{
+				K w = operand.initialWeight(initialOperandState);
+				if (doubleWeights) b.addEntry(operandStateId(initialOperandState), initialOperandState, (Double) w, null);
+				else b.addEntry(operandStateId(initialOperandState), initialOperandState, 0.0, w);
+			}
+			initialState = subset(b, false);
+		}
+		return initialState;
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
-	public Collection<Object> transitionsOut(Object state) 
+	public Collection<Object> transitionsOut(Object state)
 	{
-		Map<L, Collection<Object>> operandTransitionsByLabel = new HashMap<L, Collection<Object>>();
 		DeterminizationState s = (DeterminizationState) state;
-		for (Entry<Object, K> e : s.remainderWeights.entrySet())
+		Buffers b = buffers.get();
+
+		// The outgoing transitions of the operand states are sorted by label number and then by position.
+
+		int n = 0;
+		for (int i = 0; i < s.ids.length; i++)
 		{
-			for (Object operandTransition : operand.transitionsOut(e.getKey()))
+			Object operandState = s.states[i];
+			for (Object operandTransition : operand.transitionsOut(operandState))
 			{
-				L label = operand.label(operandTransition);
-				Collection<Object> operandTransitions = operandTransitionsByLabel.get(label);
-				if (operandTransitions == null)
+				b.ensureArcs(n + 1);
+				b.arcTransitions[n] = operandTransition;
+				if (doubleWeights)
 				{
-					operandTransitions = new ArrayList<Object>();
-					operandTransitionsByLabel.put(label, operandTransitions);
+					DoubleSemifield sf = (DoubleSemifield) semiring();
+					b.arcDoubleWeights[n] = sf.multiplyDouble(s.doubleWeights[i], (Double) operand.transitionWeight(operandTransition));
 				}
-				operandTransitions.add(operandTransition);
+				else b.arcWeights[n] = semiring().multiply((K) s.weights[i], operand.transitionWeight(operandTransition));
+				b.arcKeys[n] = ((long) labelId(operand.label(operandTransition)) << 32) | n;
+				n++;
 			}
 		}
-		
+		Arrays.sort(b.arcKeys, 0, n);
+
 		// Transition weight is computed in advance and stored in the transition.
+
 		Collection<Object> transitionsOut = new ArrayList<Object>();
-		for (Entry<L, Collection<Object>> e : operandTransitionsByLabel.entrySet())
+		int start = 0;
+		while (start < n)
 		{
-			K transitionWeight = transitionWeight(state, e.getValue());			
-			DeterminizationState nextState = nextState(transitionWeight, s, e.getValue());
-			transitionsOut.add(new DeterminizationTransition(s, e.getKey(), transitionWeight, nextState));			
+			int end = start + 1;
+			while (end < n && (b.arcKeys[end] >>> 32) == (b.arcKeys[start] >>> 32)) end++;
+			transitionsOut.add(transition(s, b, start, end));
+			start = end;
 		}
+		Arrays.fill(b.arcTransitions, 0, n, null);
+		if (! doubleWeights) Arrays.fill(b.arcWeights, 0, n, null);
 		return transitionsOut;
 	}
-	
-	private DeterminizationState nextState(K transitionWeight, DeterminizationState previousState, Collection<Object> operandTransitions) 
+
+	/**
+	 * @return
+	 * the transition with the label of the sorted arcs from <code>start</code> to <code>end</code> in the buffers
+	 */
+
+	@SuppressWarnings("unchecked")
+	private DeterminizationTransition transition(DeterminizationState previousState, Buffers b, int start, int end)
 	{
-		HashMap<Object, K> remainderWeights = new HashMap<Object, K>();
-		Semifield<K> sf = (Semifield<K>) semiring();
-		for (Object operandTransition : operandTransitions)
+		L label = operand.label(b.arcTransitions[(int) b.arcKeys[start]]);
+		b.numEntries = 0;
+		if (doubleWeights)
 		{
-			Object nextOperandState = operand.to(operandTransition);
-			Object previousOperandState = operand.from(operandTransition);
-			
-			K toBeAdded = sf.multiply( 
-					sf.multiply(previousState.remainderWeights.get(previousOperandState), operand.transitionWeight(operandTransition)),
-					sf.inverse(transitionWeight));
-					
-			K remainderWeight = remainderWeights.get(nextOperandState);
-			if (remainderWeight == null)
+			DoubleSemifield sf = (DoubleSemifield) semiring();
+			double weight = sf.zeroDouble();
+			for (int k = start; k < end; k++) weight = sf.addDouble(weight, b.arcDoubleWeights[(int) b.arcKeys[k]]);
+			double inverse = sf.inverseDouble(weight);
+			for (int k = start; k < end; k++)
 			{
-				remainderWeights.put(nextOperandState, toBeAdded);
+				int a = (int) b.arcKeys[k];
+				Object nextOperandState = operand.to(b.arcTransitions[a]);
+				b.addEntry(operandStateId(nextOperandState), nextOperandState, sf.multiplyDouble(b.arcDoubleWeights[a], inverse), null);
 			}
-			else
+			return new DeterminizationTransition(previousState, label, (K) (Double) weight, subset(b, true));
+		}
+		Semifield<K> sf = (Semifield<K>) semiring();
+		K weight = sf.zero();
+		for (int k = start; k < end; k++) weight = sf.add(weight, (K) b.arcWeights[(int) b.arcKeys[k]]);
+		K inverse = sf.inverse(weight);
+		for (int k = start; k < end; k++)
+		{
+			int a = (int) b.arcKeys[k];
+			Object nextOperandState = operand.to(b.arcTransitions[a]);
+			b.addEntry(operandStateId(nextOperandState), nextOperandState, 0.0, sf.multiply((K) b.arcWeights[a], inverse));
+		}
+		return new DeterminizationTransition(previousState, label, weight, subset(b, true));
+	}
+
+	/**
+	 * Sorts the entries in the buffers by operand state number and returns the interned subset.
+	 * The weights of entries with the same operand state are added if <code>add</code> is true,
+	 * otherwise the first entry is kept.
+	 */
+
+	@SuppressWarnings("unchecked")
+	private DeterminizationState subset(Buffers b, boolean add)
+	{
+		int n = b.numEntries;
+		Arrays.sort(b.entryKeys, 0, n);
+		int size = 0;
+		for (int k = 0; k < n; k++)
+			if (k == 0 || (b.entryKeys[k] >>> 32) != (b.entryKeys[k - 1] >>> 32)) size++;
+		int[] ids = new int[size];
+		Object[] states = new Object[size];
+		double[] dw = doubleWeights ? new double[size] : null;
+		Object[] ow = doubleWeights ? null : new Object[size];
+		int i = -1;
+		for (int k = 0; k < n; k++)
+		{
+			int e = (int) b.entryKeys[k];
+			int id = (int) (b.entryKeys[k] >>> 32);
+			if (i >= 0 && ids[i] == id)
 			{
-				remainderWeights.put(nextOperandState, sf.add(remainderWeight, toBeAdded));
-			}			
+				if (! add) continue;
+				if (doubleWeights) dw[i] = ((DoubleSemifield) semiring()).addDouble(dw[i], b.entryDoubleWeights[e]);
+				else ow[i] = semiring().add((K) ow[i], (K) b.entryWeights[e]);
+				continue;
+			}
+			i++;
+			ids[i] = id;
+			states[i] = b.entryStates[e];
+			if (doubleWeights) dw[i] = b.entryDoubleWeights[e];
+			else ow[i] = b.entryWeights[e];
 		}
-		return new DeterminizationState(remainderWeights);
+		Arrays.fill(b.entryStates, 0, n, null);
+		if (! doubleWeights) Arrays.fill(b.entryWeights, 0, n, null);
+		b.numEntries = 0;
+		if (delta > 0.0) quantize(dw);
+
+		DeterminizationState subset = new DeterminizationState(ids, states, dw, ow);
+		DeterminizationState interned = subsets.get(subset);
+		if (interned != null) return interned;
+		interned = subsets.putIfAbsent(subset, subset);
+		return interned == null ? subset : interned;
 	}
 
-	private K transitionWeight(Object previousState, Collection<Object> operandTransitions)
+	/**
+	 * Rounds the specified remainder weights to multiples of <code>delta</code> and records the largest error.
+	 */
+
+	private void quantize(double[] weights)
 	{
-		Semiring<K> sr = semiring();
-		DeterminizationState ps = (DeterminizationState) previousState;
-		K weight = sr.zero();
-		for (Object operandTransition : operandTransitions)
+		double zero = ((DoubleSemifield) semiring()).zeroDouble();
+		double error = 0.0;
+		for (int i = 0; i < weights.length; i++)
 		{
-			weight = sr.add(weight, sr.multiply(ps.remainderWeights.get(operand.from(operandTransition)), operand.transitionWeight(operandTransition)));
+			double w = weights[i];
+			if (Double.isInfinite(w) || Double.isNaN(w)) continue;
+			double q = Math.round(w / delta) * delta;
+			if (q == zero && w != zero) continue;
+			error = Math.max(error, Math.abs(q - w));
+			weights[i] = q;
 		}
-		return weight;
+		if (error > maxWeightError) updateMaxWeightError(error);
+	}
+
+	private synchronized void updateMaxWeightError(double error)
+	{
+		if (error > maxWeightError) maxWeightError = error;
+	}
+
+	/**
+	 * @return
+	 * the largest difference between a remainder weight and its rounded value so far,
+	 * which is <code>0</code> for an exact determinization
+	 */
+
+	public double maxWeightError()
+	{
+		return maxWeightError;
+	}
+
+	private int operandStateId(Object operandState)
+	{
+		Integer id = operandStateIds.get(operandState);
+		if (id == null)
+		{
+			Integer newId = numOperandStates.getAndIncrement();
+			id = operandStateIds.putIfAbsent(operandState, newId);
+			if (id == null) id = newId;
+		}
+		return id;
+	}
+
+	private int labelId(Object label)
+	{
+		if (label == null) label = NULL_LABEL;
+		Integer id = labelIds.get(label);
+		if (id == null)
+		{
+			Integer newId = numLabels.getAndIncrement();
+			id = labelIds.putIfAbsent(label, newId);
+			if (id == null) id = newId;
+		}
+		return id;
+	}
+
+	/**
+	 * @return
+	 * the number of subsets that have been created
+	 */
+
+	public int numSubsets()
+	{
+		return subsets.size();
 	}
-		
-	public K initialWeight(Object state) 
-	{		
-		return getInitialState().equals(state) ? semiring().one() : semiring().zero();
+
+	public K initialWeight(Object state)
+	{
+		DeterminizationState initialState = getInitialState();
+		return initialState == state || initialState.equals(state) ? semiring().one() : semiring().zero();
 	}
 
-	public K finalWeight(Object state) 
+	@SuppressWarnings("unchecked")
+	public K finalWeight(Object state)
 	{
+		DeterminizationState s = (DeterminizationState) state;
+		if (doubleWeights)
+		{
+			DoubleSemifield sf = (DoubleSemifield) semiring();
+			double finalWeight = sf.zeroDouble();
+			for (int i = 0; i < s.ids.length; i++)
+				finalWeight = sf.addDouble(finalWeight, sf.multiplyDouble(s.doubleWeights[i], (Double) operand.finalWeight(s.states[i])));
+			return (K) (Double) finalWeight;
+		}
 		Semiring<K> sr = semiring();
 		K finalWeight = sr.zero();
-		DeterminizationState s = (DeterminizationState) state;
-		for (Entry<Object, K> e : s.remainderWeights.entrySet())
-			finalWeight = sr.add(finalWeight, sr.multiply(e.getValue(), operand.finalWeight(e.getKey())));
+		for (int i = 0; i < s.ids.length; i++)
+			finalWeight = sr.add(finalWeight, sr.multiply((K) s.weights[i], operand.finalWeight(s.states[i])));
 		return finalWeight;
 	}
 
-	public Object from(Object transition) 
+	public Object from(Object transition)
 	{
 		return ((DeterminizationTransition) transition).previousState;
 	}
 
-	public Object to(Object transition) 
-	{	
+	public Object to(Object transition)
+	{
 		// debug:
 		DeterminizationTransition t = (DeterminizationTransition) transition;
 		if (t.nextState == null) throw new RuntimeException();
 		return t.nextState;
 	}
 
-	public L label(Object transition) 
-	{		
+	public L label(Object transition)
+	{
 		return ((DeterminizationTransition) transition).label;
 	}
 
-	public K transitionWeight(Object transition) 
-	{		
+	public K transitionWeight(Object transition)
+	{
 		return ((DeterminizationTransition) transition).weight;
 	}
 
 	@Override
-	public Comparator<Object> topologicalOrder() 
+	public Comparator<Object> topologicalOrder()
 	{
 		final Comparator<Object> operandTopologicalOrder = operand.topologicalOrder();
 		return operandTopologicalOrder == null ? null : new Comparator<Object>()
 		{
-			public int compare(Object o1, Object o2) 
+			public int compare(Object o1, Object o2)
 			{
 				DeterminizationState s1 = (DeterminizationState) o1;
 				DeterminizationState s2 = (DeterminizationState) o2;
 				if (s1.equals(s2)) return 0;
-				else if (prec(s1.remainderWeights.keySet(), s2.remainderWeights.keySet())) return -1;
-				else if (prec(s2.remainderWeights.keySet(), s1.remainderWeights.keySet())) return 1;
+				else if (prec(s1.states, s2.states)) return -1;
+				else if (prec(s2.states, s1.states)) return 1;
 				else return 0;
 			}
-			
-			private boolean prec(Set<Object> states1, Set<Object> states2)
+
+			private boolean prec(Object[] states1, Object[] states2)
 			{
 				for (Object state2 : states2)
 				{
@@ -199,58 +414,163 @@ public class Determinization<L, K> extends UnaryOperation<L, L, K, K>
 			}
 		};
 	}
-	
-	public class DeterminizationState 
+
+	/**
+	 * Reusable buffers of a thread for the outgoing transitions of the operand states of a subset (arcs)
+	 * and for the operand states and weights of a new subset (entries).
+	 * The sort keys contain a label number or operand state number in the high bits and a position in the low bits.
+	 */
+
+	static class Buffers
 	{
-		Map<Object, K> remainderWeights;
-		
-		public DeterminizationState(Map<Object, K> remainderWeights) 
+		long[] arcKeys = new long[16];
+		Object[] arcTransitions = new Object[16];
+		double[] arcDoubleWeights = new double[16];
+		Object[] arcWeights = new Object[16];
+
+		long[] entryKeys = new long[16];
+		Object[] entryStates = new Object[16];
+		double[] entryDoubleWeights = new double[16];
+		Object[] entryWeights = new Object[16];
+		int numEntries;
+
+		void ensureArcs(int capacity)
+		{
+			if (capacity <= arcKeys.length) return;
+			int length = Math.max(capacity, 2 * arcKeys.length);
+			arcKeys = Arrays.copyOf(arcKeys, length);
+			arcTransitions = Arrays.copyOf(arcTransitions, length);
+			arcDoubleWeights = Arrays.copyOf(arcDoubleWeights, length);
+			arcWeights = Arrays.copyOf(arcWeights, length);
+		}
+
+		void addEntry(int id, Object state, double doubleWeight, Object weight)
+		{
+			int e = numEntries++;
+			if (e == entryKeys.length)
+			{
+				entryKeys = Arrays.copyOf(entryKeys, 2 * e);
+				entryStates = Arrays.copyOf(entryStates, 2 * e);
+				entryDoubleWeights = Arrays.copyOf(entryDoubleWeights, 2 * e);
+				entryWeights = Arrays.copyOf(entryWeights, 2 * e);
+			}
+			entryKeys[e] = ((long) id << 32) | e;
+			entryStates[e] = state;
+			entryDoubleWeights[e] = doubleWeight;
+			entryWeights[e] = weight;
+		}
+	}
+
+	public class DeterminizationState
+	{
+		int[] ids;
+		Object[] states;
+		double[] doubleWeights;
+		Object[] weights;
+		private int hashCode;
+
+		DeterminizationState(int[] ids, Object[] states, double[] doubleWeights, Object[] weights)
+		{
+			this.ids = ids;
+			this.states = states;
+			this.doubleWeights = doubleWeights;
+			this.weights = weights;
+			int h = 0;
+			for (int i = 0; i < ids.length; i++)
+			{
+				int w = doubleWeights != null ? Double.hashCode(doubleWeights[i]) : weights[i].hashCode();
+				h = Hashing.mix(h, ids[i], w);
+			}
+			hashCode = h;
+		}
+
+		/**
+		 * @return
+		 * the number of operand states in this subset
+		 */
+
+		public int size()
 		{
-			this.remainderWeights = remainderWeights;
+			return ids.length;
 		}
-		
+
+		/**
+		 * @return
+		 * the operand state at the specified position in this subset
+		 */
+
+		public Object operandState(int i)
+		{
+			return states[i];
+		}
+
+		/**
+		 * @return
+		 * the remainder weight of the operand state at the specified position in this subset
+		 */
+
+		@SuppressWarnings("unchecked")
+		public K remainderWeight(int i)
+		{
+			return doubleWeights != null ? (K) (Double) doubleWeights[i] : (K) weights[i];
+		}
+
+		/**
+		 * @return
+		 * a new map of the remainder weights of the operand states in this subset
+		 */
+
+		public Map<Object, K> remainderWeights()
+		{
+			Map<Object, K> remainderWeights = new LinkedHashMap<Object, K>();
+			for (int i = 0; i < ids.length; i++) remainderWeights.put(states[i], remainderWeight(i));
+			return remainderWeights;
+		}
+
 		@SuppressWarnings("rawtypes")
 		@Override
-		public boolean equals(Object obj) 
+		public boolean equals(Object obj)
 		{
-			if (obj instanceof Determinization.DeterminizationState) 
+			if (this == obj) return true;
+			if (obj instanceof Determinization.DeterminizationState)
 			{
-				DeterminizationState other = (DeterminizationState) obj; 
-				return remainderWeights.equals(other.remainderWeights); 
+				DeterminizationState other = (DeterminizationState) obj;
+				return hashCode == other.hashCode && Arrays.equals(ids, other.ids)
+						&& (doubleWeights != null ? Arrays.equals(doubleWeights, other.doubleWeights) : Arrays.equals(weights, other.weights));
 			}
 			else return false;
 		}
-		
+
 		@Override
-		public int hashCode() 
+		public int hashCode()
 		{
-			return remainderWeights.hashCode();
+			return hashCode;
 		}
-		
+
 		@Override
-		public String toString() 
-		{		
-			return "DeterminizationState(" + remainderWeights + ")";
+		public String toString()
+		{
+			return "DeterminizationState(" + remainderWeights() + ")";
 		}
 	}
-	
-	public class DeterminizationTransition 
+
+	public class DeterminizationTransition
 	{
 		DeterminizationState previousState;
 		L label;
 		K weight;
 		DeterminizationState nextState;
-			
-		public DeterminizationTransition(DeterminizationState previousState, L label, K weight, DeterminizationState nextState) 
+
+		public DeterminizationTransition(DeterminizationState previousState, L label, K weight, DeterminizationState nextState)
 		{
 			this.previousState = previousState;
 			this.label = label;
 			this.weight = weight;
 			this.nextState = nextState;
 		}
-		
+
 		@Override
-		public boolean equals(Object obj) 
+		public boolean equals(Object obj)
 		{
 			if (obj instanceof Determinization.DeterminizationTransition)
 			{
@@ -263,21 +583,21 @@ public class Determinization<L, K> extends UnaryOperation<L, L, K, K>
 			}
 			else return false;
 		}
-		
+
 		private boolean labelEquals(L label1, L label2)
 		{
 			return label1 == null && label2 == null || label1 != null && label2 != null && label1.equals(label2);
 		}
-		
+
 		@Override
-		public int hashCode() 
-		{		
+		public int hashCode()
+		{
 			return previousState.hashCode() + nextState.hashCode() + weight.hashCode() + (label == null ? 0 : label.hashCode());
 		}
-		
+
 		@Override
-		public String toString() 
-		{		
+		public String toString()
+		{
 			return this.getClass().getSimpleName() + "(" + previousState + ", " + label + ", " + weight + " " + nextState + ")";
 		}
 	}
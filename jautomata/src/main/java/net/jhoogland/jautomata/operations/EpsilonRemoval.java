@@ -3,12 +3,14 @@ package net.jhoogland.jautomata.operations;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.DoubleStateMap;
 import net.jhoogland.jautomata.SingleSourceShortestDistancesInterface;
+import net.jhoogland.jautomata.semirings.DoubleSemiring;
 import net.jhoogland.jautomata.semirings.Semiring;
 
 /**
@@ -17,6 +19,12 @@ import net.jhoogland.jautomata.semirings.Semiring;
  * The result of determinization is an automaton without null-transitions that is equivalent to its operand.
  * </p>   
  * <p>
+ * The properties of the states are stored in concurrent hash tables, so the automaton can be expanded by several threads
+ * (see {@link Compilation}).
+ * The outgoing transitions of a state are stored after its final weight and transition weights,
+ * so a state whose outgoing transitions are found is complete.
+ * </p>
+ * <p>
  * [1] M. Mohri, Generic Epsilon-Removal Algorithm for Weighted Automata. 2000.
  * </p>
  * 
@@ -36,14 +44,16 @@ public class EpsilonRemoval<L, K> extends UnaryOperation<L, L, K, K>
 	Map<Object, Collection<Object>> transitionsOut;
 	Map<EpsilonRemovalTransition, K> transitionsWeights;
 	SingleSourceShortestDistancesInterface<K> shortestDistanceAlgorithm;
+	EpsilonAutomaton epsilonAutomaton;
 	
 	public EpsilonRemoval(Automaton<L, K> operand, SingleSourceShortestDistancesInterface<K> shortestDistanceAlgorithm) 
 	{
 		super(operand, operand.semiring());
-		finalWeights = new HashMap<Object, K>();
-		transitionsOut = new HashMap<Object, Collection<Object>>();
-		transitionsWeights = new HashMap<EpsilonRemovalTransition, K>();
+		finalWeights = new ConcurrentHashMap<Object, K>();
+		transitionsOut = new ConcurrentHashMap<Object, Collection<Object>>();
+		transitionsWeights = new ConcurrentHashMap<EpsilonRemovalTransition, K>();
 		this.shortestDistanceAlgorithm = shortestDistanceAlgorithm;
+		epsilonAutomaton = new EpsilonAutomaton(operand);
 	}
 	
 	public Collection<Object> transitionsOut(Object state) 
@@ -67,9 +77,12 @@ public class EpsilonRemoval<L, K> extends UnaryOperation<L, L, K, K>
 	
 	void computeProperties(Object state)
 	{
-		EpsilonAutomaton epsilonAutomaton = new EpsilonAutomaton(operand);		
-		
 		Map<Object, K> shortestDistances = shortestDistanceAlgorithm.computeShortestDistances(epsilonAutomaton, state); 								
+		if (shortestDistances instanceof DoubleStateMap && semiring() instanceof DoubleSemiring)
+		{
+			computeDoubleProperties(state, (DoubleStateMap) shortestDistances);
+			return;
+		}
 		
 		Semiring<K> sr = semiring();
 		K finalWeight = sr.zero();
@@ -87,8 +100,32 @@ public class EpsilonRemoval<L, K> extends UnaryOperation<L, L, K, K>
 			}
 		}
 		
-		this.transitionsOut.put(state, transitionsOut);
 		this.finalWeights.put(state, finalWeight);
+		this.transitionsOut.put(state, transitionsOut);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void computeDoubleProperties(Object state, DoubleStateMap shortestDistances)
+	{
+		DoubleSemiring sr = (DoubleSemiring) semiring();
+		double finalWeight = sr.zeroDouble();
+		Collection<Object> transitionsOut = new ArrayList<Object>();
+		for (int i = 0; i < shortestDistances.numIndices(); i++) if (shortestDistances.containsIndex(i))
+		{
+			Object q = shortestDistances.state(i);
+			double d = shortestDistances.valueAt(i);
+			
+			finalWeight = sr.addDouble(finalWeight, sr.multiplyDouble(d, (Double) operand.finalWeight(q)));
+			for (Object t : operand.transitionsOut(q)) if (operand.label(t) != null)
+			{
+				EpsilonRemovalTransition transition = new EpsilonRemovalTransition(t, state);
+				transitionsOut.add(transition);
+				transitionsWeights.put(transition, (K) (Double) sr.multiplyDouble(d, (Double) operand.transitionWeight(t)));
+			}
+		}
+		
+		this.finalWeights.put(state, (K) (Double) finalWeight);
+		this.transitionsOut.put(state, transitionsOut);
 	}
 
 	public K initialWeight(Object state) 
@@ -1,14 +1,19 @@
 package net.jhoogland.jautomata.operations;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import net.jhoogland.jautomata.AbstractAutomaton;
 import net.jhoogland.jautomata.Automaton;
 import net.jhoogland.jautomata.ExtendedAutomaton;
+import net.jhoogland.jautomata.Hashing;
 
 /**
  * 
@@ -16,6 +21,26 @@ import net.jhoogland.jautomata.ExtendedAutomaton;
  * Acceptor intersection and transducer composition are special cases of generic intersection.
  * They are implemented by {@link AcceptorIntersection} and TransducerComposition, 
  * both of which are subclasses of {@link Intersection}.
+ * By default, <code>from</code> and <code>to</code> create new states that are equal to the states created before,
+ * and the intersection keeps no table of states.
+ * If the intersection is created with <code>internStates</code>, the states are interned: every state is created once, 
+ * in a hash table that is keyed by the numbers of its operand states and its filter state,
+ * and <code>from</code> and <code>to</code> return the interned instances.
+ * The table is divided into segments with separate locks, so threads that expand different states rarely wait for each other.
+ * The interned states are kept until they are released by <code>clearInternedStates()</code>, 
+ * so the memory of the intersection grows with the number of states that have been visited.
+ * Interning is meant for a search that visits states many times, after which the table is cleared.
+ * The transitions of the first operand are grouped by label in a buffer that every thread keeps for itself and reuses.
+ * <p>
+ * If the intersection is created with a {@link BeamPruner}, the outgoing transitions of every state are pruned, 
+ * so states that are far from the best paths found so far are never created, and the result is an approximation.
+ * Because the beam changes while the intersection is traversed, the pruned outgoing transitions of every state
+ * are computed once and remembered, so that every expansion of a state yields the same transitions.
+ * The remembered transitions, and the forward weights that are recorded by the pruner, are kept for the lifetime
+ * of the intersection, so its memory grows with the number of states that are created,
+ * which is at most the beam width per depth if a beam width is specified.
+ * They are released by <code>clearExpandedStates()</code>.
+ * </p>
  * 
  * @author Jasper Hoogland
  *
@@ -38,13 +63,39 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 	Automaton<L1, K> operand1;
 	Automaton<L2, K> operand2;
 	private int extensionType;
+	private StateTable states;
+	private BeamPruner<?> pruner;
+	private Map<Object, Collection<Object>> prunedTransitionsOut;
 		
 	public Intersection(Automaton<L1, K> operand1, Automaton<L2, K> operand2) 
+	{
+		this(operand1, operand2, null, false);
+	}
+	
+	/**
+	 * Creates an intersection of which the outgoing transitions are pruned by the specified pruner,
+	 * or an intersection without pruning if the pruner is <code>null</code>.
+	 */
+	
+	protected Intersection(Automaton<L1, K> operand1, Automaton<L2, K> operand2, BeamPruner<?> pruner) 
+	{
+		this(operand1, operand2, pruner, false);
+	}
+	
+	/**
+	 * Creates an intersection that is pruned by the specified pruner if it is not <code>null</code>,
+	 * and of which the states are interned if <code>internStates</code> is true.
+	 */
+	
+	protected Intersection(Automaton<L1, K> operand1, Automaton<L2, K> operand2, BeamPruner<?> pruner, boolean internStates) 
 	{
 		super(operand1.semiring());
 		this.operand1 = operand1;
 		this.operand2 = operand2;
 		this.extensionType = extensionType();
+		if (internStates) this.states = new StateTable();
+		this.pruner = pruner;
+		if (pruner != null) this.prunedTransitionsOut = new ConcurrentHashMap<Object, Collection<Object>>();
 	}
 	
 	public Collection<Object> initialStates() 
@@ -54,54 +105,84 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 		{
 			for (Object initialState2 : operand2.initialStates())
 			{
-				initialStates.add(new IntersectionState(initialState1, initialState2, 0));
+				initialStates.add(state(initialState1, initialState2, 0));
 			}
 		}
 		return initialStates;
 	}
 
 	public Collection<Object> transitionsOut(Object state) 
+	{
+		if (pruner == null) return productTransitionsOut(state);
+		Collection<Object> transitionsOut = prunedTransitionsOut.get(state);
+		if (transitionsOut != null) return transitionsOut;
+		Collection<Object> candidates = productTransitionsOut(state);
+		synchronized (pruner)
+		{
+			transitionsOut = prunedTransitionsOut.get(state);
+			if (transitionsOut == null)
+			{
+				transitionsOut = Collections.unmodifiableCollection(prune(state, candidates));
+				prunedTransitionsOut.put(state, transitionsOut);
+			}
+		}
+		return transitionsOut;
+	}
+	
+	/**
+	 * The weight type of the pruner is the weight type of this intersection, 
+	 * which is not declared as {@link Comparable} here.
+	 */
+	
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private Collection<Object> prune(Object state, Collection<Object> transitionsOut)
+	{
+		return ((BeamPruner) pruner).prune(this, state, transitionsOut);
+	}
+	
+	private Collection<Object> productTransitionsOut(Object state) 
 	{
 		IntersectionState s = (IntersectionState) state;
+		boolean aIs1 = aIs1(s);
+		Collection<Object> transitions1 = ! aIs1 || ! ext1() ? operand1.transitionsOut(s.operandState1) : null;
+		Collection<Object> transitions2 = aIs1 || ! ext2() ? operand2.transitionsOut(s.operandState2) : null;
 		Collection<Object> transitionsOut = new ArrayList<Object>();
-		Map<Object, Collection<Object>> transitionsAByLabel = new HashMap<Object, Collection<Object>>();
-		if (extensionType == NONE) for (Object transition1 : operand1.transitionsOut(s.operandState1))
+		if (extensionType == NONE)
 		{
-			L1 label = operand1.label(transition1);
-			Object labelValue = intersectionLabel1(label);
-			if (labelValue != null || s.filterState == 0)
+			Grouping grouping = Grouping.acquire();
+			try
 			{
-				Collection<Object> ts = transitionsAByLabel.get(labelValue);
-				if (ts == null)
+				for (Object transition1 : transitions1)
 				{
-					ts = new ArrayList<Object>();
-					transitionsAByLabel.put(labelValue, ts);
+					Object labelValue = intersectionLabel1(operand1.label(transition1));
+					if (labelValue != null || s.filterState == 0) grouping.add(labelValue, transition1);
+				}
+				for (Object transition2 : transitions2)
+				{
+					Object labelValue = intersectionLabel2(operand2.label(transition2));
+					if (labelValue != null || s.filterState == 0)
+						for (int i = grouping.first(labelValue); i >= 0; i = grouping.next[i])
+							transitionsOut.add(new IntersectionTransition(s, grouping.items[i], transition2, null, null));
 				}
-				ts.add(transition1);
+			}
+			finally
+			{
+				Grouping.release(grouping);
 			}
 		}
-		for (Object transitionB : aIs1() ? operand2.transitionsOut(s.operandState2) : operand1.transitionsOut(s.operandState1))
+		else for (Object transitionB : aIs1 ? transitions2 : transitions1)
 		{
-			Object transition1 = aIs1() ? null : transitionB;
-			Object transition2 = aIs1() ? transitionB : null;
-			
-//			L2 label = operand2.label(transitionB);
-			Object labelValue = aIs1() ? 
-					intersectionLabel2(operand2.label(transition2)) :
-					intersectionLabel1(operand1.label(transition1));
+			Object labelValue = aIs1 ? 
+					intersectionLabel2(operand2.label(transitionB)) :
+					intersectionLabel1(operand1.label(transitionB));
 					
 			if (labelValue != null || s.filterState == 0)
 			{
-				Collection<Object> transitionsA = null;
-				if (extensionType == NONE) transitionsA = transitionsAByLabel.get(labelValue);
-				else if (aIs1()) transitionsA = transitionsOut1(s.operandState1, labelValue);
-				else transitionsA = transitionsOut2(s.operandState2, labelValue);
-						
+				Collection<Object> transitionsA = aIs1 ? transitionsOut1(s.operandState1, labelValue) : transitionsOut2(s.operandState2, labelValue);
 				if (transitionsA != null) for (Object transitionA : transitionsA)
 				{
-					if (aIs1()) transition1 = transitionA;
-					else transition2 = transitionA;
-					transitionsOut.add(new IntersectionTransition(transition1, transition2, null, null, s.filterState));
+					if (aIs1) transitionsOut.add(new IntersectionTransition(s, transitionA, transitionB, null, null));
+					else transitionsOut.add(new IntersectionTransition(s, transitionB, transitionA, null, null));
 				}				
 			}
 		}
@@ -109,21 +190,21 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 		{
 			if (ext1())
 				for (Object transition1 : transitionsOut1(s.operandState1, null))
-					transitionsOut.add(new IntersectionTransition(transition1, null, null, s.operandState2, s.filterState));
+					transitionsOut.add(new IntersectionTransition(s, transition1, null, null, s.operandState2));
 			else
-				for (Object transition1 : operand1.transitionsOut(s.operandState1))
+				for (Object transition1 : transitions1)
 					if (intersectionLabel1(operand1.label(transition1)) == null)
-						transitionsOut.add(new IntersectionTransition(transition1, null, null, s.operandState2, s.filterState));
+						transitionsOut.add(new IntersectionTransition(s, transition1, null, null, s.operandState2));
 		}
 		if (s.filterState == 0 || s.filterState == 2) 
 		{
 			if (ext2())
 				for (Object transition2 : transitionsOut2(s.operandState2, null))
-			transitionsOut.add(new IntersectionTransition(null, transition2, s.operandState1, null, s.filterState));				
+					transitionsOut.add(new IntersectionTransition(s, null, transition2, s.operandState1, null));				
 			else 
-				for (Object transition2 : operand2.transitionsOut(s.operandState2))
+				for (Object transition2 : transitions2)
 					if (intersectionLabel2(operand2.label(transition2)) == null)
-						transitionsOut.add(new IntersectionTransition(null, transition2, s.operandState1, null, s.filterState));
+						transitionsOut.add(new IntersectionTransition(s, null, transition2, s.operandState1, null));
 		}
 		return transitionsOut;
 	}
@@ -176,8 +257,18 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 	protected static final int BOTH1 = 3;
 	protected static final int BOTH2 = 4;
 	
-	private boolean aIs1()
+	/**
+	 * @return
+	 * true if the transitions of the first operand are looked up by label for every transition of the second operand,
+	 * and false if it is the other way around.
+	 * If both operands support lookup by label and are instances of {@link ExtendedAutomaton},
+	 * the transitions of the operand state with the fewest transitions are enumerated.
+	 */
+	
+	private boolean aIs1(IntersectionState s)
 	{
+		if (extensionType >= BOTH1 && operand1 instanceof ExtendedAutomaton && operand2 instanceof ExtendedAutomaton)
+			return ((ExtendedAutomaton<L2, K>) operand2).maxNumTransitions(s.operandState2) <= ((ExtendedAutomaton<L1, K>) operand1).maxNumTransitions(s.operandState1);
 		return ! (extensionType == EXT2 || extensionType == BOTH2);
 	}
 	
@@ -225,18 +316,74 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 	public Object from(Object transition) 
 	{		
 		IntersectionTransition t = (IntersectionTransition) transition;
+		if (t.fromState != null) return t.fromState;
 		Object previousState1 = t.operandTransition1 == null ? t.operandState1 : operand1.from(t.operandTransition1);
 		Object previousState2 = t.operandTransition2 == null ? t.operandState2 : operand2.from(t.operandTransition2);
-		return new IntersectionState(previousState1, previousState2, t.fromFilterState);
+		return t.fromState = state(previousState1, previousState2, t.fromFilterState);
 	}
 
 	public Object to(Object transition)
 	{
 		IntersectionTransition t = (IntersectionTransition) transition;
+		if (t.toState != null) return t.toState;
 		Object nextState1 = t.operandTransition1 == null ? t.operandState1 : operand1.to(t.operandTransition1);
 		Object nextState2 = t.operandTransition2 == null ? t.operandState2 : operand2.to(t.operandTransition2);
 		int filterState = t.operandTransition1 == null ? 2 : (t.operandTransition2 == null ? 1 : 0);
-		return new IntersectionState(nextState1, nextState2, filterState);
+		return t.toState = state(nextState1, nextState2, filterState);
+	}
+	
+	/**
+	 * @return
+	 * the interned state with the specified operand states and filter state,
+	 * or a new state if the states of this intersection are not interned
+	 */
+	
+	private IntersectionState state(Object operandState1, Object operandState2, int filterState)
+	{
+		return states == null ? new IntersectionState(operandState1, operandState2, filterState) : states.intern(operandState1, operandState2, filterState);
+	}
+	
+	/**
+	 * @return
+	 * the number of states of this intersection that are interned,
+	 * which is <code>0</code> if the states are not interned
+	 */
+	
+	public int numInternedStates()
+	{
+		return states == null ? 0 : states.size();
+	}
+	
+	/**
+	 * Releases the interned states.
+	 * States that are created afterwards are equal to the released states, but not the same instances.
+	 */
+	
+	public void clearInternedStates()
+	{
+		if (states != null) states.clear();
+	}
+	
+	/**
+	 * @return
+	 * the number of states of which the pruned outgoing transitions are remembered,
+	 * which is <code>0</code> if this intersection is not pruned
+	 */
+	
+	public int numExpandedStates()
+	{
+		return pruner == null ? 0 : prunedTransitionsOut.size();
+	}
+	
+	/**
+	 * Releases the remembered pruned transitions.
+	 * The beam may have changed since they were computed, so states that are expanded again may have other transitions,
+	 * and a traversal has to be started again after this method has been called.
+	 */
+	
+	public void clearExpandedStates()
+	{
+		if (pruner != null) prunedTransitionsOut.clear();
 	}
 
 	public L3 label(Object transition) 
@@ -299,6 +446,10 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 		public Object operandState2;
 		public int filterState;
 		
+		int id1;
+		int id2;
+		private int hashCode;
+		
 		public IntersectionState(Object operandState1, Object operandState2, int filterState)
 		{
 			this.operandState1 = operandState1;
@@ -308,11 +459,14 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 			// debug:
 			if (operandState1 == null) throw new RuntimeException();
 			if (operandState2 == null) throw new RuntimeException();
+			
+			hashCode = Hashing.mix(operandState1.hashCode(), operandState2.hashCode(), filterState);
 		}
 		
 		@Override
 		public boolean equals(Object obj) 
 		{		
+			if (obj == this) return true;
 			if (obj instanceof Intersection.IntersectionState)
 			{
 				IntersectionState other = (IntersectionState) obj; 
@@ -325,7 +479,7 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 		@Override
 		public int hashCode() 
 		{		
-			return 3 * (operandState1.hashCode() + operandState2.hashCode()) + filterState;
+			return hashCode;
 		}
 		
 		@Override
@@ -344,6 +498,9 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 		public Object operandState1;
 		public Object operandState2;
 		
+		IntersectionState fromState;
+		IntersectionState toState;
+		
 		public IntersectionTransition(Object operandTransition1, Object operandTransition2, Object operandState1, Object operandState2, int fromFilterState) 
 		{
 			this.operandTransition1 = operandTransition1;
@@ -353,6 +510,12 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 			this.fromFilterState = fromFilterState;
 		}
 		
+		IntersectionTransition(IntersectionState fromState, Object operandTransition1, Object operandTransition2, Object operandState1, Object operandState2) 
+		{
+			this(operandTransition1, operandTransition2, operandState1, operandState2, fromState.filterState);
+			this.fromState = fromState;
+		}
+		
 		@Override
 		public boolean equals(Object obj) 
 		{
@@ -394,4 +557,306 @@ public abstract class Intersection<L1, L2, L3, K> extends AbstractAutomaton<L3,
 		}
 	}
 
+	/**
+	 * Hash table in which the states of the intersection are interned.
+	 * A state is interned in one of <code>NUM_SEGMENTS</code> segments, which is selected by the hash codes
+	 * of its operand states and its filter state, and every segment has its own lock.
+	 */
+	
+	class StateTable
+	{
+		private static final int SEGMENT_BITS = 5;
+		private static final int NUM_SEGMENTS = 1 << SEGMENT_BITS;
+		
+		private List<Segment> segments;
+		
+		StateTable()
+		{
+			segments = new ArrayList<Segment>(NUM_SEGMENTS);
+			for (int i = 0; i < NUM_SEGMENTS; i++) segments.add(new Segment());
+		}
+		
+		IntersectionState intern(Object operandState1, Object operandState2, int filterState)
+		{
+			int h = Hashing.mix(operandState1.hashCode(), operandState2.hashCode(), filterState);
+			return segments.get(h >>> (32 - SEGMENT_BITS)).intern(operandState1, operandState2, filterState);
+		}
+		
+		int size()
+		{
+			int size = 0;
+			for (Segment segment : segments) size += segment.size();
+			return size;
+		}
+		
+		void clear()
+		{
+			for (Segment segment : segments) segment.clear();
+		}
+	}
+
+	/**
+	 * A segment of the table in which the states of the intersection are interned.
+	 * The operand states are numbered in two open addressing tables,
+	 * and the intersection states are stored in a third open addressing table 
+	 * that is keyed by the numbers of their operand states and their filter state.
+	 */
+
+	class Segment
+	{
+		private OperandTable operandStates1;
+		private OperandTable operandStates2;
+		private Object[] states;
+		private int size;
+		private int[] table;
+		
+		Segment()
+		{
+			clear();
+		}
+		
+		synchronized void clear()
+		{
+			operandStates1 = new OperandTable();
+			operandStates2 = new OperandTable();
+			states = new Object[16];
+			size = 0;
+			table = OperandTable.newTable(32);
+		}
+		
+		/**
+		 * The states are stored in an array of objects, because arrays of an inner class of a generic class cannot be created.
+		 */
+		
+		@SuppressWarnings("unchecked")
+		synchronized IntersectionState intern(Object operandState1, Object operandState2, int filterState)
+		{
+			int id1 = operandStates1.id(operandState1);
+			int id2 = operandStates2.id(operandState2);
+			int mask = table.length - 1;
+			int slot = Hashing.mix(id1, id2, filterState) & mask;
+			int p;
+			while ((p = table[slot]) >= 0)
+			{
+				IntersectionState state = (IntersectionState) states[p];
+				if (state.id1 == id1 && state.id2 == id2 && state.filterState == filterState) return state;
+				slot = (slot + 1) & mask;
+			}
+			IntersectionState created = new IntersectionState(operandStates1.keys[id1], operandStates2.keys[id2], filterState);
+			created.id1 = id1;
+			created.id2 = id2;
+			p = size++;
+			if (p == states.length) states = Arrays.copyOf(states, 2 * p);
+			states[p] = created;
+			table[slot] = p;
+			if (2 * size > table.length) 
+			{
+				table = OperandTable.newTable(2 * table.length);
+				mask = table.length - 1;
+				for (int q = 0; q < size; q++)
+				{
+					IntersectionState state = (IntersectionState) states[q];
+					slot = Hashing.mix(state.id1, state.id2, state.filterState) & mask;
+					while (table[slot] >= 0) slot = (slot + 1) & mask;
+					table[slot] = q;
+				}
+			}
+			return created;
+		}
+		
+		synchronized int size()
+		{
+			return size;
+		}
+	}
+	
+	/**
+	 * Open addressing table that numbers the states of an operand in the order in which they are added.
+	 */
+	
+	static class OperandTable
+	{
+		Object[] keys = new Object[16];
+		private int[] hashes = new int[16];
+		private int size;
+		private int[] table = newTable(32);
+		
+		int id(Object key)
+		{
+			int h = key.hashCode();
+			int mask = table.length - 1;
+			int slot = Hashing.mix(h) & mask;
+			int id;
+			while ((id = table[slot]) >= 0)
+			{
+				if (hashes[id] == h && (keys[id] == key || keys[id].equals(key))) return id;
+				slot = (slot + 1) & mask;
+			}
+			id = size++;
+			if (id == keys.length)
+			{
+				keys = Arrays.copyOf(keys, 2 * id);
+				hashes = Arrays.copyOf(hashes, 2 * id);
+			}
+			keys[id] = key;
+			hashes[id] = h;
+			table[slot] = id;
+			if (2 * size > table.length) 
+			{
+				table = newTable(2 * table.length);
+				mask = table.length - 1;
+				for (int i = 0; i < size; i++)
+				{
+					slot = Hashing.mix(hashes[i]) & mask;
+					while (table[slot] >= 0) slot = (slot + 1) & mask;
+					table[slot] = i;
+				}
+			}
+			return id;
+		}
+		
+		static int[] newTable(int capacity)
+		{
+			int[] table = new int[capacity];
+			Arrays.fill(table, -1);
+			return table;
+		}
+	}
+	
+	/**
+	 * Reusable buffer that groups the transitions of an operand state by intersection label.
+	 * The groups are linked lists of items that are found through an open addressing table.
+	 * Every thread keeps a stack of buffers, so intersections that are operands of intersections can use them as well.
+	 */
+	
+	static class Grouping
+	{
+		private static final Object NULL_LABEL = new Object();
+		private static final ThreadLocal<Grouping[]> STACKS = new ThreadLocal<Grouping[]>()
+		{
+			@Override
+			protected Grouping[] initialValue() 
+			{
+				return new Grouping[4];
+			}
+		};
+		
+		private Object[] keys = new Object[16];
+		private int[] heads = newHeads(16);
+		private int[] tails = new int[16];
+		private int[] usedSlots = new int[8];
+		private int numUsedSlots;
+		Object[] items = new Object[16];
+		int[] next = new int[16];
+		private int numItems;
+		private boolean inUse;
+		
+		static Grouping acquire()
+		{
+			Grouping[] stack = STACKS.get();
+			int depth = 0;
+			while (depth < stack.length && stack[depth] != null && stack[depth].inUse) depth++;
+			if (depth == stack.length) 
+			{
+				stack = Arrays.copyOf(stack, 2 * depth);
+				STACKS.set(stack);
+			}
+			if (stack[depth] == null) stack[depth] = new Grouping();
+			Grouping grouping = stack[depth];
+			grouping.inUse = true;
+			return grouping;
+		}
+		
+		static void release(Grouping grouping)
+		{
+			grouping.clear();
+			grouping.inUse = false;
+		}
+		
+		void add(Object label, Object item)
+		{
+			if (label == null) label = NULL_LABEL;
+			if (numItems == items.length)
+			{
+				items = Arrays.copyOf(items, 2 * numItems);
+				next = Arrays.copyOf(next, 2 * numItems);
+			}
+			int i = numItems++;
+			items[i] = item;
+			next[i] = -1;
+			int slot = slot(label);
+			if (heads[slot] < 0)
+			{
+				if (2 * (numUsedSlots + 1) > keys.length) 
+				{
+					grow();
+					slot = slot(label);
+				}
+				keys[slot] = label;
+				heads[slot] = i;
+				if (numUsedSlots == usedSlots.length) usedSlots = Arrays.copyOf(usedSlots, 2 * numUsedSlots);
+				usedSlots[numUsedSlots++] = slot;
+			}
+			else next[tails[slot]] = i;
+			tails[slot] = i;
+		}
+		
+		/**
+		 * @return
+		 * the first item with the specified label, or <code>-1</code> if there is none
+		 */
+		
+		int first(Object label)
+		{
+			return heads[slot(label == null ? NULL_LABEL : label)];
+		}
+		
+		private int slot(Object label)
+		{
+			int mask = keys.length - 1;
+			int slot = Hashing.mix(label.hashCode()) & mask;
+			while (heads[slot] >= 0 && ! keys[slot].equals(label)) slot = (slot + 1) & mask;
+			return slot;
+		}
+		
+		private void grow()
+		{
+			Object[] oldKeys = keys;
+			int[] oldHeads = heads;
+			int[] oldTails = tails;
+			int[] oldUsedSlots = Arrays.copyOf(usedSlots, numUsedSlots);
+			keys = new Object[2 * oldKeys.length];
+			heads = newHeads(keys.length);
+			tails = new int[keys.length];
+			for (int i = 0; i < oldUsedSlots.length; i++)
+			{
+				int oldSlot = oldUsedSlots[i];
+				int slot = slot(oldKeys[oldSlot]);
+				keys[slot] = oldKeys[oldSlot];
+				heads[slot] = oldHeads[oldSlot];
+				tails[slot] = oldTails[oldSlot];
+				usedSlots[i] = slot;
+			}
+		}
+		
+		private void clear()
+		{
+			for (int i = 0; i < numUsedSlots; i++)
+			{
+				keys[usedSlots[i]] = null;
+				heads[usedSlots[i]] = -1;
+				tails[usedSlots[i]] = -1;
+			}
+			numUsedSlots = 0;
+			Arrays.fill(items, 0, numItems, null);
+			numItems = 0;
+		}
+		
+		private static int[] newHeads(int capacity)
+		{
+			int[] heads = new int[capacity];
+			Arrays.fill(heads, -1);
+			return heads;
+		}
+	}
 }
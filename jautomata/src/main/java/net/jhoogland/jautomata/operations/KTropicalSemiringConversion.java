@@ -6,6 +6,7 @@ import java.util.List;
 
 import net.jhoogland.jautomata.Automaton;
 import net.jhoogland.jautomata.semirings.KTropicalSemiring;
+import net.jhoogland.jautomata.semirings.PathArena;
 import net.jhoogland.jautomata.semirings.PathWeight;
 
 /**
@@ -31,12 +32,15 @@ public class KTropicalSemiringConversion<K extends Comparable<K>, L> extends Sem
 	@Override
 	public List<PathWeight<K>> transitionWeight(Object transition) 
 	{
-		List<PathWeight<K>> weight = convertWeight(operand.transitionWeight(transition));
-		if(!weight.isEmpty())
+		K weight = operand.transitionWeight(transition);
+		PathArena arena = ((KTropicalSemiring<K>) semiring()).arena;
+		if (arena == null || operand.semiring().zero().equals(weight))
 		{
-			weight.get(0).transition = transition;
+			List<PathWeight<K>> converted = convertWeight(weight);
+			if (! converted.isEmpty()) converted.get(0).transition = transition;
+			return converted;
 		}
-		return weight;
+		return Arrays.asList(new PathWeight<K>(arena, arena.record(-1, transition), weight, operand.semiring()));
 	}
 	
 	@Override
@@ -44,6 +48,8 @@ public class KTropicalSemiringConversion<K extends Comparable<K>, L> extends Sem
 	{
 //		return Arrays.asList(new PathWeight<K>(null, weight, null));
 		if (operand.semiring().zero().equals(weight)) return Collections.emptyList();
+		PathArena arena = ((KTropicalSemiring<K>) semiring()).arena;
+		if (arena != null) return Arrays.asList(new PathWeight<K>(arena, -1, weight, operand.semiring()));
 		else return Arrays.asList(new PathWeight<K>(null, weight, null));
 	}
 }
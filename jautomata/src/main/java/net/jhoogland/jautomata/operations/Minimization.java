@@ -0,0 +1,394 @@
+package net.jhoogland.jautomata.operations;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.semirings.BooleanSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * <p>
+ * Minimization of deterministic weighted acceptors, as described in [1].
+ * The operand is compiled into a {@link CompactAutomaton} and trimmed, i.e. the states that are not on a path
+ * from an initial state to a final state are removed.
+ * Then the weights are pushed towards the initial state (see {@link Push}),
+ * and every pair of a label and a transition weight is encoded as a symbol,
+ * so the result is the minimal unweighted automaton over the symbols, with the final weights as initial partition.
+ * This automaton is computed with the partition refinement algorithm of Hopcroft for partial transition functions
+ * described in [2], which runs in O(m log n) time on arrays of state and transition numbers.
+ * Over the {@link BooleanSemiring}, the weights are not pushed.
+ * </p>
+ * <p>
+ * The weights are compared exactly, so pushed weights that differ by rounding errors are different symbols.
+ * The operand is required to have one initial state and no two outgoing transitions of a state with the same label,
+ * otherwise an exception is thrown.
+ * </p>
+ * <p>
+ * [1] M. Mohri, Minimization Algorithms for Sequential Transducers. 2000<br>
+ * [2] A. Valmari, P. Lehtinen, Efficient Minimization of DFAs with Partial Transition Functions. 2008
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class Minimization
+{
+	/**
+	 * @return
+	 * the minimal deterministic automaton that is equivalent to the specified deterministic automaton
+	 */
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public static <L, K> CompactAutomaton<L, K> minimize(Automaton<L, K> operand)
+	{
+		CompactAutomaton<L, K> a = trim(operand instanceof CompactAutomaton ? (CompactAutomaton<L, K>) operand : new CompactAutomaton<L, K>(operand));
+		if (a.numStates() > 0 && ! (a.semiring() instanceof BooleanSemiring))
+			a = new CompactAutomaton<L, K>(Operations.push(a));
+		Semiring<K> sr = a.semiring();
+		int n = a.numStates();
+		int m = a.numTransitions();
+
+		// The operand is required to be deterministic.
+
+		int initialState = -1;
+		int[] stamps = new int[a.numLabels() + 1];
+		Arrays.fill(stamps, -1);
+		for (int q = 0; q < n; q++)
+		{
+			if (! sr.zero().equals(a.initialWeight(q)))
+			{
+				if (initialState >= 0) throw new RuntimeException("The operand has more than one initial state.");
+				initialState = q;
+			}
+			for (int t = a.outStart(q); t < a.outEnd(q); t++)
+			{
+				int l = a.labelId(t) + 1;
+				if (stamps[l] == q) throw new RuntimeException("The operand is not deterministic.");
+				stamps[l] = q;
+			}
+		}
+
+		// Every pair of a label and a weight is a symbol, and every final weight is a class of the initial partition.
+
+		Map<Object, Integer>[] symbolsByLabel = new Map[a.numLabels() + 1];
+		int numSymbols = 0;
+		int[] symbols = new int[m];
+		int[] tails = new int[m];
+		int[] heads = new int[m];
+		for (int t = 0; t < m; t++)
+		{
+			int l = a.labelId(t) + 1;
+			if (symbolsByLabel[l] == null) symbolsByLabel[l] = new HashMap<Object, Integer>();
+			Object weight = key(a.transitionWeight(t));
+			Integer symbol = symbolsByLabel[l].get(weight);
+			if (symbol == null)
+			{
+				symbol = numSymbols++;
+				symbolsByLabel[l].put(weight, symbol);
+			}
+			symbols[t] = symbol;
+			tails[t] = a.fromState(t);
+			heads[t] = a.toState(t);
+		}
+		Map<Object, Integer> finalClasses = new HashMap<Object, Integer>();
+		int[] finalClass = new int[n];
+		for (int q = 0; q < n; q++)
+		{
+			Object finalWeight = key(a.finalWeight(q));
+			Integer c = finalClasses.get(finalWeight);
+			if (c == null)
+			{
+				c = finalClasses.size();
+				finalClasses.put(finalWeight, c);
+			}
+			finalClass[q] = c;
+		}
+
+		int[] blocks = refine(n, tails, heads, symbols, finalClass, finalClasses.size());
+
+		// The quotient automaton has a state for every block, numbered in the order of the first state of the block.
+		// The block of the initial state gets the initial weight, whichever state of the block comes first.
+
+		int[] blockIds = new int[n];
+		Arrays.fill(blockIds, -1);
+		int[] representatives = new int[n];
+		CompactAutomaton.Builder<L, K> builder = new CompactAutomaton.Builder<L, K>(sr);
+		for (int q = 0; q < n; q++)
+			if (blockIds[blocks[q]] < 0)
+			{
+				blockIds[blocks[q]] = builder.addState(initialState >= 0 && blocks[q] == blocks[initialState] ? a.initialWeight(initialState) : sr.zero(), a.finalWeight(q));
+				representatives[blocks[q]] = q;
+			}
+		for (int t = 0; t < m; t++)
+		{
+			int b = blocks[tails[t]];
+			if (representatives[b] != tails[t]) continue;
+			int l = a.labelId(t);
+			builder.addTransition(blockIds[b], blockIds[blocks[heads[t]]], l < 0 ? null : a.labelOf(l), a.transitionWeight(t));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * the specified weight as a key for a hash table, in which positive and negative zero are the same
+	 */
+
+	private static Object key(Object weight)
+	{
+		if (weight instanceof Double && (Double) weight == 0.0) return 0.0;
+		return weight;
+	}
+
+	/**
+	 * @return
+	 * the minimal deterministic automaton that accepts the same strings as the specified unweighted automaton,
+	 * which need not be deterministic (see {@link PowersetDeterminization})
+	 */
+
+	public static <L> CompactAutomaton<L, Boolean> minimizeUnweighted(Automaton<L, Boolean> operand)
+	{
+		return minimize(PowersetDeterminization.determinize(operand));
+	}
+
+	/**
+	 * @return
+	 * a {@link CompactAutomaton} with the states of the specified automaton that are on a path from an initial state
+	 * to a final state and the transitions between them that have a nonzero weight
+	 */
+
+	public static <L, K> CompactAutomaton<L, K> trim(CompactAutomaton<L, K> a)
+	{
+		Semiring<K> sr = a.semiring();
+		int n = a.numStates();
+		boolean[] accessible = new boolean[n];
+		boolean[] coaccessible = new boolean[n];
+		int[] stack = new int[Math.max(n, 1)];
+		int top = 0;
+		for (int q = 0; q < n; q++)
+			if (! sr.zero().equals(a.initialWeight(q)))
+			{
+				accessible[q] = true;
+				stack[top++] = q;
+			}
+		while (top > 0)
+		{
+			int q = stack[--top];
+			for (int t = a.outStart(q); t < a.outEnd(q); t++)
+			{
+				int next = a.toState(t);
+				if (! accessible[next] && ! sr.zero().equals(a.transitionWeight(t)))
+				{
+					accessible[next] = true;
+					stack[top++] = next;
+				}
+			}
+		}
+		for (int q = 0; q < n; q++)
+			if (accessible[q] && ! sr.zero().equals(a.finalWeight(q)))
+			{
+				coaccessible[q] = true;
+				stack[top++] = q;
+			}
+		while (top > 0)
+		{
+			int q = stack[--top];
+			for (int i = 0; i < a.numTransitionsIn(q); i++)
+			{
+				int t = a.transitionIn(q, i);
+				int previous = a.fromState(t);
+				if (accessible[previous] && ! coaccessible[previous] && ! sr.zero().equals(a.transitionWeight(t)))
+				{
+					coaccessible[previous] = true;
+					stack[top++] = previous;
+				}
+			}
+		}
+
+		int[] ids = new int[n];
+		CompactAutomaton.Builder<L, K> builder = new CompactAutomaton.Builder<L, K>(sr);
+		for (int q = 0; q < n; q++)
+			ids[q] = coaccessible[q] ? builder.addState(a.initialWeight(q), a.finalWeight(q)) : -1;
+		for (int q = 0; q < n; q++)
+			if (coaccessible[q])
+				for (int t = a.outStart(q); t < a.outEnd(q); t++)
+				{
+					int next = a.toState(t);
+					if (! coaccessible[next] || sr.zero().equals(a.transitionWeight(t))) continue;
+					int l = a.labelId(t);
+					builder.addTransition(ids[q], ids[next], l < 0 ? null : a.labelOf(l), a.transitionWeight(t));
+				}
+		return builder.build();
+	}
+
+	/**
+	 * Refines the initial partition of the specified classes into the coarsest partition that is compatible
+	 * with the transitions, which are specified by their tails, heads and symbols.
+	 *
+	 * @return
+	 * the block number of every state
+	 */
+
+	static int[] refine(int n, int[] tails, int[] heads, int[] symbols, int[] classes, int numClasses)
+	{
+		int m = tails.length;
+
+		// The incoming transitions of every state.
+
+		int[] inStart = new int[n + 1];
+		for (int t = 0; t < m; t++) inStart[heads[t] + 1]++;
+		for (int q = 0; q < n; q++) inStart[q + 1] += inStart[q];
+		int[] fill = Arrays.copyOf(inStart, n);
+		int[] transitionsIn = new int[m];
+		for (int t = 0; t < m; t++) transitionsIn[fill[heads[t]]++] = t;
+
+		// The blocks of states are split by class.
+
+		Partition blocks = new Partition(n);
+		int[] byClass = new int[n];
+		int[] classStart = new int[numClasses + 1];
+		for (int q = 0; q < n; q++) classStart[classes[q] + 1]++;
+		for (int c = 0; c < numClasses; c++) classStart[c + 1] += classStart[c];
+		fill = Arrays.copyOf(classStart, numClasses);
+		for (int q = 0; q < n; q++) byClass[fill[classes[q]]++] = q;
+		for (int c = 1; c < numClasses; c++)
+		{
+			for (int i = classStart[c]; i < classStart[c + 1]; i++) blocks.mark(byClass[i]);
+			blocks.split();
+		}
+
+		// The cords of transitions are split by symbol.
+
+		Partition cords = new Partition(m);
+		if (m > 0)
+		{
+			long[] keys = new long[m];
+			for (int t = 0; t < m; t++) keys[t] = ((long) symbols[t] << 32) | t;
+			Arrays.sort(keys);
+			cords.size = 0;
+			int symbol = symbols[(int) keys[0]];
+			for (int i = 0; i < m; i++)
+			{
+				int t = (int) keys[i];
+				cords.elements[i] = t;
+				if (symbols[t] != symbol)
+				{
+					symbol = symbols[t];
+					cords.past[cords.size++] = i;
+					cords.first[cords.size] = i;
+				}
+				cords.sets[t] = cords.size;
+				cords.locations[t] = i;
+			}
+			cords.past[cords.size++] = m;
+		}
+
+		int b = 1;
+		int c = 0;
+		while (c < cords.size)
+		{
+			for (int i = cords.first[c]; i < cords.past[c]; i++) blocks.mark(tails[cords.elements[i]]);
+			blocks.split();
+			c++;
+			while (b < blocks.size)
+			{
+				for (int i = blocks.first[b]; i < blocks.past[b]; i++)
+				{
+					int q = blocks.elements[i];
+					for (int j = inStart[q]; j < inStart[q + 1]; j++) cords.mark(transitionsIn[j]);
+				}
+				cords.split();
+				b++;
+			}
+		}
+		return blocks.sets;
+	}
+
+	/**
+	 * A refinable partition of the numbers <code>0</code> to <code>n - 1</code>.
+	 * The elements of every set are stored contiguously, with the marked elements first.
+	 */
+
+	static class Partition
+	{
+		int size;
+		int[] elements;
+		int[] locations;
+		int[] sets;
+		int[] first;
+		int[] past;
+		int[] marked;
+		int[] touched;
+		int numTouched;
+
+		Partition(int n)
+		{
+			size = n > 0 ? 1 : 0;
+			elements = new int[n];
+			locations = new int[n];
+			sets = new int[n];
+			first = new int[n + 1];
+			past = new int[n + 1];
+			marked = new int[n + 1];
+			touched = new int[n + 1];
+			for (int i = 0; i < n; i++)
+			{
+				elements[i] = i;
+				locations[i] = i;
+			}
+			past[0] = n;
+		}
+
+		void mark(int e)
+		{
+			int s = sets[e];
+			int i = locations[e];
+			int j = first[s] + marked[s];
+			if (i < j) return;
+			elements[i] = elements[j];
+			locations[elements[i]] = i;
+			elements[j] = e;
+			locations[e] = j;
+			if (marked[s]++ == 0) touched[numTouched++] = s;
+		}
+
+		/**
+		 * Splits every set with marked elements into the marked and the unmarked elements,
+		 * and gives the smaller part a new set number.
+		 */
+
+		void split()
+		{
+			while (numTouched > 0)
+			{
+				int s = touched[--numTouched];
+				int j = first[s] + marked[s];
+				if (j == past[s])
+				{
+					marked[s] = 0;
+					continue;
+				}
+				if (marked[s] <= past[s] - j)
+				{
+					first[size] = first[s];
+					past[size] = j;
+					first[s] = j;
+				}
+				else
+				{
+					past[size] = past[s];
+					first[size] = j;
+					past[s] = j;
+				}
+				for (int i = first[size]; i < past[size]; i++) sets[elements[i]] = size;
+				marked[s] = 0;
+				marked[size] = 0;
+				size++;
+			}
+		}
+	}
+}
@@ -4,19 +4,24 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import net.jhoogland.jautomata.Automata;
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
 import net.jhoogland.jautomata.ExactConvergence;
 import net.jhoogland.jautomata.MTAutomaton;
 import net.jhoogland.jautomata.MTLabel;
 import net.jhoogland.jautomata.ReverselyAccessibleAutomaton;
+import net.jhoogland.jautomata.SCCShortestDistances;
 import net.jhoogland.jautomata.SingleSourceShortestDistances;
 import net.jhoogland.jautomata.SingleSourceShortestDistancesInterface;
 import net.jhoogland.jautomata.TLabel;
 import net.jhoogland.jautomata.Transducer;
 import net.jhoogland.jautomata.queues.DefaultQueueFactory;
 import net.jhoogland.jautomata.semirings.BooleanSemiring;
+import net.jhoogland.jautomata.semirings.ClosedSemiring;
+import net.jhoogland.jautomata.semirings.DoubleSemifield;
 import net.jhoogland.jautomata.semirings.LogSemiring;
 import net.jhoogland.jautomata.semirings.PathWeight;
 import net.jhoogland.jautomata.semirings.RealSemiring;
@@ -53,6 +58,17 @@ public class Operations
 	{
 		return new AcceptorIntersection<L, K>(a1, a2);
 	}
+	
+	/**
+	 * Computes the intersection of the specified acceptors with beam pruning (see {@link BeamPruner}).
+	 * States that are outside the beam of the specified threshold (or <code>null</code>) 
+	 * and beam width (or <code>0</code>) are not created.
+	 */
+	
+	public static <L, K extends Comparable<K>> Automaton<L, K> acceptorIntersection(Automaton<L, K> a1, Automaton<L, K> a2, K threshold, int beamWidth)
+	{
+		return new PrunedAcceptorIntersection<L, K>(a1, a2, threshold, beamWidth);
+	}
 
 	/**
 	 * @return
@@ -61,7 +77,57 @@ public class Operations
 	
 	public static <L, K> Automaton<L, K> epsilonRemoval(Automaton<L, K> operand)
 	{
-		return new EpsilonRemoval<L, K>(operand, new SingleSourceShortestDistances<K>(new DefaultQueueFactory<K>(), new ExactConvergence<K>()));
+		return new EpsilonRemoval<L, K>(operand, defaultShortestDistances(operand.semiring()));
+	}
+	
+	/**
+	 * Expands the specified automaton into a {@link CompactAutomaton},
+	 * using the threads of the common fork-join pool (see {@link Compilation}).
+	 * The specified automaton is required to have finitely many states.
+	 */
+
+	public static <L, K> CompactAutomaton<L, K> compile(Automaton<L, K> operand)
+	{
+		return compile(operand, false);
+	}
+
+	/**
+	 * Expands the specified automaton into a {@link CompactAutomaton},
+	 * using the threads of the common fork-join pool (see {@link Compilation}).
+	 * If <code>deterministicNumbering</code> is true, the states are numbered in breadth-first order,
+	 * independent of the scheduling of the threads.
+	 */
+
+	public static <L, K> CompactAutomaton<L, K> compile(Automaton<L, K> operand, boolean deterministicNumbering)
+	{
+		return Compilation.compile(operand, deterministicNumbering, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @return
+	 * an automaton identical to the specified automaton that remembers the outgoing transitions and final weights 
+	 * of at most the specified number of recently used states (see {@link CachedAutomaton}),
+	 * or of all states if the specified number is <code>0</code>
+	 */
+
+	public static <L, K> CachedAutomaton<L, K> cache(Automaton<L, K> operand, int maxStates)
+	{
+		return new CachedAutomaton<L, K>(operand, maxStates, 0);
+	}
+
+	/**
+	 * @return
+	 * the shortest distance algorithm used by epsilon removal and weight pushing if no algorithm is specified.
+	 * This is an {@link SCCShortestDistances} instance for closed semirings that are not idempotent, 
+	 * such as the real and log semirings, 
+	 * and a {@link SingleSourceShortestDistances} instance for all other semirings. 
+	 */
+	
+	public static <K> SingleSourceShortestDistancesInterface<K> defaultShortestDistances(Semiring<K> semiring)
+	{
+		if (semiring instanceof ClosedSemiring && ! semiring.isIdempotent()) 
+			return new SCCShortestDistances<K>(new ExactConvergence<K>());
+		return new SingleSourceShortestDistances<K>(new DefaultQueueFactory<K>(), new ExactConvergence<K>());
 	}
 	
 	/**
@@ -74,6 +140,69 @@ public class Operations
 		return new Determinization<L, K>(operand);
 	}
 
+	/**
+	 * Computes an approximate determinization of the specified automaton,
+	 * in which the remainder weights are rounded to multiples of the specified step (see {@link Determinization}).
+	 * The semiring is required to implement {@link DoubleSemifield}.
+	 */
+
+	public static <L, K> Determinization<L, K> determinize(Automaton<L, K> operand, double delta)
+	{
+		return new Determinization<L, K>(operand, delta);
+	}
+
+	/**
+	 * Computes the determinization of the specified automaton eagerly, 
+	 * expanding the subsets of every breadth-first level in parallel on the common fork-join pool (see {@link Compilation}).
+	 * The states of the resulting {@link CompactAutomaton} are numbered in breadth-first order,
+	 * independent of the scheduling of the threads.
+	 * The determinization is required to have finitely many states.
+	 */
+
+	public static <L, K> CompactAutomaton<L, K> determinizeParallel(Automaton<L, K> operand)
+	{
+		return compile(new Determinization<L, K>(operand), true);
+	}
+
+	/**
+	 * Computes the approximate determinization of the specified automaton with the specified quantization step eagerly, 
+	 * expanding the subsets of every breadth-first level in parallel on the common fork-join pool.
+	 */
+
+	public static <L, K> CompactAutomaton<L, K> determinizeParallel(Automaton<L, K> operand, double delta)
+	{
+		return compile(new Determinization<L, K>(operand, delta), true);
+	}
+
+	/**
+	 * Computes a deterministic automaton without epsilon transitions that accepts the same strings 
+	 * as the specified unweighted automaton, using the subset construction (see {@link PowersetDeterminization}).
+	 */
+
+	public static <L> CompactAutomaton<L, Boolean> determinizeUnweighted(Automaton<L, Boolean> operand)
+	{
+		return PowersetDeterminization.determinize(operand);
+	}
+
+	/**
+	 * Computes the minimal deterministic automaton that is equivalent to the specified deterministic automaton
+	 * by pushing its weights and refining partitions (see {@link Minimization}).
+	 */
+
+	public static <L, K> CompactAutomaton<L, K> minimize(Automaton<L, K> operand)
+	{
+		return Minimization.minimize(operand);
+	}
+
+	/**
+	 * Computes the minimal deterministic automaton that accepts the same strings as the specified unweighted automaton.
+	 */
+
+	public static <L> CompactAutomaton<L, Boolean> minimizeUnweighted(Automaton<L, Boolean> operand)
+	{
+		return Minimization.minimizeUnweighted(operand);
+	}
+
 	/**
 	 * Applies epsilon removal and determinization to the specified automaton.
 	 * 
@@ -90,7 +219,7 @@ public class Operations
 
 	public static <L, K> Automaton<L, K> push(ReverselyAccessibleAutomaton<L, K> operand)
 	{
-		return push(operand, new SingleSourceShortestDistances<K>(new DefaultQueueFactory<K>(), new ExactConvergence<K>()));
+		return push(operand, defaultShortestDistances(operand.semiring()));
 	}
 	
 	/**
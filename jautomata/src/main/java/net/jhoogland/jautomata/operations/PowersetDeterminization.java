@@ -0,0 +1,248 @@
+package net.jhoogland.jautomata.operations;
+
+import java.util.Arrays;
+
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.Hashing;
+import net.jhoogland.jautomata.semirings.BooleanSemiring;
+
+/**
+ * <p>
+ * The subset construction for unweighted automata over the {@link BooleanSemiring}.
+ * The operand is compiled into a {@link CompactAutomaton}, and the epsilon closure of every operand state
+ * is computed once as a sorted array of state numbers.
+ * The states of the result are sets of operand states, stored as sorted arrays of state numbers
+ * and numbered in an open addressing hash table.
+ * The outgoing transitions of a set are grouped by label by sorting,
+ * and the target set of a label is the union of the epsilon closures of the targets.
+ * Transitions with weight <code>false</code> are ignored.
+ * </p>
+ * <p>
+ * The result is a deterministic {@link CompactAutomaton} without epsilon transitions,
+ * with the states numbered in breadth-first order from the initial state.
+ * Unlike {@link Determinization}, the result is computed eagerly, so the operand is required to have finitely many states.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class PowersetDeterminization
+{
+	/**
+	 * @return
+	 * a deterministic {@link CompactAutomaton} that accepts the same strings as the specified automaton
+	 */
+
+	@SuppressWarnings("unchecked")
+	public static <L> CompactAutomaton<L, Boolean> determinize(Automaton<L, Boolean> operand)
+	{
+		CompactAutomaton<L, Boolean> a = operand instanceof CompactAutomaton ? (CompactAutomaton<L, Boolean>) operand : new CompactAutomaton<L, Boolean>(operand);
+		int n = a.numStates();
+		int[][] closures = closures(a);
+		int[] stamps = new int[n];
+		int stamp = 0;
+
+		Subsets subsets = new Subsets();
+		int[] members = new int[Math.max(n, 1)];
+		int size = 0;
+		stamp++;
+		for (Object s : a.initialStates())
+			if (a.initialWeight(s))
+				for (int c : closures[(Integer) s])
+					if (stamps[c] != stamp)
+					{
+						stamps[c] = stamp;
+						members[size++] = c;
+					}
+		Arrays.sort(members, 0, size);
+		subsets.add(Arrays.copyOf(members, size));
+
+		CompactAutomaton.Builder<L, Boolean> builder = new CompactAutomaton.Builder<L, Boolean>(a.semiring());
+		long[] arcs = new long[16];
+		int[] transitionLabels = new int[16];
+		int[] transitionTargets = new int[16];
+		int numTransitions = 0;
+		int[] transitionStart = new int[16];
+		for (int p = 0; p < subsets.size; p++)
+		{
+			int[] subset = subsets.subsets[p];
+			if (p + 1 >= transitionStart.length) transitionStart = Arrays.copyOf(transitionStart, 2 * transitionStart.length);
+			transitionStart[p] = numTransitions;
+			boolean isFinal = false;
+
+			// The transitions with a label are sorted by label and target.
+
+			int numArcs = 0;
+			for (int q : subset)
+			{
+				if (a.finalWeight(q)) isFinal = true;
+				for (int t = a.outStart(q); t < a.outEnd(q); t++)
+				{
+					int l = a.labelId(t);
+					if (l < 0 || ! a.transitionWeight(t)) continue;
+					if (numArcs == arcs.length) arcs = Arrays.copyOf(arcs, 2 * numArcs);
+					arcs[numArcs++] = ((long) l << 32) | a.toState(t);
+				}
+			}
+			Arrays.sort(arcs, 0, numArcs);
+			builder.addState(p == 0, isFinal);
+
+			int start = 0;
+			while (start < numArcs)
+			{
+				int l = (int) (arcs[start] >>> 32);
+				int end = start;
+				size = 0;
+				stamp++;
+				while (end < numArcs && (int) (arcs[end] >>> 32) == l)
+				{
+					for (int c : closures[(int) arcs[end]])
+						if (stamps[c] != stamp)
+						{
+							stamps[c] = stamp;
+							members[size++] = c;
+						}
+					end++;
+				}
+				Arrays.sort(members, 0, size);
+				if (numTransitions == transitionLabels.length)
+				{
+					transitionLabels = Arrays.copyOf(transitionLabels, 2 * numTransitions);
+					transitionTargets = Arrays.copyOf(transitionTargets, 2 * numTransitions);
+				}
+				transitionLabels[numTransitions] = l;
+				transitionTargets[numTransitions] = subsets.add(members, size);
+				numTransitions++;
+				start = end;
+			}
+		}
+		transitionStart[subsets.size] = numTransitions;
+		for (int p = 0; p < subsets.size; p++)
+			for (int i = transitionStart[p]; i < transitionStart[p + 1]; i++)
+				builder.addTransition(p, transitionTargets[i], a.labelOf(transitionLabels[i]), true);
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * the epsilon closure of every state as a sorted array of state numbers
+	 */
+
+	private static int[][] closures(CompactAutomaton<?, Boolean> a)
+	{
+		int n = a.numStates();
+		int[][] closures = new int[n][];
+		int[] stamps = new int[n];
+		int[] stack = new int[Math.max(n, 1)];
+		int[] members = new int[Math.max(n, 1)];
+		for (int s = 0; s < n; s++)
+		{
+			int stamp = s + 1;
+			int size = 0;
+			int top = 0;
+			stamps[s] = stamp;
+			members[size++] = s;
+			stack[top++] = s;
+			while (top > 0)
+			{
+				int q = stack[--top];
+				for (int t = a.outStart(q); t < a.outEnd(q); t++)
+				{
+					if (a.labelId(t) >= 0 || ! a.transitionWeight(t)) continue;
+					int next = a.toState(t);
+					if (stamps[next] != stamp)
+					{
+						stamps[next] = stamp;
+						members[size++] = next;
+						stack[top++] = next;
+					}
+				}
+			}
+			Arrays.sort(members, 0, size);
+			closures[s] = Arrays.copyOf(members, size);
+		}
+		return closures;
+	}
+
+	/**
+	 * The sets of operand states, numbered in the order in which they are added.
+	 * The numbers are found in an open addressing hash table.
+	 */
+
+	private static class Subsets
+	{
+		int[][] subsets = new int[16][];
+		int[] hashes = new int[16];
+		int size;
+		int[] table = newTable(32);
+
+		int add(int[] members)
+		{
+			return add(members, members.length);
+		}
+
+		/**
+		 * @return
+		 * the number of the set of the first <code>length</code> specified members, which is copied if it is new
+		 */
+
+		int add(int[] members, int length)
+		{
+			int h = hash(members, length);
+			int mask = table.length - 1;
+			int slot = h & mask;
+			int p;
+			while ((p = table[slot]) >= 0)
+			{
+				if (hashes[p] == h && equal(subsets[p], members, length)) return p;
+				slot = (slot + 1) & mask;
+			}
+			p = size++;
+			if (p == subsets.length)
+			{
+				subsets = Arrays.copyOf(subsets, 2 * p);
+				hashes = Arrays.copyOf(hashes, 2 * p);
+			}
+			subsets[p] = Arrays.copyOf(members, length);
+			hashes[p] = h;
+			table[slot] = p;
+			if (2 * size > table.length) rehash();
+			return p;
+		}
+
+		void rehash()
+		{
+			table = newTable(2 * table.length);
+			int mask = table.length - 1;
+			for (int p = 0; p < size; p++)
+			{
+				int slot = hashes[p] & mask;
+				while (table[slot] >= 0) slot = (slot + 1) & mask;
+				table[slot] = p;
+			}
+		}
+
+		static boolean equal(int[] subset, int[] members, int length)
+		{
+			if (subset.length != length) return false;
+			for (int i = 0; i < length; i++) if (subset[i] != members[i]) return false;
+			return true;
+		}
+
+		static int hash(int[] members, int length)
+		{
+			int h = length;
+			for (int i = 0; i < length; i++) h = Hashing.mix(h, members[i]);
+			return h;
+		}
+
+		static int[] newTable(int capacity)
+		{
+			int[] table = new int[capacity];
+			Arrays.fill(table, -1);
+			return table;
+		}
+	}
+}
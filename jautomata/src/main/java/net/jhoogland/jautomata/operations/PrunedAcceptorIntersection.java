@@ -0,0 +1,35 @@
+package net.jhoogland.jautomata.operations;
+
+import net.jhoogland.jautomata.Automaton;
+
+/**
+ * Acceptor intersection with beam pruning.
+ * The outgoing transitions of every state are computed as in {@link AcceptorIntersection}
+ * and are then pruned by a {@link BeamPruner} (see {@link Intersection}).
+ * 
+ * @author Jasper Hoogland
+ *
+ * @param <L>
+ * label type
+ * 
+ * @param <K>
+ * weight type
+ */
+
+public class PrunedAcceptorIntersection<L, K extends Comparable<K>> extends AcceptorIntersection<L, K> 
+{
+	public PrunedAcceptorIntersection(Automaton<L, K> operand1, Automaton<L, K> operand2, BeamPruner<K> pruner) 
+	{
+		super(operand1, operand2, pruner);
+	}
+	
+	/**
+	 * Creates a pruned intersection with the specified threshold (or <code>null</code>) and beam width (or <code>0</code>).
+	 * See {@link BeamPruner}.
+	 */
+	
+	public PrunedAcceptorIntersection(Automaton<L, K> operand1, Automaton<L, K> operand2, K threshold, int beamWidth) 
+	{
+		this(operand1, operand2, new BeamPruner<K>(operand1.semiring(), threshold, beamWidth));
+	}
+}
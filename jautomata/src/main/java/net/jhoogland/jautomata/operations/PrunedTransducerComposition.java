@@ -0,0 +1,42 @@
+package net.jhoogland.jautomata.operations;
+
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.TLabel;
+
+/**
+ * Transducer composition with beam pruning.
+ * The outgoing transitions of every state are computed as in {@link TransducerComposition}
+ * and are then pruned by a {@link BeamPruner} (see {@link Intersection}).
+ * 
+ * @author Jasper Hoogland
+ *
+ * @param <I>
+ * input label type
+ * 
+ * @param <L>
+ * intersection label type
+ * 
+ * @param <O>
+ * output label type
+ * 
+ * @param <K>
+ * weight type
+ */
+
+public class PrunedTransducerComposition<I, L, O, K extends Comparable<K>> extends TransducerComposition<I, L, O, K> 
+{
+	public PrunedTransducerComposition(Automaton<TLabel<I, L>, K> operand1, Automaton<TLabel<L, O>, K> operand2, BeamPruner<K> pruner) 
+	{
+		super(operand1, operand2, pruner);
+	}
+	
+	/**
+	 * Creates a pruned composition with the specified threshold (or <code>null</code>) and beam width (or <code>0</code>).
+	 * See {@link BeamPruner}.
+	 */
+	
+	public PrunedTransducerComposition(Automaton<TLabel<I, L>, K> operand1, Automaton<TLabel<L, O>, K> operand2, K threshold, int beamWidth) 
+	{
+		this(operand1, operand2, new BeamPruner<K>(operand1.semiring(), threshold, beamWidth));
+	}
+}
@@ -5,6 +5,7 @@ import java.util.Map;
 
 import net.jhoogland.jautomata.Automata;
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.DoubleStateMap;
 import net.jhoogland.jautomata.ReverselyAccessibleAutomaton;
 import net.jhoogland.jautomata.SingleSourceShortestDistancesInterface;
 
@@ -15,6 +16,12 @@ import net.jhoogland.jautomata.SingleSourceShortestDistancesInterface;
  * <p>
  * [1] M. Mohri, M. Riley. A Weight Pushing Algorithm for Large Vocabulary Speech Recognition
  * </p>
+ * <p>
+ * Every state of the operand must have a path to a final state.
+ * The potential of a state without such a path is the zero of the semiring, which has no inverse,
+ * so the operand should be trimmed first. 
+ * The weights of such states throw a {@link RuntimeException}.
+ * </p>
  * @author Jasper Hoogland
  *
  * @param <L>
@@ -39,6 +46,26 @@ public class Push<L, K> extends Reweight<L, K>
 	@Override
 	public K potential(Object state) 
 	{		
-		return distancesToFinalStates.get(state);
+		K potential = distancesToFinalStates.get(state);
+		if (potential == null) throw noPotential(state);
+		return potential;
+	}
+	
+	@Override
+	public double doublePotential(Object state) 
+	{
+		if (distancesToFinalStates instanceof DoubleStateMap)
+		{
+			DoubleStateMap dsMap = (DoubleStateMap) distancesToFinalStates;
+			int index = dsMap.indexOf(state);
+			if (! dsMap.containsIndex(index)) throw noPotential(state);
+			return dsMap.valueAt(index);
+		}
+		return super.doublePotential(state);
+	}
+	
+	static RuntimeException noPotential(Object state)
+	{
+		return new RuntimeException("State " + state + " has no path to a final state. Trim the automaton before pushing the weights.");
 	}
 }
@@ -2,6 +2,7 @@ package net.jhoogland.jautomata.operations;
 
 import java.util.Collection;
 
+import net.jhoogland.jautomata.IntegerWeightedAutomaton;
 import net.jhoogland.jautomata.ReverselyAccessibleAutomaton;
 
 /**
@@ -27,7 +28,7 @@ import net.jhoogland.jautomata.ReverselyAccessibleAutomaton;
  * (Boolean for regular automata and Double for weighted automata)
  */
 
-public class ReversedAutomaton<L, K> extends UnaryOperation<L, L, K, K> implements ReverselyAccessibleAutomaton<L, K> 
+public class ReversedAutomaton<L, K> extends UnaryOperation<L, L, K, K> implements ReverselyAccessibleAutomaton<L, K>, IntegerWeightedAutomaton<L, K> 
 {
 	public ReversedAutomaton(ReverselyAccessibleAutomaton<L, K> operand) 
 	{
@@ -95,4 +96,10 @@ public class ReversedAutomaton<L, K> extends UnaryOperation<L, L, K, K> implemen
 	{		
 		return true;
 	}
+
+	@SuppressWarnings("unchecked")
+	public long maxIntegerTransitionWeight() 
+	{
+		return operand instanceof IntegerWeightedAutomaton ? ((IntegerWeightedAutomaton<L, K>) operand).maxIntegerTransitionWeight() : -1;
+	}
 }
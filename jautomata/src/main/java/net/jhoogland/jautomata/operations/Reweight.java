@@ -5,11 +5,14 @@ import java.util.Collection;
 import java.util.Comparator;
 
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.semirings.DoubleSemifield;
 import net.jhoogland.jautomata.semirings.Semifield;
 
 /**
  * 
  * Reweights an automaton in such a way that the path weights are preserved.
+ * If the semiring implements {@link DoubleSemifield}, the weights are computed on primitive <code>double</code> values
+ * using the method <code>doublePotential</code>.
  * 
  * @author Jasper Hoogland
  *
@@ -30,6 +33,18 @@ public abstract class Reweight<L, K> extends UnaryOperation<L, L, K, K>
 	}
 	
 	public abstract K potential(Object state);
+	
+	/**
+	 * @return
+	 * the potential of the specified state as a primitive <code>double</code>.
+	 * This method is only called if the semiring implements {@link DoubleSemifield}.
+	 * The default implementation unboxes the result of <code>potential</code>.
+	 */
+	
+	public double doublePotential(Object state)
+	{
+		return (Double) potential(state);
+	}
 
 	@Override
 	public Collection<Object> initialStates() 
@@ -43,13 +58,25 @@ public abstract class Reweight<L, K> extends UnaryOperation<L, L, K, K>
 		return operand.transitionsOut(state);
 	}
 
+	@SuppressWarnings("unchecked")
 	public K initialWeight(Object state) 
 	{		
+		if (semiring() instanceof DoubleSemifield)
+		{
+			DoubleSemifield sr = (DoubleSemifield) semiring();
+			return (K) (Double) sr.multiplyDouble((Double) operand.initialWeight(state), doublePotential(state));
+		}
 		return semiring().multiply(operand.initialWeight(state), potential(state));
 	}
 
+	@SuppressWarnings("unchecked")
 	public K finalWeight(Object state) 
 	{
+		if (semiring() instanceof DoubleSemifield)
+		{
+			DoubleSemifield sr = (DoubleSemifield) semiring();
+			return (K) (Double) sr.multiplyDouble(sr.inverseDouble(doublePotential(state)), (Double) operand.finalWeight(state));
+		}
 		Semifield<K> sr = (Semifield<K>) semiring();
 		return sr.multiply(sr.inverse(potential(state)), operand.finalWeight(state));
 	}
@@ -71,8 +98,15 @@ public abstract class Reweight<L, K> extends UnaryOperation<L, L, K, K>
 		return operand.label(transition);
 	}
 
+	@SuppressWarnings("unchecked")
 	public K transitionWeight(Object transition) 
 	{
+		if (semiring() instanceof DoubleSemifield)
+		{
+			DoubleSemifield sr = (DoubleSemifield) semiring();
+			return (K) (Double) sr.multiplyDouble(sr.inverseDouble(doublePotential(operand.from(transition))), 
+					sr.multiplyDouble((Double) operand.transitionWeight(transition), doublePotential(operand.to(transition))));
+		}
 		Semifield<K> sr = (Semifield<K>) semiring();
 		return sr.multiply(sr.inverse(potential(operand.from(transition))), 
 				sr.multiply(operand.transitionWeight(transition), potential(operand.to(transition))));
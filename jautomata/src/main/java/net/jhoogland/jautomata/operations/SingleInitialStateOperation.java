@@ -6,6 +6,8 @@ import java.util.Comparator;
 import java.util.Collection;
 
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.Hashing;
+import net.jhoogland.jautomata.IntegerWeightedAutomaton;
 
 
 /**
@@ -15,6 +17,8 @@ import net.jhoogland.jautomata.Automaton;
  * The initial state of the new automaton has an epsilon transition to every 
  * initial state of the original automaton. 
  * The weight of each of these transitions is the original initial weight.   
+ * If the operand has non-negative integer transition weights (see {@link IntegerWeightedAutomaton})
+ * and its initial weights are non-negative integers, the transition weights of the result are non-negative integers as well.
  * 
  * @author Jasper Hoogland
  *
@@ -26,11 +30,14 @@ import net.jhoogland.jautomata.Automaton;
  * (Boolean for regular automata and Double for weighted automata)
  */
 
-public class SingleInitialStateOperation<L, K> extends UnaryOperation<L, L, K, K> 
+public class SingleInitialStateOperation<L, K> extends UnaryOperation<L, L, K, K> implements IntegerWeightedAutomaton<L, K>
 {
+	private SISState initialState;
+	
 	public SingleInitialStateOperation(Automaton<L, K> operand) 
 	{
 		super(operand, operand.semiring());
+		initialState = new SISState();
 	}
 
 	@SuppressWarnings("unchecked")
@@ -42,9 +49,9 @@ public class SingleInitialStateOperation<L, K> extends UnaryOperation<L, L, K, K
 
 	public Object initialState() 
 	{		
-		return new SISState();
+		return initialState;
 	}
-
+	
 	@Override
 	public Collection<Object> transitionsOut(Object state) 
 	{
@@ -129,6 +136,23 @@ public class SingleInitialStateOperation<L, K> extends UnaryOperation<L, L, K, K
 		else return operand.transitionWeight(t.operandTransition);
 	}
 	
+	@SuppressWarnings("unchecked")
+	public long maxIntegerTransitionWeight() 
+	{
+		if (! (operand instanceof IntegerWeightedAutomaton)) return -1;
+		long max = ((IntegerWeightedAutomaton<L, K>) operand).maxIntegerTransitionWeight();
+		if (max < 0) return -1;
+		for (Object iState : operand.initialStates())
+		{
+			K w = operand.initialWeight(iState);
+			if (! (w instanceof Number)) return -1;
+			double d = ((Number) w).doubleValue();
+			if (d < 0 || d != Math.rint(d) || Double.isInfinite(d)) return -1;
+			max = Math.max(max, (long) d);
+		}
+		return max;
+	}
+	
 	@Override
 	public Comparator<Object> topologicalOrder() 
 	{		
@@ -151,27 +175,31 @@ public class SingleInitialStateOperation<L, K> extends UnaryOperation<L, L, K, K
 	{
 		public Object operandState;
 		public boolean initialState;
+		private int hashCode;
 
 		public SISState(Object operandState) 
 		{
 			this.operandState = operandState;
 			this.initialState = false;
+			this.hashCode = Hashing.mix(1 + operandState.hashCode());
 		}
 		
 		public SISState() 
 		{
 			this.initialState = true;
+			this.hashCode = 1;
 		}
 		
 		@Override
 		public boolean equals(Object obj) 
 		{
+			if (obj == this) return true;
 			if (obj == null) return false;
 			if (obj instanceof SingleInitialStateOperation.SISState)
 			{
 				SISState other = (SISState) obj; 
 				if (this.initialState) return other.initialState;
-				else return ! other.initialState && operandState.equals(other.operandState);								
+				else return ! other.initialState && this.hashCode == other.hashCode && operandState.equals(other.operandState);								
 			}
 			else return false;
 		}
@@ -179,7 +207,7 @@ public class SingleInitialStateOperation<L, K> extends UnaryOperation<L, L, K, K
 		@Override
 		public int hashCode() 
 		{		
-			return initialState ? 1 : 1 + operandState.hashCode();
+			return hashCode;
 		}
 		
 		@Override
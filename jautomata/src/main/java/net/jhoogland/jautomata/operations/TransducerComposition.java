@@ -35,6 +35,24 @@ public class TransducerComposition<I, L, O, K> extends Intersection<TLabel<I, L>
 	{
 		super(operand1, operand2);		
 	}
+	
+	/**
+	 * Creates a composition of which the states are interned if <code>internStates</code> is true (see {@link Intersection}).
+	 */
+	
+	public TransducerComposition(Automaton<TLabel<I, L>, K> operand1, Automaton<TLabel<L, O>, K> operand2, boolean internStates) 
+	{
+		super(operand1, operand2, null, internStates);
+	}
+	
+	/**
+	 * Creates a composition of which the outgoing transitions are pruned by the specified pruner (see {@link Intersection}).
+	 */
+	
+	protected TransducerComposition(Automaton<TLabel<I, L>, K> operand1, Automaton<TLabel<L, O>, K> operand2, BeamPruner<?> pruner) 
+	{
+		super(operand1, operand2, pruner);
+	}
 
 	@Override
 	protected Object intersectionLabel1(TLabel<I, L> label) 
@@ -6,6 +6,7 @@ import java.util.Comparator;
 
 import net.jhoogland.jautomata.AbstractAutomaton;
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.Hashing;
 
 /**
  * 
@@ -29,6 +30,7 @@ import net.jhoogland.jautomata.Automaton;
 public class Union<L, K> extends AbstractAutomaton<L, K> 
 {
 	public Automaton<L, K>[] operands;
+	private final Comparator<Object> topologicalOrder;
 
 	/**
 	 * 
@@ -42,6 +44,7 @@ public class Union<L, K> extends AbstractAutomaton<L, K>
 	{
 		super(operands[0].semiring());
 		this.operands = (Automaton<L, K>[]) operands;
+		this.topologicalOrder = createTopologicalOrder();
 	}
 
 	public Collection<Object> initialStates() 
@@ -82,7 +85,9 @@ public class Union<L, K> extends AbstractAutomaton<L, K>
 		UnionElement s = (UnionElement) state;
 		for (Object operandTransition : operands[s.index].transitionsOut(s.value))
 		{
-			transitionsOut.add(new UnionElement(s.index, operandTransition));
+			UnionElement t = new UnionElement(s.index, operandTransition);
+			t.fromState = s;
+			transitionsOut.add(t);
 		}
 		return transitionsOut;
 	}
@@ -102,13 +107,15 @@ public class Union<L, K> extends AbstractAutomaton<L, K>
 	public Object from(Object transition) 
 	{		
 		UnionElement t = (UnionElement) transition; 
-		return new UnionElement(t.index, operands[t.index].from(t.value));
+		if (t.fromState == null) t.fromState = new UnionElement(t.index, operands[t.index].from(t.value));
+		return t.fromState;
 	}
 
 	public Object to(Object transition) 
 	{		
 		UnionElement t = (UnionElement) transition; 
-		return new UnionElement(t.index, operands[t.index].to(t.value));
+		if (t.toState == null) t.toState = new UnionElement(t.index, operands[t.index].to(t.value));
+		return t.toState;
 	}
 
 	public L label(Object transition) 
@@ -123,8 +130,18 @@ public class Union<L, K> extends AbstractAutomaton<L, K>
 		return operands[t.index].transitionWeight(t.value);
 	}
 
+	/**
+	 * @return
+	 * the topological order of the union, which is created once, when the union is created
+	 */
+	
 	@Override
 	public Comparator<Object> topologicalOrder() 
+	{
+		return topologicalOrder;
+	}
+	
+	private Comparator<Object> createTopologicalOrder() 
 	{		
 		@SuppressWarnings("unchecked")
 		final Comparator<Object>[] topologicalOrders = new Comparator[operands.length];
@@ -150,11 +167,18 @@ public class Union<L, K> extends AbstractAutomaton<L, K>
 	{
 		public int index;
 		public Object value;
+		private int hashCode;
+		
+		// The source and target states of a transition, which are created at most once:
+		
+		UnionElement fromState;
+		UnionElement toState;
 		
 		public UnionElement(int index, Object value) 
 		{
 			this.index = index;
 			this.value = value;
+			this.hashCode = Hashing.mix(index, value == null ? 0 : value.hashCode());
 		}
 		
 		@Override
@@ -166,15 +190,17 @@ public class Union<L, K> extends AbstractAutomaton<L, K>
 		@Override
 		public boolean equals(Object obj) 
 		{			
+			if (obj == this) return true;
 			if (obj == null || ! (obj instanceof Union.UnionElement)) return false;
 			UnionElement other = (UnionElement) obj;			
-			return this.index == other.index && (this.value == null ? other.value == null : this.value.equals(other.value));
+			return this.index == other.index && this.hashCode == other.hashCode 
+					&& (this.value == null ? other.value == null : this.value.equals(other.value));
 		}
 		
 		@Override
 		public int hashCode() 
 		{			
-			return index + (value == null ? 0 : value.hashCode());
+			return hashCode;
 		}
 	}	
 }
@@ -0,0 +1,40 @@
+package net.jhoogland.jautomata.queues;
+
+import java.util.Map;
+import java.util.Queue;
+
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.DoubleStateMap;
+import net.jhoogland.jautomata.IndexedStateMap;
+import net.jhoogland.jautomata.StateIndex;
+
+/**
+ * 
+ * Instances of this class create shortest-first queues for weights that are non-negative integers,
+ * such as the shortest distances in the tropical semiring of an automaton with integer transition weights.
+ * The queues are {@link RadixHeapQueue} instances, which add and extract states in constant amortized time,
+ * instead of the logarithmic time of the comparison-based queues created by {@link ShortestFirstQueueFactory}.
+ * A <code>RuntimeException</code> is thrown if a weight in the weight map is not a non-negative integer.
+ * 
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * weight type
+ */
+
+public class BucketQueueFactory<K> implements QueueFactory<K> 
+{
+	public <L> Queue<Object> createQueue(Automaton<L, K> automaton, final Map<Object, K> weightMap) 
+	{
+		StateIndex stateIndex = weightMap instanceof IndexedStateMap ? ((IndexedStateMap<K>) weightMap).stateIndex() : new StateIndex();
+		return new RadixHeapQueue(stateIndex) 
+		{
+			public long priority(Object state) 
+			{
+				double w = weightMap instanceof DoubleStateMap ? ((DoubleStateMap) weightMap).getDouble(state) : ((Number) weightMap.get(state)).doubleValue();
+				if (w < 0 || w != Math.rint(w) || Double.isInfinite(w)) throw new RuntimeException("Weight " + w + " is not a non-negative integer.");
+				return (long) w;
+			}
+		};
+	}
+}
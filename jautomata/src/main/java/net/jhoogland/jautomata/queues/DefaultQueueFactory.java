@@ -4,11 +4,17 @@ import java.util.Map;
 import java.util.Queue;
 
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.IntegerWeightedAutomaton;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
 
 /**
  * 
  * This queue factory creates a topological state queue for automata that provide 
  * a topological order and a shortest-first queue for all other automata. 
+ * For an automaton over the tropical semiring that reports non-negative integer transition weights
+ * (see {@link IntegerWeightedAutomaton}), such as a <code>CompactAutomaton</code>
+ * or a <code>SingleInitialStateOperation</code> of it,
+ * the shortest-first queue is a bucket queue created by {@link BucketQueueFactory}.
  * 
  * @author Jasper Hoogland
  *
@@ -22,6 +28,9 @@ public class DefaultQueueFactory<K> implements QueueFactory<K>
 	{
 		if (automaton.topologicalOrder() == null) 
 		{
+			if (automaton instanceof IntegerWeightedAutomaton && automaton.semiring() instanceof TropicalSemiring
+					&& ((IntegerWeightedAutomaton<L, K>) automaton).maxIntegerTransitionWeight() >= 0)
+				return new BucketQueueFactory<K>().createQueue(automaton, weightMap);
 			return new ShortestFirstQueueFactory<K>().createQueue(automaton, weightMap);
 		}
 		else return new TopologicalQueueFactory<K>().createQueue(automaton, weightMap);
@@ -0,0 +1,237 @@
+package net.jhoogland.jautomata.queues;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.jhoogland.jautomata.StateIndex;
+
+/**
+ *
+ * A state queue implemented as an addressable binary heap.
+ * The position of every state in the heap is stored in an array indexed by a {@link StateIndex},
+ * so that <code>remove(Object)</code> and <code>contains(Object)</code> run in logarithmic and constant time, respectively.
+ * The priority of a state is computed once, when the state is added, and is cached in the heap.
+ * Adding a state that is already in the queue updates its priority (decrease-key or increase-key).
+ *
+ * @author Jasper Hoogland
+ *
+ * @param <P>
+ * priority type
+ */
+
+public abstract class IndexedHeapQueue<P> extends AbstractQueue<Object>
+{
+	private StateIndex stateIndex;
+	private Comparator<? super P> comparator;
+	private int[] heap;
+	private Object[] priorities;
+	private int[] positions;
+	private int size;
+	private int modCount;
+
+	/**
+	 * Creates an empty queue that orders the states by the specified priority comparator.
+	 * The specified state index is used to address the states.
+	 * It may be shared with a map that is indexed by the same states.
+	 */
+
+	public IndexedHeapQueue(StateIndex stateIndex, Comparator<? super P> comparator)
+	{
+		this.stateIndex = stateIndex;
+		this.comparator = comparator;
+		heap = new int[16];
+		priorities = new Object[16];
+		positions = new int[16];
+		Arrays.fill(positions, -1);
+	}
+
+	/**
+	 * @return
+	 * the priority of the specified state
+	 */
+
+	public abstract P priority(Object state);
+
+	public boolean offer(Object state)
+	{
+		int id = stateIndex.index(state);
+		if (id >= positions.length)
+		{
+			int length = positions.length;
+			positions = Arrays.copyOf(positions, Math.max(id + 1, 2 * length));
+			Arrays.fill(positions, length, positions.length, -1);
+		}
+		P priority = priority(state);
+		int pos = positions[id];
+		modCount++;
+		if (pos >= 0)
+		{
+			priorities[pos] = priority;
+			siftDown(pos);
+			siftUp(positions[id]);
+			return true;
+		}
+		if (size == heap.length)
+		{
+			heap = Arrays.copyOf(heap, 2 * size);
+			priorities = Arrays.copyOf(priorities, 2 * size);
+		}
+		heap[size] = id;
+		priorities[size] = priority;
+		positions[id] = size;
+		siftUp(size++);
+		return true;
+	}
+
+	public Object poll()
+	{
+		if (size == 0) return null;
+		Object state = stateIndex.state(heap[0]);
+		removeAt(0);
+		return state;
+	}
+
+	public Object peek()
+	{
+		return size == 0 ? null : stateIndex.state(heap[0]);
+	}
+
+	/**
+	 * @return
+	 * the cached priority of the state at the head of the queue, or <code>null</code> if the queue is empty
+	 */
+
+	@SuppressWarnings("unchecked")
+	public P peekPriority()
+	{
+		return size == 0 ? null : (P) priorities[0];
+	}
+
+	@Override
+	public boolean contains(Object state)
+	{
+		return position(state) >= 0;
+	}
+
+	@Override
+	public boolean remove(Object state)
+	{
+		int pos = position(state);
+		if (pos < 0) return false;
+		removeAt(pos);
+		return true;
+	}
+
+	@Override
+	public void clear()
+	{
+		for (int i = 0; i < size; i++)
+		{
+			positions[heap[i]] = -1;
+			priorities[i] = null;
+		}
+		size = 0;
+		modCount++;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public Iterator<Object> iterator()
+	{
+		return new Iterator<Object>()
+		{
+			int next = 0;
+			int expectedModCount = modCount;
+
+			public boolean hasNext()
+			{
+				return next < size;
+			}
+
+			public Object next()
+			{
+				if (expectedModCount != modCount) throw new ConcurrentModificationException();
+				if (next >= size) throw new NoSuchElementException();
+				return stateIndex.state(heap[next++]);
+			}
+
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	private int position(Object state)
+	{
+		int id = stateIndex.indexOf(state);
+		return id < 0 || id >= positions.length ? -1 : positions[id];
+	}
+
+	private void removeAt(int pos)
+	{
+		modCount++;
+		positions[heap[pos]] = -1;
+		size--;
+		if (pos < size)
+		{
+			heap[pos] = heap[size];
+			priorities[pos] = priorities[size];
+			positions[heap[pos]] = pos;
+			priorities[size] = null;
+			int id = heap[pos];
+			siftDown(pos);
+			siftUp(positions[id]);
+		}
+		else priorities[size] = null;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean less(int i, int j)
+	{
+		return comparator.compare((P) priorities[i], (P) priorities[j]) < 0;
+	}
+
+	private void swap(int i, int j)
+	{
+		int id = heap[i];
+		heap[i] = heap[j];
+		heap[j] = id;
+		Object p = priorities[i];
+		priorities[i] = priorities[j];
+		priorities[j] = p;
+		positions[heap[i]] = i;
+		positions[heap[j]] = j;
+	}
+
+	private void siftUp(int pos)
+	{
+		while (pos > 0)
+		{
+			int parent = (pos - 1) >>> 1;
+			if (! less(pos, parent)) break;
+			swap(pos, parent);
+			pos = parent;
+		}
+	}
+
+	private void siftDown(int pos)
+	{
+		while (true)
+		{
+			int child = 2 * pos + 1;
+			if (child >= size) break;
+			if (child + 1 < size && less(child + 1, child)) child++;
+			if (! less(child, pos)) break;
+			swap(pos, child);
+			pos = child;
+		}
+	}
+}
@@ -1,21 +1,25 @@
 package net.jhoogland.jautomata.queues;
 
+import java.util.Arrays;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
 
 import net.jhoogland.jautomata.Automata;
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.IndexedStateMap;
+import net.jhoogland.jautomata.StateIndex;
 import net.jhoogland.jautomata.semirings.KTropicalSemiring;
 import net.jhoogland.jautomata.semirings.PathWeight;
 
 /**
- * 
+ *
  * Implementation of a {@link QueueFactory} that creates queues for the n shortest paths algorithm.
- * 
+ * The priority of a state that has been extracted <code>n</code> times is its <code>n</code>-th best path weight,
+ * which is read once, when the state is added, and is cached in an {@link IndexedHeapQueue}.
+ * The extraction counts are stored in an array indexed by the state index of the weight map.
+ *
  * @author Jasper Hoogland
  *
  */
@@ -23,47 +27,47 @@ import net.jhoogland.jautomata.semirings.PathWeight;
 public class KTropicalQueueFactory<K extends Comparable<K>> implements QueueFactory<List<PathWeight<K>>>
 {
 
-	public <L> Queue<Object> createQueue(final Automaton<L, List<PathWeight<K>>> automaton, final Map<Object, List<PathWeight<K>>> weightMap) 
+	public <L> Queue<Object> createQueue(final Automaton<L, List<PathWeight<K>>> automaton, final Map<Object, List<PathWeight<K>>> weightMap)
 	{
 //		if (automaton.topologicalOrder() != null) return new TopologicalQueueFactory<BestPathWeights<Object>>().createQueue(automaton, weightMap);
-		final HashMap<Object, Integer> numExtractions = new HashMap<Object, Integer>();
-		final KTropicalSemiring<K> sr = (KTropicalSemiring<K>) automaton.semiring(); 
-		return new PriorityQueue<Object>(32, new Comparator<Object>()
+		final StateIndex stateIndex = weightMap instanceof IndexedStateMap ? ((IndexedStateMap<List<PathWeight<K>>>) weightMap).stateIndex() : new StateIndex();
+		final KTropicalSemiring<K> sr = automaton.semiring() instanceof KTropicalSemiring ? (KTropicalSemiring<K>) automaton.semiring() : null;
+		return new IndexedHeapQueue<K>(stateIndex, new Comparator<K>()
 		{
-			public int compare(Object o1, Object o2) 
-			{				
-				return mu(o1).compareTo(mu(o2));
+			public int compare(K w1, K w2)
+			{
+				return w1.compareTo(w2);
 			}
-			
-			private K mu(Object state)
+		})
+		{
+			int[] numExtractions = new int[16];
+
+			public K priority(Object state)
 			{
 				List<PathWeight<K>> w = weightMap.get(state);
-				Integer n = numExtractions.get(state);
-				if (n == null) n = 0;
+				int n = numExtractions(stateIndex.index(state));
 				int k = n < sr.k ? n : sr.k - 1;
-				return w.get(k).weight;
+				return w.get(Math.min(k, w.size() - 1)).weight;
 			}
-			
-		})
-		{
+
+			private int numExtractions(int id)
+			{
+				return id < numExtractions.length ? numExtractions[id] : 0;
+			}
+
 			@Override
-			public Object poll() 
-			{				
+			public Object poll()
+			{
 				Object s = super.poll();
-				if (s != null) 
+				if (s != null)
 				{
-					Integer n = numExtractions.get(s);
-					if (n == null) n = 0;
-					n++;
-					numExtractions.put(s, n);
-					if (automaton.semiring() instanceof KTropicalSemiring)
+					int id = stateIndex.index(s);
+					if (id >= numExtractions.length) numExtractions = Arrays.copyOf(numExtractions, Math.max(id + 1, 2 * numExtractions.length));
+					int n = ++numExtractions[id];
+					if (sr != null && sr.k == n && Automata.isFinalState(automaton, s))
 					{
-						KTropicalSemiring sr = (KTropicalSemiring) automaton.semiring();  
-						if (sr.k == n && Automata.isFinalState(automaton, s)) 
-						{
-//							System.out.println("queue clear " + size());
-							clear();
-						}
+//						System.out.println("queue clear " + size());
+						clear();
 					}
 				}
 				return s;
@@ -0,0 +1,233 @@
+package net.jhoogland.jautomata.queues;
+
+import java.util.AbstractQueue;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import net.jhoogland.jautomata.StateIndex;
+
+/**
+ *
+ * A state queue implemented as a radix heap for non-negative integer priorities.
+ * The states are stored in 65 buckets; the bucket of a state is determined by the highest bit
+ * in which its priority differs from the priority of the last extracted state.
+ * If the priorities of added states are never smaller than the priority of the last extracted state
+ * (as in Dijkstra-like runs of the shortest distance algorithm), adding and extracting states takes
+ * constant amortized time (at most 64 bucket moves per state).
+ * Adding a state with a smaller priority is supported, but redistributes all states in the queue.
+ * <p>
+ * The priority of a state is computed once, when the state is added.
+ * Adding a state that is already in the queue updates its priority.
+ * Removed and updated states are deleted lazily.
+ * </p>
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public abstract class RadixHeapQueue extends AbstractQueue<Object>
+{
+	private static final int NUM_BUCKETS = 65;
+
+	private StateIndex stateIndex;
+	private long[] priorities;
+	private int[][] bucketStates;
+	private long[][] bucketPriorities;
+	private int[] bucketSizes;
+	private long last;
+	private int size;
+
+	/**
+	 * Creates an empty queue.
+	 * The specified state index is used to address the states.
+	 * It may be shared with a map that is indexed by the same states.
+	 */
+
+	public RadixHeapQueue(StateIndex stateIndex)
+	{
+		this.stateIndex = stateIndex;
+		priorities = new long[16];
+		Arrays.fill(priorities, -1);
+		bucketStates = new int[NUM_BUCKETS][];
+		bucketPriorities = new long[NUM_BUCKETS][];
+		for (int b = 0; b < NUM_BUCKETS; b++)
+		{
+			bucketStates[b] = new int[4];
+			bucketPriorities[b] = new long[4];
+		}
+		bucketSizes = new int[NUM_BUCKETS];
+	}
+
+	/**
+	 * @return
+	 * the priority of the specified state, which must be a non-negative integer
+	 */
+
+	public abstract long priority(Object state);
+
+	public boolean offer(Object state)
+	{
+		long priority = priority(state);
+		if (priority < 0) throw new RuntimeException("Radix heap priorities must be non-negative.");
+		int id = stateIndex.index(state);
+		if (id >= priorities.length)
+		{
+			int length = priorities.length;
+			priorities = Arrays.copyOf(priorities, Math.max(id + 1, 2 * length));
+			Arrays.fill(priorities, length, priorities.length, -1);
+		}
+		if (priorities[id] < 0) size++;
+		priorities[id] = priority;
+		if (priority < last) redistribute(priority);
+		push(id, priority);
+		return true;
+	}
+
+	public Object poll()
+	{
+		int id = head();
+		if (id < 0) return null;
+		bucketSizes[0]--;
+		priorities[id] = -1;
+		size--;
+		return stateIndex.state(id);
+	}
+
+	public Object peek()
+	{
+		int id = head();
+		return id < 0 ? null : stateIndex.state(id);
+	}
+
+	@Override
+	public boolean contains(Object state)
+	{
+		int id = stateIndex.indexOf(state);
+		return id >= 0 && id < priorities.length && priorities[id] >= 0;
+	}
+
+	@Override
+	public boolean remove(Object state)
+	{
+		if (! contains(state)) return false;
+		priorities[stateIndex.indexOf(state)] = -1;
+		size--;
+		return true;
+	}
+
+	@Override
+	public void clear()
+	{
+		for (int b = 0; b < NUM_BUCKETS; b++)
+		{
+			for (int i = 0; i < bucketSizes[b]; i++) priorities[bucketStates[b][i]] = -1;
+			bucketSizes[b] = 0;
+		}
+		size = 0;
+	}
+
+	public int size()
+	{
+		return size;
+	}
+
+	public Iterator<Object> iterator()
+	{
+		return new Iterator<Object>()
+		{
+			int next = advance(0);
+
+			private int advance(int id)
+			{
+				while (id < priorities.length && priorities[id] < 0) id++;
+				return id;
+			}
+
+			public boolean hasNext()
+			{
+				return next < priorities.length;
+			}
+
+			public Object next()
+			{
+				if (! hasNext()) throw new NoSuchElementException();
+				Object state = stateIndex.state(next);
+				next = advance(next + 1);
+				return state;
+			}
+
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/**
+	 * Moves the states with the smallest priority to bucket 0 and discards deleted entries.
+	 *
+	 * @return
+	 * the index of the state at the end of bucket 0, or <code>-1</code> if the queue is empty
+	 */
+
+	private int head()
+	{
+		while (size > 0)
+		{
+			while (bucketSizes[0] > 0)
+			{
+				int i = bucketSizes[0] - 1;
+				int id = bucketStates[0][i];
+				if (priorities[id] == bucketPriorities[0][i]) return id;
+				bucketSizes[0]--;
+			}
+			int b = 1;
+			while (bucketSizes[b] == 0) b++;
+			long min = Long.MAX_VALUE;
+			for (int i = 0; i < bucketSizes[b]; i++)
+				if (priorities[bucketStates[b][i]] == bucketPriorities[b][i] && bucketPriorities[b][i] < min)
+					min = bucketPriorities[b][i];
+			int n = bucketSizes[b];
+			bucketSizes[b] = 0;
+			if (min == Long.MAX_VALUE) continue;
+			last = min;
+			int[] states = bucketStates[b];
+			long[] keys = bucketPriorities[b];
+			for (int i = 0; i < n; i++)
+				if (priorities[states[i]] == keys[i]) push(states[i], keys[i]);
+		}
+		return -1;
+	}
+
+	private void redistribute(long priority)
+	{
+		last = priority;
+		int[][] states = new int[NUM_BUCKETS][];
+		long[][] keys = new long[NUM_BUCKETS][];
+		int[] sizes = bucketSizes.clone();
+		for (int b = 0; b < NUM_BUCKETS; b++)
+		{
+			states[b] = Arrays.copyOf(bucketStates[b], sizes[b]);
+			keys[b] = Arrays.copyOf(bucketPriorities[b], sizes[b]);
+			bucketSizes[b] = 0;
+		}
+		for (int b = 0; b < NUM_BUCKETS; b++)
+			for (int i = 0; i < sizes[b]; i++)
+				if (priorities[states[b][i]] == keys[b][i]) push(states[b][i], keys[b][i]);
+	}
+
+	private void push(int id, long priority)
+	{
+		int b = priority == last ? 0 : 64 - Long.numberOfLeadingZeros(priority ^ last);
+		int n = bucketSizes[b];
+		if (n == bucketStates[b].length)
+		{
+			bucketStates[b] = Arrays.copyOf(bucketStates[b], 2 * n);
+			bucketPriorities[b] = Arrays.copyOf(bucketPriorities[b], 2 * n);
+		}
+		bucketStates[b][n] = id;
+		bucketPriorities[b][n] = priority;
+		bucketSizes[b] = n + 1;
+	}
+}
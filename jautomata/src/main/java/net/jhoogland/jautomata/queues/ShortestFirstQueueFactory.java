@@ -2,10 +2,25 @@ package net.jhoogland.jautomata.queues;
 
 import java.util.Comparator;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
 
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.IndexedStateMap;
+import net.jhoogland.jautomata.StateIndex;
+
+/**
+ * 
+ * Instances of this class create queues that extract the state with the smallest weight
+ * in the weight map first, according to the weight comparator.
+ * The queues are {@link IndexedHeapQueue} instances. 
+ * The weight of a state is read from the weight map when the state is added to the queue.
+ * If the weight map is an {@link IndexedStateMap}, the queue shares its state index.
+ * 
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * weight type
+ */
 
 public class ShortestFirstQueueFactory<K> implements QueueFactory<K> 
 {
@@ -37,18 +52,23 @@ public class ShortestFirstQueueFactory<K> implements QueueFactory<K>
 	
 	public <L> Queue<Object> createQueue(Automaton<L, K> automaton, final Map<Object, K> weightMap) 
 	{
-		return new PriorityQueue<Object>(11, new Comparator<Object>()
+		StateIndex stateIndex = weightMap instanceof IndexedStateMap ? ((IndexedStateMap<K>) weightMap).stateIndex() : new StateIndex();
+		return new IndexedHeapQueue<K>(stateIndex, new Comparator<K>()
 		{
 			
-			public int compare(Object o1, Object o2) 
+			public int compare(K w1, K w2) 
 			{
-				K w1 = weightMap.get(o1);
-				K w2 = weightMap.get(o2);
 				if (w1 == null && w2 == null) return 0;
 				else if (w1 == null) return 1;
 				else if (w2 == null) return -1;
 				else return weightComparator.compare(w1, w2);
 			}
-		});
+		})
+		{
+			public K priority(Object state) 
+			{
+				return weightMap.get(state);
+			}
+		};
 	}
 }
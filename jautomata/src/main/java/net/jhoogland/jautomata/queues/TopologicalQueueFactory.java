@@ -2,10 +2,11 @@ package net.jhoogland.jautomata.queues;
 
 import java.util.Comparator;
 import java.util.Map;
-import java.util.PriorityQueue;
 import java.util.Queue;
 
 import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.IndexedStateMap;
+import net.jhoogland.jautomata.StateIndex;
 
 /**
  * 
@@ -14,6 +15,7 @@ import net.jhoogland.jautomata.Automaton;
  * returned by the <code>topologicalOrder</code> method of the automaton.
  * Computation of the shortest distance runs in linear time with respect to the number of
  * states. 
+ * The queues are {@link IndexedHeapQueue} instances, which remove states in logarithmic time. 
  * 
  * @author Jasper Hoogland
  *
@@ -27,6 +29,13 @@ public class TopologicalQueueFactory<K> implements QueueFactory<K>
 	{		
 		Comparator<Object> topologicalOrder = automaton.topologicalOrder();
 		if (topologicalOrder == null) return null;
-		return new PriorityQueue<Object>(32, topologicalOrder);
+		StateIndex stateIndex = weightMap instanceof IndexedStateMap ? ((IndexedStateMap<K>) weightMap).stateIndex() : new StateIndex();
+		return new IndexedHeapQueue<Object>(stateIndex, topologicalOrder)
+		{
+			public Object priority(Object state) 
+			{
+				return state;
+			}
+		};
 	}
 }
@@ -10,12 +10,13 @@ package net.jhoogland.jautomata.semirings;
  * and its addition operation is <code>or</code> 
  * with identity <code>false</code>.
  * The multiplicative inverse is <code>true</code>.
+ * The closure is <code>true</code>.
  * 
  * @author Jasper Hoogland
  *
  */
 
-public class BooleanSemiring implements Semifield<Boolean> 
+public class BooleanSemiring implements Semifield<Boolean>, ClosedSemiring<Boolean> 
 {
 	// Definition
 	
@@ -60,4 +61,14 @@ public class BooleanSemiring implements Semifield<Boolean>
 	{		
 		return true;
 	}
+	
+	/**
+	 * @return
+	 * <code>true</code>
+	 */
+	
+	public Boolean star(Boolean x) 
+	{
+		return true;
+	}
 }
@@ -0,0 +1,25 @@
+package net.jhoogland.jautomata.semirings;
+
+/**
+ * 
+ * Semirings with a closure (Kleene star) operation implement this interface.
+ * The closure of a weight <code>x</code> is the infinite sum 
+ * <code>one() + x + x * x + x * x * x + ...</code>.
+ * Shortest distance algorithms use the closure to compute the weight of all paths through a cycle 
+ * in closed form, instead of iterating until the weights converge.
+ * 
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * the type of the elements of the semiring.
+ */
+
+public interface ClosedSemiring<K> extends Semiring<K>
+{
+	/**
+	 * @return
+	 * the closure <code>one() + x + x * x + ...</code> of the specified weight
+	 */
+	
+	public K star(K x);
+}
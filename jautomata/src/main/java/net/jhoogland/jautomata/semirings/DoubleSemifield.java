@@ -0,0 +1,20 @@
+package net.jhoogland.jautomata.semirings;
+
+/**
+ * 
+ * Semifields over <code>double</code> values may implement this interface.
+ * It adds the multiplicative inverse on primitive <code>double</code> values to {@link DoubleSemiring}.
+ * 
+ * @author Jasper Hoogland
+ *
+ */
+
+public interface DoubleSemifield extends DoubleSemiring, Semifield<Double> 
+{
+	/**
+	 * @return
+	 * the multiplicative inverse of the specified weight
+	 */
+	
+	public double inverseDouble(double x);
+}
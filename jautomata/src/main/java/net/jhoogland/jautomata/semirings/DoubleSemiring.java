@@ -0,0 +1,45 @@
+package net.jhoogland.jautomata.semirings;
+
+/**
+ * 
+ * Semirings over <code>double</code> values may implement this interface.
+ * It specifies the semiring operations on primitive <code>double</code> values,
+ * which allows algorithms to compute weights without creating a <code>Double</code> object
+ * for every intermediate result.
+ * The primitive operations must be consistent with the operations of {@link Semiring}.
+ * The real, log, and tropical semirings implement this interface.
+ * 
+ * @author Jasper Hoogland
+ *
+ */
+
+public interface DoubleSemiring extends Semiring<Double> 
+{
+	/**
+	 * @return
+	 * the product of the specified weights
+	 */
+	
+	public double multiplyDouble(double x1, double x2);
+	
+	/**
+	 * @return
+	 * the sum of the specified weights
+	 */
+	
+	public double addDouble(double x1, double x2);
+	
+	/**
+	 * @return
+	 * the multiplication identity of this semiring
+	 */
+	
+	public double oneDouble();
+	
+	/**
+	 * @return
+	 * the addition identity of this semiring
+	 */
+	
+	public double zeroDouble();
+}
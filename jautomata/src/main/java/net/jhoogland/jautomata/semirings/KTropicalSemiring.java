@@ -3,13 +3,13 @@ package net.jhoogland.jautomata.semirings;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
 /**
  * 
  * This semiring is used by the shortest distance algorithm to determine the n shortest distances to a state. 
- * If the storePath field has value <code>true</code>, then the paths are stored that led to the n shortest distances.\
+ * If the storePath field has value <code>true</code>, then the paths are stored that led to the n shortest distances.
+ * The paths are stored in a {@link PathArena} that is shared by all weights computed by this semiring.
  *   
  * 
  * @author Jasper Hoogland
@@ -21,6 +21,8 @@ public class KTropicalSemiring<K extends Comparable<K>> implements Semiring<List
 	public int k;
 	public boolean storePath;
 	public Semiring<K> src;
+	public PathArena arena;
+	private final NaturalOrder<K> order;
 	
 	public KTropicalSemiring(int k, Semiring<K> src)
 	{
@@ -32,45 +34,83 @@ public class KTropicalSemiring<K extends Comparable<K>> implements Semiring<List
 		this.k = k;
 		this.storePath = storePath;
 		this.src = src;
+		this.order = new NaturalOrder<K>(src);
+		if (storePath) arena = new PathArena();
 	}
 
+	/**
+	 * Computes the k best products of the path weights in <code>x1</code> and <code>x2</code>,
+	 * which are required to be sorted from best to worst (as are all weights computed by this semiring).
+	 * The products are enumerated in order with a frontier of candidate index pairs in a binary heap,
+	 * so only <code>O(k)</code> products are computed.
+	 * Equal products are ordered by the positions of their factors, as in a stable sort of all products.
+	 */
+
 	public List<PathWeight<K>> multiply(List<PathWeight<K>> x1, List<PathWeight<K>> x2) 
 	{
-		List<PathWeight<K>> sorted = new ArrayList<PathWeight<K>>();
-		for (PathWeight<K> pw1 : x1) for (PathWeight<K> pw2 : x2)
+		int n1 = x1.size();
+		int n2 = x2.size();
+		int max = (int) Math.min(k, (long) n1 * n2);
+		List<PathWeight<K>> product = new ArrayList<PathWeight<K>>(max);
+		if (max == 0) return product;
+		int[] is = new int[max + 1];
+		int[] js = new int[max + 1];
+		Object[] ws = new Object[max + 1];
+		int size = push(order, is, js, ws, 0, 0, 0, src.multiply(x1.get(0).weight, x2.get(0).weight));
+		while (product.size() < max)
 		{
-			if (storePath)
-			{
-				sorted.add(new PathWeight<K>(pw1, src.multiply(pw1.weight, pw2.weight), src, pw2.transition));
-			}
+			int i = is[0];
+			int j = js[0];
+			@SuppressWarnings("unchecked")
+			K w = (K) ws[0];
+			size--;
+			is[0] = is[size];
+			js[0] = js[size];
+			ws[0] = ws[size];
+			ws[size] = null;
+			siftDown(order, is, js, ws, size);
+			PathWeight<K> pw1 = x1.get(i);
+			if (storePath && arena != null && pw1.arena == arena)
+				product.add(new PathWeight<K>(arena, arena.record(pw1.handle, x2.get(j).lastTransition()), w, src));
+			else if (storePath)
+				product.add(new PathWeight<K>(pw1, w, src, x2.get(j).lastTransition()));
 			else
-			{
-				sorted.add(new PathWeight<K>(null, src.multiply(pw1.weight, pw2.weight), src, null));
-			}
+				product.add(new PathWeight<K>(null, w, src, null));
+			if (j == 0 && i + 1 < n1)
+				size = push(order, is, js, ws, size, i + 1, 0, src.multiply(x1.get(i + 1).weight, x2.get(0).weight));
+			if (j + 1 < n2)
+				size = push(order, is, js, ws, size, i, j + 1, src.multiply(pw1.weight, x2.get(j + 1).weight));
 		}
-		Collections.sort(sorted);
-		List<PathWeight<K>> sum = new ArrayList<PathWeight<K>>();
-		Iterator<PathWeight<K>> it = sorted.iterator();
-		while (sum.size() < k && it.hasNext())
-			sum.add(it.next());
-		return sum;	
+		return product;
 	}
 
+	/**
+	 * Merges the path weights in <code>x1</code> and <code>x2</code>, which are required to be sorted from best to worst,
+	 * and keeps the k best.
+	 * Equal path weights in <code>x1</code> precede those in <code>x2</code>.
+	 */
+
 	public List<PathWeight<K>> add(List<PathWeight<K>> x1, List<PathWeight<K>> x2) 
 	{
-		List<PathWeight<K>> sorted = new ArrayList<PathWeight<K>>(x1);
-		sorted.addAll(x2);
-		Collections.sort(sorted);
-		List<PathWeight<K>> sum = new ArrayList<PathWeight<K>>();
-		Iterator<PathWeight<K>> it = sorted.iterator();
-		while (sum.size() < k && it.hasNext())
-			sum.add(it.next());
+		int n1 = x1.size();
+		int n2 = x2.size();
+		int max = Math.min(k, n1 + n2);
+		List<PathWeight<K>> sum = new ArrayList<PathWeight<K>>(max);
+		int i = 0;
+		int j = 0;
+		while (sum.size() < max)
+		{
+			if (j == n2 || (i < n1 && order.compare(x2.get(j).weight, x1.get(i).weight) >= 0))
+				sum.add(x1.get(i++));
+			else
+				sum.add(x2.get(j++));
+		}
 		return sum;
 	}
 
 	public List<PathWeight<K>> one() 
 	{
-		PathWeight<K> pw = new PathWeight<K>(null, src.one(), src);		
+		PathWeight<K> pw = arena == null ? new PathWeight<K>(null, src.one(), src) : new PathWeight<K>(arena, -1, src.one(), src);
 		return Arrays.asList(pw);
 	}
 
@@ -93,5 +133,55 @@ public class KTropicalSemiring<K extends Comparable<K>> implements Semiring<List
 	{		
 		return k >= this.k - 1;
 	}
-	
+
+	private static <K extends Comparable<K>> boolean less(NaturalOrder<K> order, int[] is, int[] js, Object[] ws, int a, int b)
+	{
+		@SuppressWarnings("unchecked")
+		int c = order.compare((K) ws[a], (K) ws[b]);
+		if (c != 0) return c < 0;
+		return is[a] != is[b] ? is[a] < is[b] : js[a] < js[b];
+	}
+
+	private static void swap(int[] is, int[] js, Object[] ws, int a, int b)
+	{
+		int i = is[a];
+		is[a] = is[b];
+		is[b] = i;
+		int j = js[a];
+		js[a] = js[b];
+		js[b] = j;
+		Object w = ws[a];
+		ws[a] = ws[b];
+		ws[b] = w;
+	}
+
+	private static <K extends Comparable<K>> int push(NaturalOrder<K> order, int[] is, int[] js, Object[] ws, int size, int i, int j, K w)
+	{
+		is[size] = i;
+		js[size] = j;
+		ws[size] = w;
+		int pos = size;
+		while (pos > 0)
+		{
+			int parent = (pos - 1) >>> 1;
+			if (! less(order, is, js, ws, pos, parent)) break;
+			swap(is, js, ws, pos, parent);
+			pos = parent;
+		}
+		return size + 1;
+	}
+
+	private static <K extends Comparable<K>> void siftDown(NaturalOrder<K> order, int[] is, int[] js, Object[] ws, int size)
+	{
+		int pos = 0;
+		while (true)
+		{
+			int child = 2 * pos + 1;
+			if (child >= size) break;
+			if (child + 1 < size && less(order, is, js, ws, child + 1, child)) child++;
+			if (! less(order, is, js, ws, child, pos)) break;
+			swap(is, js, ws, pos, child);
+			pos = child;
+		}
+	}
 }
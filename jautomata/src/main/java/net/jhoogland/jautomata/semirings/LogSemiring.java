@@ -11,28 +11,49 @@ package net.jhoogland.jautomata.semirings;
  * and its addition operation is <code>-log(exp(-x1)+exp(-x2))</code>
  * with identity <code>infinity</code>.
  * The multiplicative inverse is <code>-x</code>.
+ * The closure is <code>log(1 - exp(-x))</code>.
  * 
  * @author Jasper Hoogland
  *
  */
-public class LogSemiring implements Semifield<Double> 
+public class LogSemiring implements DoubleSemifield, ClosedSemiring<Double> 
 {
 	public Double multiply(Double x1, Double x2) 
 	{		
-		return x1 + x2;
+		return multiplyDouble(x1, x2);
 	}
 
 	public Double add(Double x1, Double x2) 
 	{		
-		return -Math.log(Math.exp(-x1) + Math.exp(-x2));
+		return addDouble(x1, x2);
 	}
 
 	public Double one() 
 	{		
-		return 0.0;
+		return oneDouble();
 	}
 
 	public Double zero() 
+	{		
+		return zeroDouble();
+	}
+	
+	public double multiplyDouble(double x1, double x2) 
+	{		
+		return x1 + x2;
+	}
+
+	public double addDouble(double x1, double x2) 
+	{		
+		return -Math.log(Math.exp(-x1) + Math.exp(-x2));
+	}
+
+	public double oneDouble() 
+	{		
+		return 0.0;
+	}
+
+	public double zeroDouble() 
 	{		
 		return Double.POSITIVE_INFINITY;
 	}
@@ -53,7 +74,23 @@ public class LogSemiring implements Semifield<Double>
 	}
 
 	public Double inverse(Double x) 
+	{		
+		return inverseDouble(x);
+	}
+
+	public double inverseDouble(double x) 
 	{		
 		return -x;
 	}
+	
+	/**
+	 * @return
+	 * <code>log(1 - exp(-x))</code> if <code>x &gt; 0</code>, 
+	 * and negative infinity otherwise
+	 */
+	
+	public Double star(Double x) 
+	{
+		return x > 0.0 ? Math.log(-Math.expm1(-x)) : Double.NEGATIVE_INFINITY;
+	}
 }
@@ -0,0 +1,40 @@
+package net.jhoogland.jautomata.semirings;
+
+import java.util.Comparator;
+
+/**
+ * 
+ * Orders the weights of a semiring over a {@link Comparable} type from best to worst. 
+ * The direction of the order is derived from the identities of the semiring:
+ * <code>one()</code> is better than <code>zero()</code>. 
+ * For example, in the tropical semiring smaller weights are better, 
+ * whereas in the Boolean semiring <code>true</code> is better than <code>false</code>.
+ * This is the same order as used by {@link PathWeight}.
+ * 
+ * @author Jasper Hoogland
+ *
+ * @param <K>
+ * weight type
+ */
+
+public class NaturalOrder<K extends Comparable<K>> implements Comparator<K> 
+{
+	private int sign;
+	
+	public NaturalOrder(Semiring<K> semiring) 
+	{
+		this.sign = semiring.zero().compareTo(semiring.one()) < 0 ? -1 : 1;
+	}
+	
+	/**
+	 * @return
+	 * a negative number if <code>w1</code> is better than <code>w2</code>,
+	 * a positive number if <code>w1</code> is worse than <code>w2</code>,
+	 * and zero otherwise
+	 */
+	
+	public int compare(K w1, K w2) 
+	{
+		return sign * w1.compareTo(w2);
+	}
+}
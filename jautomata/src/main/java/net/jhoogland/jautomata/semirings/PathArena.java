@@ -0,0 +1,130 @@
+package net.jhoogland.jautomata.semirings;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import net.jhoogland.jautomata.Hashing;
+
+/**
+ *
+ * An append-only store of path prefixes.
+ * Every record consists of the handle of its parent record (or <code>-1</code> for the empty path)
+ * and the last transition of the prefix.
+ * Records are interned: appending the same transition to the same parent twice returns the same handle,
+ * so two prefixes are equal if and only if their handles are equal.
+ * This is used by {@link KTropicalSemiring} to let {@link PathWeight} instances refer to their paths
+ * with an <code>int</code> handle instead of a chain of objects.
+ * The methods of this class are synchronized.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class PathArena
+{
+	private int[] parents;
+	private Object[] transitions;
+	private int size;
+	private int[] table;
+
+	public PathArena()
+	{
+		parents = new int[16];
+		transitions = new Object[16];
+		table = new int[32];
+		Arrays.fill(table, -1);
+	}
+
+	/**
+	 * @return
+	 * the handle of the prefix that consists of the prefix with the specified parent handle
+	 * followed by the specified transition.
+	 * A new record is created only if no such record exists.
+	 */
+
+	public synchronized int record(int parent, Object transition)
+	{
+		int mask = table.length - 1;
+		int slot = hash(parent, transition) & mask;
+		int h;
+		while ((h = table[slot]) >= 0)
+		{
+			if (parents[h] == parent && (transition == null ? transitions[h] == null : transition.equals(transitions[h]))) return h;
+			slot = (slot + 1) & mask;
+		}
+		h = size++;
+		if (h == parents.length)
+		{
+			parents = Arrays.copyOf(parents, 2 * h);
+			transitions = Arrays.copyOf(transitions, 2 * h);
+		}
+		parents[h] = parent;
+		transitions[h] = transition;
+		table[slot] = h;
+		if (2 * size > table.length) rehash();
+		return h;
+	}
+
+	/**
+	 * @return
+	 * the handle of the parent of the specified record, or <code>-1</code> if its parent is the empty path
+	 */
+
+	public synchronized int parent(int handle)
+	{
+		return parents[handle];
+	}
+
+	/**
+	 * @return
+	 * the last transition of the specified record
+	 */
+
+	public synchronized Object transition(int handle)
+	{
+		return transitions[handle];
+	}
+
+	/**
+	 * @return
+	 * the transitions of the prefix with the specified handle,
+	 * without the <code>null</code> transitions that mark multiplications with initial and final weights
+	 */
+
+	public synchronized List<Object> transitions(int handle)
+	{
+		LinkedList<Object> path = new LinkedList<Object>();
+		for (int h = handle; h >= 0; h = parents[h])
+			if (transitions[h] != null) path.addFirst(transitions[h]);
+		return path;
+	}
+
+	/**
+	 * @return
+	 * the number of records
+	 */
+
+	public synchronized int size()
+	{
+		return size;
+	}
+
+	private void rehash()
+	{
+		table = new int[2 * table.length];
+		Arrays.fill(table, -1);
+		int mask = table.length - 1;
+		for (int h = 0; h < size; h++)
+		{
+			int slot = hash(parents[h], transitions[h]) & mask;
+			while (table[slot] >= 0) slot = (slot + 1) & mask;
+			table[slot] = h;
+		}
+	}
+
+	private static int hash(int parent, Object transition)
+	{
+		return Hashing.mix(parent, transition == null ? 0 : transition.hashCode());
+	}
+}
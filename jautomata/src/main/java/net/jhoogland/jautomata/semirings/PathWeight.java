@@ -7,6 +7,9 @@ import net.jhoogland.jautomata.Path;
 
 /**
  * A chain of instances of this class specify a path over an automaton and its weight.
+ * Alternatively, the path is stored in a {@link PathArena} and is referred to by a handle,
+ * in which case <code>previous</code> and <code>transition</code> are not used.
+ * Path weights that refer to the same arena are compared and hashed in constant time.
  * 
  * @author Jasper Hoogland
  *
@@ -19,6 +22,8 @@ public class PathWeight<K extends Comparable<K>> implements Comparable<PathWeigh
 	public Object transition;
 	public K weight;
 	public Semiring<K> src;
+	public PathArena arena;
+	public int handle;
 	
 	public PathWeight(PathWeight<K> previous, K weight, Semiring<K> src) 
 	{
@@ -33,8 +38,32 @@ public class PathWeight<K extends Comparable<K>> implements Comparable<PathWeigh
 		this.transition = transition; 
 	}
 	
+	/**
+	 * Creates a path weight whose path is the record with the specified handle in the specified arena,
+	 * or the empty path if the handle is <code>-1</code>.
+	 */
+	
+	public PathWeight(PathArena arena, int handle, K weight, Semiring<K> src) 
+	{
+		this(null, weight, src);
+		this.arena = arena;
+		this.handle = handle;
+	}
+	
+	/**
+	 * @return
+	 * the last transition of the path, or <code>null</code> if the path is empty
+	 */
+	
+	public Object lastTransition()
+	{
+		if (arena == null) return transition;
+		return handle < 0 ? null : arena.transition(handle);
+	}
+	
 	public <L> Path<L, K> path(Automaton<L, K> automaton) 
 	{
+		if (arena != null) return new Path<L, K>(arena.transitions(handle), weight, automaton);
 		LinkedList<Object> transitions = new LinkedList<Object>();
 		PathWeight<K> cur = this;
 		while (cur != null)
@@ -53,6 +82,14 @@ public class PathWeight<K extends Comparable<K>> implements Comparable<PathWeigh
 //		return (int) Math.signum(this.weight - other.weight);
 	}
 	
+	/**
+	 * Two path weights are equal if their weights are equal and their paths consist of the same records,
+	 * i.e. the same transitions including the <code>null</code> transitions that mark multiplications with initial and final weights.
+	 * Path weights in the same arena are compared by handle.
+	 * Otherwise the records are compared from the end of the path,
+	 * so a path stored in an arena is equal to the same path stored as a chain.
+	 */
+	
 	@Override
 	public boolean equals(Object obj) 
 	{
@@ -61,18 +98,44 @@ public class PathWeight<K extends Comparable<K>> implements Comparable<PathWeigh
 		if (!(obj instanceof PathWeight))
 			return false;
 		PathWeight<?> other = (PathWeight<?>) obj;
-		return Objects.equals(this.previous, other.previous) && this.weight.equals(other.weight);
+		if (! this.weight.equals(other.weight))
+			return false;
+		if (arena != null && arena == other.arena)
+			return handle == other.handle;
+		return records().equals(other.records());
 	}
 	
 	@Override
 	public int hashCode()
 	{
-		return Objects.hash(previous, weight);
+		Object t = lastTransition();
+		return 31 * (t == null ? 0 : t.hashCode()) + weight.hashCode();
+	}
+	
+	/**
+	 * @return
+	 * the transitions of the records of the path from last to first, including <code>null</code> transitions.
+	 * The first element of a chain that has neither a predecessor nor a transition is the empty path.
+	 */
+	
+	private List<Object> records()
+	{
+		List<Object> records = new ArrayList<Object>();
+		PathWeight<?> cur = this;
+		while (cur != null && cur.arena == null && (cur.previous != null || cur.transition != null))
+		{
+			records.add(cur.transition);
+			cur = cur.previous;
+		}
+		if (cur != null && cur.arena != null)
+			for (int h = cur.handle; h >= 0; h = cur.arena.parent(h)) records.add(cur.arena.transition(h));
+		return records;
 	}
 	
 	@Override
 	public String toString()
 	{
+		if (arena != null) return getClass().getSimpleName() + "[handle=" + handle + ", weight=" + weight + "]";
 		return getClass().getSimpleName() + "[transition=" + transition + ", weight=" + weight + ", previous=" + previous + "]";
 	}
 }
@@ -10,34 +10,60 @@ package net.jhoogland.jautomata.semirings;
  * Its multiplication operation is <code>*</code> with identity <code>1</code>,
  * and its addition operation is <code>+</code> with identity <code>0</code>,
  * The multiplicative inverse is <code>1 / x</code>.
+ * The closure is <code>1 / (1 - x)</code>.
  * 
  * @author Jasper Hoogland
  * 
  */
 
-public class RealSemiring implements Semifield<Double>
+public class RealSemiring implements DoubleSemifield, ClosedSemiring<Double>
 {
 	public Double add(Double x1, Double x2) 
 	{		
-		return x1 + x2;
+		return addDouble(x1, x2);
 	}
 
 	public Double zero() 
 	{
-		return 0.0;
+		return zeroDouble();
 	}
 
 	public Double one() 
 	{
-		return 1.0;
+		return oneDouble();
 	}
 
 	public Double multiply(Double x1, Double x2) 
 	{
-		return x1 * x2;
+		return multiplyDouble(x1, x2);
 	}
 	
 	public Double inverse(Double x) 
+	{		
+		return inverseDouble(x);
+	}
+	
+	public double addDouble(double x1, double x2) 
+	{		
+		return x1 + x2;
+	}
+
+	public double zeroDouble() 
+	{
+		return 0.0;
+	}
+
+	public double oneDouble() 
+	{
+		return 1.0;
+	}
+
+	public double multiplyDouble(double x1, double x2) 
+	{
+		return x1 * x2;
+	}
+	
+	public double inverseDouble(double x) 
 	{		
 		return 1 / x;
 	}
@@ -72,4 +98,15 @@ public class RealSemiring implements Semifield<Double>
 	{
 		return false;
 	}
+	
+	/**
+	 * @return
+	 * <code>1 / (1 - x)</code> if <code>x &lt; 1</code>, 
+	 * and positive infinity otherwise
+	 */
+	
+	public Double star(Double x) 
+	{
+		return x < 1.0 ? 1.0 / (1.0 - x) : Double.POSITIVE_INFINITY;
+	}
 }
@@ -11,34 +11,60 @@ package net.jhoogland.jautomata.semirings;
  * Its multiplication operation is <code>+</code> with identity <code>0</code>,
  * and its addition operation is <code>min(x1, x2)</code> with identity <code>infinity</code>.
  * The multiplicative inverse is <code>-x</code>.
+ * The closure of a non-negative weight is <code>0</code>.
  * 
  * @author Jasper Hoogland
  *
  */
 
-public class TropicalSemiring implements Semifield<Double>
+public class TropicalSemiring implements DoubleSemifield, ClosedSemiring<Double>
 {	
 	public Double add(Double x1, Double x2) 
 	{
-		return Math.min(x1, x2);
+		return addDouble(x1, x2);
 	}
 
 	public Double zero() 
 	{
-		return Double.POSITIVE_INFINITY;
+		return zeroDouble();
 	}
 
 	public Double one() 
 	{
-		return 0.0;
+		return oneDouble();
 	}
 
 	public Double multiply(Double x1, Double x2) 
 	{
-		return x1 + x2;
+		return multiplyDouble(x1, x2);
 	}
 	
 	public Double inverse(Double x) 
+	{		
+		return inverseDouble(x);
+	}
+	
+	public double addDouble(double x1, double x2) 
+	{
+		return Math.min(x1, x2);
+	}
+
+	public double zeroDouble() 
+	{
+		return Double.POSITIVE_INFINITY;
+	}
+
+	public double oneDouble() 
+	{
+		return 0.0;
+	}
+
+	public double multiplyDouble(double x1, double x2) 
+	{
+		return x1 + x2;
+	}
+	
+	public double inverseDouble(double x) 
 	{		
 		return -x;
 	}
@@ -57,4 +83,15 @@ public class TropicalSemiring implements Semifield<Double>
 	{
 		return true;
 	}
+	
+	/**
+	 * @return
+	 * <code>0</code> if <code>x &gt;= 0</code>, 
+	 * and negative infinity otherwise
+	 */
+	
+	public Double star(Double x) 
+	{
+		return x >= 0.0 ? 0.0 : Double.NEGATIVE_INFINITY;
+	}
 }
@@ -0,0 +1,175 @@
+package net.jhoogland.jautomata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.semirings.NaturalOrder;
+import net.jhoogland.jautomata.semirings.RealSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of the best path and best strings searches of {@link Automata}.
+ * The results are compared with the paths of small random acyclic automata, which are enumerated exhaustively.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class AutomataTest
+{
+	/**
+	 * The best strings are distinct, they are the strings with the best string weights,
+	 * and their weights are the string weights.
+	 */
+
+	@Test
+	public void testBestStrings()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(21);
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 8, 20, 2, 0.2, RandomAutomata.WEIGHTS);
+			Map<List<Character>, Double> stringWeights = stringWeights(a);
+			List<Double> expected = new ArrayList<Double>(stringWeights.values());
+			Collections.sort(expected, new NaturalOrder<Double>(sr));
+			for (int k = 1; k <= expected.size() + 1; k++)
+			{
+				PathList<Character, Double> paths = Automata.bestStrings(a, k, 0);
+				assertFalse(paths.isTruncated());
+				assertEquals(expected.subList(0, Math.min(k, expected.size())), KShortestPathsTest.weights(paths));
+				Set<List<Character>> labels = new HashSet<List<Character>>();
+				for (Path<Character, Double> path : paths)
+				{
+					assertTrue(labels.add(path.label));
+					assertEquals(stringWeights.get(path.label), path.weight, 1e-9);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A best strings search that visits more than the maximum number of determinized states is reported as truncated.
+	 */
+
+	@Test
+	public void testBestStringsTruncation()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(22);
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 12, 30, 2, 0.2, RandomAutomata.WEIGHTS);
+			int numStrings = stringWeights(a).size();
+			if (numStrings < 2) continue;
+			PathList<Character, Double> truncated = Automata.bestStrings(a, numStrings, 1);
+			assertTrue(truncated.isTruncated());
+			assertTrue(truncated.size() < numStrings);
+			assertFalse(Automata.bestStrings(a, numStrings, 1000).isTruncated());
+		}
+	}
+
+	/**
+	 * The best path has the best path weight, with and without a heuristic, in the tropical and in the real semiring.
+	 */
+
+	@Test
+	public void testBestPath()
+	{
+		Random random = new Random(23);
+		Semiring<Double>[] semirings = new Semiring[] { new TropicalSemiring(), new RealSemiring() };
+		double[][] weights = { RandomAutomata.WEIGHTS, RandomAutomata.REAL_WEIGHTS };
+		for (int j = 0; j < semirings.length; j++) for (int i = 0; i < 30; i++)
+		{
+			Semiring<Double> sr = semirings[j];
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 8, 16, 2, 0.2, weights[j]);
+			List<Double> expected = KShortestPathsTest.sortedPathWeights(a);
+			Map<Object, Double> completionWeights = new HashMap<Object, Double>();
+			for (Object state : Automata.states(a))
+			{
+				Double c = bestCompletionWeight(a, state);
+				if (c != null) completionWeights.put(state, c);
+			}
+			Path<Character, Double> path = Automata.bestPath(a);
+			Path<Character, Double> guidedPath = Automata.bestPath(a, KShortestPaths.lookup(completionWeights));
+			if (expected.isEmpty())
+			{
+				assertNull(path);
+				assertNull(guidedPath);
+			}
+			else
+			{
+				assertNotNull(path);
+				assertEquals(expected.get(0), path.weight, 1e-9);
+				assertEquals(expected.get(0), guidedPath.weight, 1e-9);
+				assertEquals(KShortestPathsTest.pathWeight(a, guidedPath), guidedPath.weight, 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 * a map that assigns to every string of the specified acyclic automaton its string weight
+	 */
+
+	static Map<List<Character>, Double> stringWeights(Automaton<Character, Double> automaton)
+	{
+		Map<List<Character>, Double> weights = new HashMap<List<Character>, Double>();
+		for (Object s : automaton.initialStates())
+			addStringWeights(automaton, s, new ArrayList<Character>(), automaton.initialWeight(s), weights);
+		return weights;
+	}
+
+	private static void addStringWeights(Automaton<Character, Double> automaton, Object state, List<Character> label, Double weight, Map<List<Character>, Double> weights)
+	{
+		Semiring<Double> sr = automaton.semiring();
+		Double fw = sr.multiply(weight, automaton.finalWeight(state));
+		if (! sr.zero().equals(fw))
+		{
+			Double w = weights.get(label);
+			weights.put(new ArrayList<Character>(label), w == null ? fw : sr.add(w, fw));
+		}
+		for (Object t : automaton.transitionsOut(state))
+		{
+			List<Character> next = new ArrayList<Character>(label);
+			if (automaton.label(t) != null) next.add(automaton.label(t));
+			addStringWeights(automaton, automaton.to(t), next, sr.multiply(weight, automaton.transitionWeight(t)), weights);
+		}
+	}
+
+	/**
+	 * @return
+	 * the best weight of the paths from the specified state of an acyclic automaton to a final state,
+	 * or <code>null</code> if no final state can be reached
+	 */
+
+	static Double bestCompletionWeight(Automaton<Character, Double> automaton, Object state)
+	{
+		Semiring<Double> sr = automaton.semiring();
+		NaturalOrder<Double> order = new NaturalOrder<Double>(sr);
+		Double best = sr.zero().equals(automaton.finalWeight(state)) ? null : automaton.finalWeight(state);
+		for (Object t : automaton.transitionsOut(state))
+		{
+			Double c = bestCompletionWeight(automaton, automaton.to(t));
+			if (c == null) continue;
+			Double w = sr.multiply(automaton.transitionWeight(t), c);
+			if (best == null || order.compare(w, best) < 0) best = w;
+		}
+		return best;
+	}
+}
@@ -0,0 +1,46 @@
+package net.jhoogland.jautomata;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link BasicState}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class BasicStateTest
+{
+	/**
+	 * The grouped transitions are discarded when a transition is added to the outgoing transitions directly.
+	 */
+
+	@Test
+	public void testGroupsDiscardedAfterDirectAdd()
+	{
+		BasicState<Boolean> state = new BasicState<Boolean>(true, true);
+		state.transitionsOut().add("t0");
+		state.setTransitionsOutByKey(0, new HashMap<Object, Collection<Object>>());
+		state.setTransitionsOutByKey(2, new HashMap<Object, Collection<Object>>());
+		assertNotNull(state.transitionsOutByKey(0));
+		assertNotNull(state.transitionsOutByKey(2));
+		assertNull(state.transitionsOutByKey(1));
+
+		state.transitionsOut().add("t1");
+		assertNull(state.transitionsOutByKey(0));
+		assertNull(state.transitionsOutByKey(2));
+
+		Map<Object, Collection<Object>> groups = new HashMap<Object, Collection<Object>>();
+		state.setTransitionsOutByKey(0, groups);
+		assertNotNull(state.transitionsOutByKey(0));
+		state.clearTransitionsOutByKey();
+		assertNull(state.transitionsOutByKey(0));
+	}
+}
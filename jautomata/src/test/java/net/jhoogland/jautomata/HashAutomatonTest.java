@@ -0,0 +1,122 @@
+package net.jhoogland.jautomata;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.operations.AcceptorIntersection;
+import net.jhoogland.jautomata.operations.AcceptorIntersectionTest;
+import net.jhoogland.jautomata.operations.TransducerComposition;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of the lookup of transitions by label in {@link HashAutomaton} and {@link HashTransducer}.
+ * Intersections and compositions that look up the transitions by label are compared with those
+ * of the same operands without label lookup, which enumerate all transitions.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class HashAutomatonTest
+{
+	/**
+	 * The intersections of random automata with epsilon transitions and repeated labels,
+	 * with label lookup in both operands or in the first operand only,
+	 * have the string weights of the intersection without label lookup and the products of the string weights of the operands.
+	 */
+
+	@Test
+	public void testAcceptorIntersection()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(16);
+		for (int i = 0; i < 10; i++)
+		{
+			HashAutomaton<Character, Double> a1 = new HashAutomaton<Character, Double>(RandomAutomata.create(random, sr, 6, 24, 2, 0.2, RandomAutomata.WEIGHTS));
+			HashAutomaton<Character, Double> a2 = new HashAutomaton<Character, Double>(RandomAutomata.create(random, sr, 6, 24, 2, 0.2, RandomAutomata.WEIGHTS));
+			Automaton<Character, Double> both = new AcceptorIntersection<Character, Double>(a1, a2);
+			Automaton<Character, Double> first = new AcceptorIntersection<Character, Double>(a1, AcceptorIntersectionTest.withoutLabelLookup(a2));
+			Automaton<Character, Double> none = new AcceptorIntersection<Character, Double>(AcceptorIntersectionTest.withoutLabelLookup(a1), AcceptorIntersectionTest.withoutLabelLookup(a2));
+			for (String str : RandomAutomata.strings(2, 4))
+			{
+				double w = Automata.stringWeight(none, str);
+				assertEquals(str, sr.multiply(Automata.stringWeight(a1, str), Automata.stringWeight(a2, str)), w, 1e-9);
+				assertEquals(str, w, Automata.stringWeight(both, str), 1e-9);
+				assertEquals(str, w, Automata.stringWeight(first, str), 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * The compositions of random transducers with epsilon input and output labels and repeated labels,
+	 * which look up the transitions by output label in the first operand and by input label in the second,
+	 * map every input string to the weighted output strings of the composition without label lookup.
+	 */
+
+	@Test
+	public void testTransducerComposition()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(26);
+		for (int i = 0; i < 10; i++)
+		{
+			HashTransducer<Character, Character, Double> t1 = new HashTransducer<Character, Character, Double>(TransducerApplicationTest.transducer(random, sr, 5, 16, RandomAutomata.WEIGHTS));
+			HashTransducer<Character, Character, Double> t2 = new HashTransducer<Character, Character, Double>(TransducerApplicationTest.transducer(random, sr, 5, 16, RandomAutomata.WEIGHTS));
+			Automaton<TLabel<Character, Character>, Double> lookup = new TransducerComposition<Character, Character, Character, Double>(t1, t2);
+			Automaton<TLabel<Character, Character>, Double> none = new TransducerComposition<Character, Character, Character, Double>(AcceptorIntersectionTest.withoutLabelLookup(t1), AcceptorIntersectionTest.withoutLabelLookup(t2));
+			for (String input : RandomAutomata.strings(2, 2))
+			{
+				List<Character> string = Automata.toCharacterList(input);
+				Automaton<Character, Double> expected = Transducers.apply(none, string);
+				Automaton<Character, Double> actual = Transducers.apply(lookup, string);
+				for (String output : RandomAutomata.strings(2, 3))
+					assertEquals(input + " -> " + output, Automata.stringWeight(expected, output), Automata.stringWeight(actual, output), 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * Transitions that are added to a state after its transitions have been looked up by label
+	 * are found by later lookups and by intersections created afterwards.
+	 */
+
+	@Test
+	public void testTransitionAddedAfterLookup()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		EditableAutomaton<Character, Double> a = new EditableAutomaton<Character, Double>(sr);
+		int s0 = a.addState(0.0, sr.zero());
+		int s1 = a.addState(sr.zero(), 0.0);
+		a.addTransition(s0, s1, 'a', 1.0);
+		assertEquals(1, a.transitionsOut(s0, 'a').size());
+		assertEquals(0, a.transitionsOut(s0, 'b').size());
+		assertEquals(2.0, Automata.stringWeight(new AcceptorIntersection<Character, Double>(a, a), "a"), 0.0);
+
+		a.addTransition(s0, s1, 'b', 2.0);
+		a.addTransition(s0, s1, 'a', 0.5);
+		assertEquals(2, a.transitionsOut(s0, 'a').size());
+		assertEquals(1, a.transitionsOut(s0, 'b').size());
+		assertEquals(1.0, Automata.stringWeight(new AcceptorIntersection<Character, Double>(a, a), "a"), 0.0);
+		assertEquals(4.0, Automata.stringWeight(new AcceptorIntersection<Character, Double>(a, a), "b"), 0.0);
+
+		HashTransducer<Character, Character, Double> t = new HashTransducer<Character, Character, Double>(new HashMap<Object, BasicState<Double>>(), new HashMap<Object, BasicTransition<TLabel<Character, Character>, Double>>(), sr);
+		t.addState(0, 0.0, 0.0);
+		t.addTransition(0, 0, 0, new TLabel<Character, Character>('a', 'b'), 1.0);
+		assertEquals(1, t.transitionsOutI(0, 'a').size());
+		assertEquals(0, t.transitionsOutO(0, 'a').size());
+		assertEquals(1, t.transitionsOut(0, new TLabel<Character, Character>('a', 'b')).size());
+
+		t.addTransition(1, 0, 0, new TLabel<Character, Character>('a', 'a'), 2.0);
+		assertEquals(2, t.transitionsOutI(0, 'a').size());
+		assertEquals(1, t.transitionsOutO(0, 'a').size());
+		assertEquals(1, t.transitionsOut(0, new TLabel<Character, Character>('a', 'a')).size());
+		Automaton<Character, Double> outputs = Transducers.apply(new TransducerComposition<Character, Character, Character, Double>(t, t), "a");
+		assertEquals(4.0, Automata.stringWeight(outputs, "a"), 0.0);
+		assertEquals(3.0, Automata.stringWeight(outputs, "b"), 0.0);
+	}
+}
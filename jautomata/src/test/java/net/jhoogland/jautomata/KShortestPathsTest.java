@@ -0,0 +1,200 @@
+package net.jhoogland.jautomata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.semirings.NaturalOrder;
+import net.jhoogland.jautomata.semirings.RealSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link KShortestPaths} and {@link ShortestPathsSession}.
+ * The paths are compared with the paths of small random acyclic automata, which are enumerated exhaustively.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class KShortestPathsTest
+{
+	/**
+	 * The enumerator returns all paths from best to worst, with and without the best completion weights as heuristic,
+	 * and the weight of every path is the product of its initial, transition and final weights.
+	 */
+
+	@Test
+	public void testAllPaths()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(11);
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 8, 16, 2, 0.2, RandomAutomata.WEIGHTS);
+			List<Double> expected = sortedPathWeights(a);
+			assertEquals(expected, weights(new KShortestPaths<Character, Double>(a), 0));
+			assertEquals(expected, weights(new KShortestPaths<Character, Double>(a, null, 0), 0));
+			for (Path<Character, Double> path : paths(new KShortestPaths<Character, Double>(a), 0))
+				assertEquals(pathWeight(a, path), path.weight, 1e-9);
+		}
+	}
+
+	/**
+	 * If the prefixes ending in a state are extended at most <code>k</code> times, the <code>k</code> best paths are unchanged.
+	 */
+
+	@Test
+	public void testMaxPopsPerState()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(12);
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 8, 16, 2, 0.2, RandomAutomata.WEIGHTS);
+			List<Double> expected = sortedPathWeights(a);
+			for (int k = 1; k <= 4; k++)
+			{
+				KShortestPaths<Character, Double> kShortestPaths = new KShortestPaths<Character, Double>(a, KShortestPaths.lookup(KShortestPaths.bestCompletionWeights(a)), k);
+				assertEquals(expected.subList(0, Math.min(k, expected.size())), weights(kShortestPaths, k));
+			}
+		}
+	}
+
+	/**
+	 * A search that reaches more than the maximum number of states stops, and the paths found before are the best paths.
+	 */
+
+	@Test
+	public void testTruncation()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(13);
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 12, 30, 2, 0.2, RandomAutomata.WEIGHTS);
+			List<Double> expected = sortedPathWeights(a);
+			int numStates = Automata.states(a).size();
+
+			KShortestPaths<Character, Double> complete = new KShortestPaths<Character, Double>(a, null, 0, numStates);
+			assertEquals(expected, weights(complete, 0));
+			assertFalse(complete.isTruncated());
+
+			KShortestPaths<Character, Double> truncated = new KShortestPaths<Character, Double>(a, null, 0, 2);
+			List<Double> found = weights(truncated, 0);
+			assertEquals(numStates > 2, truncated.isTruncated());
+			assertEquals(expected.subList(0, found.size()), found);
+		}
+	}
+
+	/**
+	 * The paths of a session are the paths of a new search, however many paths are requested at a time,
+	 * and the paths found earlier are not computed again.
+	 */
+
+	@Test
+	public void testSession()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(14);
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 8, 16, 2, 0.2, RandomAutomata.WEIGHTS);
+			List<Double> expected = sortedPathWeights(a);
+			ShortestPathsSession<Character, Double> session = Automata.shortestPathsSession(a);
+			List<Path<Character, Double>> first = new ArrayList<Path<Character, Double>>(session.paths(2));
+			assertEquals(Math.min(2, expected.size()), session.numPaths());
+			List<Path<Character, Double>> more = session.paths(5);
+			for (int j = 0; j < first.size(); j++) assertSame(first.get(j), more.get(j));
+			assertEquals(expected.subList(0, Math.min(5, expected.size())), weights(more));
+			for (int j = 0; j < more.size(); j++) assertSame(more.get(j), session.path(j));
+			assertEquals(expected, weights(session.paths(expected.size() + 1)));
+			assertTrue(session.isExhausted());
+			assertNull(session.path(expected.size()));
+		}
+	}
+
+	/**
+	 * Automata over the real semiring are searched in the tropical semiring,
+	 * and the weights of the paths of a session are products in the real semiring.
+	 */
+
+	@Test
+	public void testRealSession()
+	{
+		RealSemiring sr = new RealSemiring();
+		Random random = new Random(15);
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 8, 16, 2, 0.2, RandomAutomata.REAL_WEIGHTS);
+			List<Double> expected = sortedPathWeights(a);
+			List<Double> found = weights(Automata.shortestPathsSession(a).paths(expected.size()));
+			assertEquals(expected.size(), found.size());
+			for (int j = 0; j < found.size(); j++) assertEquals(expected.get(j), found.get(j), 1e-9);
+		}
+	}
+
+	/**
+	 * @return
+	 * the weights of all complete paths of the specified acyclic automaton from best to worst
+	 */
+
+	static List<Double> sortedPathWeights(Automaton<Character, Double> automaton)
+	{
+		List<Double> weights = new ArrayList<Double>();
+		for (Object s : automaton.initialStates())
+			addPathWeights(automaton, s, automaton.initialWeight(s), weights);
+		Collections.sort(weights, new NaturalOrder<Double>(automaton.semiring()));
+		return weights;
+	}
+
+	private static void addPathWeights(Automaton<Character, Double> automaton, Object state, Double weight, List<Double> weights)
+	{
+		Semiring<Double> sr = automaton.semiring();
+		Double fw = sr.multiply(weight, automaton.finalWeight(state));
+		if (! sr.zero().equals(fw)) weights.add(fw);
+		for (Object t : automaton.transitionsOut(state))
+			addPathWeights(automaton, automaton.to(t), sr.multiply(weight, automaton.transitionWeight(t)), weights);
+	}
+
+	static double pathWeight(Automaton<Character, Double> automaton, Path<Character, Double> path)
+	{
+		Semiring<Double> sr = automaton.semiring();
+		Object state = path.transitions.isEmpty() ? automaton.initialStates().iterator().next() : automaton.from(path.transitions.get(0));
+		Double weight = automaton.initialWeight(state);
+		for (Object t : path)
+		{
+			weight = sr.multiply(weight, automaton.transitionWeight(t));
+			state = automaton.to(t);
+		}
+		return sr.multiply(weight, automaton.finalWeight(state));
+	}
+
+	static List<Path<Character, Double>> paths(KShortestPaths<Character, Double> kShortestPaths, int max)
+	{
+		List<Path<Character, Double>> paths = new ArrayList<Path<Character, Double>>();
+		while ((max == 0 || paths.size() < max) && kShortestPaths.hasNext()) paths.add(kShortestPaths.next());
+		return paths;
+	}
+
+	static List<Double> weights(KShortestPaths<Character, Double> kShortestPaths, int max)
+	{
+		return weights(paths(kShortestPaths, max));
+	}
+
+	static List<Double> weights(List<Path<Character, Double>> paths)
+	{
+		List<Double> weights = new ArrayList<Double>();
+		for (Path<Character, Double> path : paths) weights.add(path.weight);
+		return weights;
+	}
+}
@@ -0,0 +1,126 @@
+package net.jhoogland.jautomata;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.jhoogland.jautomata.semirings.BooleanSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * Random automata and strings for tests.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class RandomAutomata
+{
+	/**
+	 * Transition and final weights for random automata over the tropical semiring.
+	 */
+
+	public static final double[] WEIGHTS = { 0.0, 1.0, 2.0, 3.5 };
+
+	/**
+	 * Transition and final weights for random automata over the real semiring.
+	 */
+
+	public static final double[] REAL_WEIGHTS = { 0.1, 0.25, 0.5, 0.9 };
+
+	/**
+	 * @return
+	 * a random automaton over the labels <code>'a'</code>, <code>'b'</code>, ... with the specified number of labels,
+	 * in which state <code>0</code> is initial and every transition and final weight is drawn from the specified weights.
+	 * A transition has no label with the specified probability.
+	 */
+
+	public static CompactAutomaton<Character, Double> create(Random random, Semiring<Double> semiring, int numStates, int numTransitions,
+			int numLabels, double epsilonProbability, double[] weights)
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(semiring);
+		for (int s = 0; s < numStates; s++)
+			builder.addState(s == 0 ? semiring.one() : semiring.zero(), random.nextInt(3) == 0 ? weights[random.nextInt(weights.length)] : semiring.zero());
+		for (int t = 0; t < numTransitions; t++)
+		{
+			Character label = random.nextDouble() < epsilonProbability ? null : (char) ('a' + random.nextInt(numLabels));
+			builder.addTransition(random.nextInt(numStates), random.nextInt(numStates), label, weights[random.nextInt(weights.length)]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * a random acyclic automaton with the specified number of labels, 
+	 * in which state <code>0</code> is initial and every transition leads to a state with a higher number.
+	 * A transition has no label with the specified probability.
+	 */
+
+	public static CompactAutomaton<Character, Double> createAcyclic(Random random, Semiring<Double> semiring, int numStates, int numTransitions,
+			int numLabels, double epsilonProbability, double[] weights)
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(semiring);
+		for (int s = 0; s < numStates; s++)
+			builder.addState(s == 0 ? semiring.one() : semiring.zero(), random.nextInt(3) == 0 ? weights[random.nextInt(weights.length)] : semiring.zero());
+		for (int t = 0; t < numTransitions; t++)
+		{
+			Character label = random.nextDouble() < epsilonProbability ? null : (char) ('a' + random.nextInt(numLabels));
+			int from = random.nextInt(numStates - 1);
+			builder.addTransition(from, from + 1 + random.nextInt(numStates - 1 - from), label, weights[random.nextInt(weights.length)]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * a random deterministic automaton in which state <code>0</code> is initial
+	 * and every state has a transition for every label with probability <code>2/3</code>
+	 */
+
+	public static CompactAutomaton<Character, Double> deterministic(Random random, Semiring<Double> semiring, int numStates, int numLabels, double[] weights)
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(semiring);
+		for (int s = 0; s < numStates; s++)
+			builder.addState(s == 0 ? semiring.one() : semiring.zero(), random.nextInt(2) == 0 ? weights[random.nextInt(weights.length)] : semiring.zero());
+		for (int s = 0; s < numStates; s++)
+			for (int l = 0; l < numLabels; l++) if (random.nextInt(3) > 0)
+				builder.addTransition(s, random.nextInt(numStates), (char) ('a' + l), weights[random.nextInt(weights.length)]);
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * the unweighted automaton with the states and transitions of the specified automaton
+	 * whose weights are not the zero of its semiring
+	 */
+
+	public static CompactAutomaton<Character, Boolean> unweighted(CompactAutomaton<Character, Double> a)
+	{
+		Double zero = a.semiring().zero();
+		CompactAutomaton.Builder<Character, Boolean> builder = new CompactAutomaton.Builder<Character, Boolean>(new BooleanSemiring());
+		for (int s = 0; s < a.numStates(); s++)
+			builder.addState(! zero.equals(a.initialWeight(s)), ! zero.equals(a.finalWeight(s)));
+		for (int s = 0; s < a.numStates(); s++)
+			for (int t = a.outStart(s); t < a.outEnd(s); t++)
+				builder.addTransition(s, a.toState(t), a.labelId(t) < 0 ? null : a.labelOf(a.labelId(t)), ! zero.equals(a.transitionWeight(t)));
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * all strings over the specified number of labels with at most the specified length
+	 */
+
+	public static List<String> strings(int numLabels, int maxLength)
+	{
+		List<String> strings = new ArrayList<String>();
+		strings.add("");
+		for (int i = 0; i < strings.size(); i++)
+		{
+			String str = strings.get(i);
+			if (str.length() < maxLength)
+				for (int l = 0; l < numLabels; l++) strings.add(str + (char) ('a' + l));
+		}
+		return strings;
+	}
+}
@@ -0,0 +1,102 @@
+package net.jhoogland.jautomata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.queues.DefaultQueueFactory;
+import net.jhoogland.jautomata.semirings.LogSemiring;
+import net.jhoogland.jautomata.semirings.RealSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+
+/**
+ * Tests of {@link SCCShortestDistances}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class SCCShortestDistancesTest
+{
+	static final int[] COMPONENT_SIZES = { 1, 3, 1, 6 };
+
+	/**
+	 * @return
+	 * a random automaton whose states form a chain of strongly connected components with the sizes in {@link #COMPONENT_SIZES},
+	 * each a cycle with random chords, in which every transition weight is a probability of at most <code>0.1</code>
+	 * (or its negative logarithm, if <code>log</code> is <code>true</code>)
+	 */
+
+	static CompactAutomaton<Character, Double> componentChain(Random random, Semiring<Double> sr, boolean log)
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(sr);
+		int first = 0;
+		for (int c = 0; c < COMPONENT_SIZES.length; c++)
+		{
+			int n = COMPONENT_SIZES[c];
+			for (int i = 0; i < n; i++) builder.addState(c == 0 ? sr.one() : sr.zero(), c == COMPONENT_SIZES.length - 1 ? sr.one() : sr.zero());
+			for (int i = 0; i < n; i++)
+			{
+				builder.addTransition(first + i, first + (i + 1) % n, 'a', weight(random, log));
+				builder.addTransition(first + i, first + random.nextInt(n), 'b', weight(random, log));
+			}
+			if (c > 0)
+			{
+				builder.addTransition(first - 1, first, 'c', weight(random, log));
+				builder.addTransition(first - 1, first + random.nextInt(n), 'd', weight(random, log));
+			}
+			first += n;
+		}
+		return builder.build();
+	}
+
+	static double weight(Random random, boolean log)
+	{
+		double p = 0.01 + 0.09 * random.nextDouble();
+		return log ? - Math.log(p) : p;
+	}
+
+	static void assertSameDistances(CompactAutomaton<Character, Double> a, int maxClosureSize)
+	{
+		Object source = a.initialStates().iterator().next();
+		Map<Object, Double> expected = new SingleSourceShortestDistances<Double>(new DefaultQueueFactory<Double>(), new ExactConvergence<Double>())
+				.computeShortestDistances(a, source);
+		Map<Object, Double> actual = new SCCShortestDistances<Double>(new ExactConvergence<Double>(), maxClosureSize)
+				.computeShortestDistances(a, source);
+		for (Object s : Automata.states(a))
+		{
+			Double w = expected.get(s);
+			assertNotNull(w);
+			assertNotNull(actual.get(s));
+			assertEquals(w, actual.get(s), 1e-9 * Math.max(1.0, Math.abs(w)));
+		}
+	}
+
+	/**
+	 * The distances computed with the closure of every component, with the closure of the components of at most three states,
+	 * and with the relaxation algorithm in every component with more than one state,
+	 * are the distances computed by {@link SingleSourceShortestDistances}, in the real and log semirings.
+	 */
+
+	@Test
+	public void testCyclicAutomata()
+	{
+		Random random = new Random(11);
+		Semiring<Double> real = new RealSemiring();
+		Semiring<Double> log = new LogSemiring();
+		for (int i = 0; i < 10; i++)
+		{
+			CompactAutomaton<Character, Double> a1 = componentChain(random, real, false);
+			CompactAutomaton<Character, Double> a2 = componentChain(random, log, true);
+			for (int maxClosureSize : new int[] { 64, 3, 1 })
+			{
+				assertSameDistances(a1, maxClosureSize);
+				assertSameDistances(a2, maxClosureSize);
+			}
+		}
+	}
+}
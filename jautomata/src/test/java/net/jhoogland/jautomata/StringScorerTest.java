@@ -0,0 +1,111 @@
+package net.jhoogland.jautomata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.semirings.RealSemiring;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link StringScorer}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class StringScorerTest
+{
+	/**
+	 * Checks that the scores of all strings of at most four labels, some with a label that is not in the automaton,
+	 * are the string weights of the automaton, and that the batch scores are in the order of the strings.
+	 */
+
+	static <K> void assertScores(Automaton<Character, K> a, StringScorer<Character, K> scorer)
+	{
+		List<List<Character>> strings = new ArrayList<List<Character>>();
+		for (String str : RandomAutomata.strings(3, 4))
+		{
+			strings.add(Automata.toCharacterList(str));
+			strings.add(Automata.toCharacterList(str + "z"));
+		}
+		List<K> scores = scorer.scoreAll(strings);
+		for (int i = 0; i < strings.size(); i++)
+		{
+			K expected = Automata.stringWeight(a, strings.get(i));
+			K score = scorer.score(strings.get(i));
+			if (expected instanceof Double)
+			{
+				assertEquals((Double) expected, (Double) score, 1e-9);
+				assertEquals((Double) expected, scorer.scoreDouble(strings.get(i)), 1e-9);
+				assertEquals((Double) expected, (Double) scores.get(i), 1e-9);
+			}
+			else
+			{
+				assertEquals(expected, score);
+				assertEquals(expected, scores.get(i));
+			}
+		}
+	}
+
+	/**
+	 * The unique path of a string is followed in deterministic automata,
+	 * on primitive <code>double</code> weights and on boxed weights.
+	 */
+
+	@Test
+	public void testDeterministic()
+	{
+		Random random = new Random(7);
+		for (int i = 0; i < 10; i++)
+		{
+			CompactAutomaton<Character, Double> a1 = RandomAutomata.deterministic(random, new TropicalSemiring(), 6, 3, RandomAutomata.WEIGHTS);
+			StringScorer<Character, Double> s1 = new StringScorer<Character, Double>(a1);
+			assertTrue(s1.isDeterministic());
+			assertScores(a1, s1);
+
+			CompactAutomaton<Character, Double> a2 = RandomAutomata.deterministic(random, new RealSemiring(), 6, 3, RandomAutomata.REAL_WEIGHTS);
+			StringScorer<Character, Double> s2 = new StringScorer<Character, Double>(a2);
+			assertTrue(s2.isDeterministic());
+			assertScores(a2, s2);
+
+			CompactAutomaton<Character, Boolean> a3 = RandomAutomata.unweighted(a1);
+			StringScorer<Character, Boolean> s3 = new StringScorer<Character, Boolean>(a3);
+			assertTrue(s3.isDeterministic());
+			assertScores(a3, s3);
+		}
+	}
+
+	/**
+	 * The weights of the paths of a string are propagated as sparse vectors in nondeterministic automata,
+	 * also after the removal of epsilon transitions, on primitive <code>double</code> weights and on boxed weights.
+	 */
+
+	@Test
+	public void testSparse()
+	{
+		Random random = new Random(13);
+		for (int i = 0; i < 10; i++)
+		{
+			CompactAutomaton<Character, Double> a1 = RandomAutomata.create(random, new TropicalSemiring(), 6, 24, 3, 0.2, RandomAutomata.WEIGHTS);
+			StringScorer<Character, Double> s1 = new StringScorer<Character, Double>(a1);
+			assertFalse(s1.isDeterministic());
+			assertScores(a1, s1);
+
+			CompactAutomaton<Character, Double> a2 = RandomAutomata.create(random, new RealSemiring(), 6, 24, 3, 0.0, RandomAutomata.REAL_WEIGHTS);
+			StringScorer<Character, Double> s2 = new StringScorer<Character, Double>(a2);
+			assertFalse(s2.isDeterministic());
+			assertScores(a2, s2);
+
+			CompactAutomaton<Character, Boolean> a3 = RandomAutomata.unweighted(RandomAutomata.create(random, new TropicalSemiring(), 6, 24, 3, 0.2, RandomAutomata.WEIGHTS));
+			StringScorer<Character, Boolean> s3 = new StringScorer<Character, Boolean>(a3);
+			assertScores(a3, s3);
+		}
+	}
+}
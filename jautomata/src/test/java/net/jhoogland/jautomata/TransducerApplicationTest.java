@@ -0,0 +1,132 @@
+package net.jhoogland.jautomata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.semirings.RealSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link TransducerApplication}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class TransducerApplicationTest
+{
+	/**
+	 * @return
+	 * a random transducer over the input and output labels <code>'a'</code> and <code>'b'</code>,
+	 * in which state <code>0</code> is initial and the input and output labels of a transition are epsilon
+	 * with probability <code>1/4</code> each
+	 */
+
+	static CompactAutomaton<TLabel<Character, Character>, Double> transducer(Random random, Semiring<Double> sr, int numStates, int numTransitions, double[] weights)
+	{
+		CompactAutomaton.Builder<TLabel<Character, Character>, Double> builder = new CompactAutomaton.Builder<TLabel<Character, Character>, Double>(sr);
+		for (int s = 0; s < numStates; s++)
+			builder.addState(s == 0 ? sr.one() : sr.zero(), random.nextInt(3) == 0 ? weights[random.nextInt(weights.length)] : sr.zero());
+		for (int t = 0; t < numTransitions; t++)
+		{
+			Character in = random.nextInt(4) == 0 ? null : (char) ('a' + random.nextInt(2));
+			Character out = random.nextInt(4) == 0 ? null : (char) ('a' + random.nextInt(2));
+			TLabel<Character, Character> label = in == null && out == null && random.nextBoolean() ? null : new TLabel<Character, Character>(in, out);
+			builder.addTransition(random.nextInt(numStates), random.nextInt(numStates), label, weights[random.nextInt(weights.length)]);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Checks that the output acceptor of every input string of at most three labels, some with the unknown label <code>'z'</code>,
+	 * has the weighted output strings of the acceptor returned by <code>Transducers.apply</code>.
+	 */
+
+	static void assertSameOutputs(CompactAutomaton<TLabel<Character, Character>, Double> transducer)
+	{
+		TransducerApplication<Character, Character, Double> application = new TransducerApplication<Character, Character, Double>(transducer);
+		for (String input : new String[] { "", "a", "b", "ab", "ba", "aab", "z", "az", "zb" })
+		{
+			List<Character> string = Automata.toCharacterList(input);
+			Automaton<Character, Double> expected = Transducers.apply(transducer, string);
+			CompactAutomaton<Character, Double> actual = application.apply(string);
+			for (String output : RandomAutomata.strings(2, 4))
+			{
+				double w = Automata.stringWeight(expected, output);
+				assertEquals(input + " -> " + output, w, Automata.stringWeight(actual, output), 1e-9 * Math.max(1.0, Math.abs(w)));
+			}
+		}
+	}
+
+	/**
+	 * The output acceptors of random transducers with epsilon input and epsilon output labels
+	 * have the weighted output strings of the acceptors returned by <code>Transducers.apply</code>.
+	 */
+
+	@Test
+	public void testRandomTransducers()
+	{
+		Random random = new Random(19);
+		for (int i = 0; i < 20; i++)
+		{
+			assertSameOutputs(transducer(random, new TropicalSemiring(), 5, 16, RandomAutomata.WEIGHTS));
+			assertSameOutputs(transducer(random, new RealSemiring(), 5, 16, RandomAutomata.REAL_WEIGHTS));
+		}
+	}
+
+	/**
+	 * A string with a label that is not an input label of the transducer has no outputs,
+	 * and the outputs of the epsilon input transitions are added around the known labels.
+	 */
+
+	@Test
+	public void testUnknownInputLabel()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		CompactAutomaton.Builder<TLabel<Character, Character>, Double> builder = new CompactAutomaton.Builder<TLabel<Character, Character>, Double>(sr);
+		int s0 = builder.addState(0.0, 0.0);
+		builder.addTransition(s0, s0, new TLabel<Character, Character>('a', 'b'), 1.0);
+		builder.addTransition(s0, s0, new TLabel<Character, Character>(null, 'a'), 2.0);
+		TransducerApplication<Character, Character, Double> application = new TransducerApplication<Character, Character, Double>(builder.build());
+
+		CompactAutomaton<Character, Double> outputs = application.apply(Automata.toCharacterList("az"));
+		assertEquals(0, outputs.numStates());
+		assertEquals(sr.zero(), Automata.stringWeight(outputs, "b"));
+		assertEquals(5.0, Automata.stringWeight(application.apply(Automata.toCharacterList("a")), "aba"), 0.0);
+	}
+
+	/**
+	 * Applying strings to random transducers with beam pruning yields the output strings and weights of the application
+	 * without pruning if the beam prunes nothing, and otherwise only output strings with weights that are not better.
+	 */
+
+	@Test
+	public void testPrunedApplication()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(15);
+		for (int i = 0; i < 20; i++)
+		{
+			CompactAutomaton<TLabel<Character, Character>, Double> transducer = transducer(random, sr, 5, 16, RandomAutomata.WEIGHTS);
+			for (String input : new String[] { "", "a", "ab", "bba", "abab" })
+			{
+				List<Character> string = Automata.toCharacterList(input);
+				Automaton<Character, Double> exact = Transducers.apply(transducer, string);
+				Automaton<Character, Double> generous = Transducers.apply(transducer, string, 1000.0, 1000);
+				Automaton<Character, Double> narrow = Transducers.apply(transducer, string, 1.0, 2);
+				for (String output : RandomAutomata.strings(2, 4))
+				{
+					double w = Automata.stringWeight(exact, output);
+					assertEquals(input + " -> " + output, w, Automata.stringWeight(generous, output), 1e-9);
+					assertTrue(input + " -> " + output, Automata.stringWeight(narrow, output) >= w - 1e-9);
+				}
+			}
+		}
+	}
+}
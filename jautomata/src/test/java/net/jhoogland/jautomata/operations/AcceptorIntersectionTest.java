@@ -0,0 +1,202 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.Automata;
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.RandomAutomata;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link AcceptorIntersection} and the state table of {@link Intersection}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class AcceptorIntersectionTest
+{
+	/**
+	 * The string weights of the intersection are the products of the string weights of the operands,
+	 * and every state is interned once, also if the intersection is traversed by concurrent threads.
+	 */
+
+	@Test
+	public void testConcurrentTraversal() throws Exception
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(17);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try
+		{
+			for (int i = 0; i < 20; i++)
+			{
+				CompactAutomaton<Character, Double> a1 = RandomAutomata.create(random, sr, 12, 30, 2, 0.0, RandomAutomata.WEIGHTS);
+				CompactAutomaton<Character, Double> a2 = RandomAutomata.create(random, sr, 12, 30, 2, 0.0, RandomAutomata.WEIGHTS);
+				final AcceptorIntersection<Character, Double> intersection = new AcceptorIntersection<Character, Double>(a1, a2, true);
+				List<Future<Integer>> numStates = new ArrayList<Future<Integer>>();
+				for (int j = 0; j < 4; j++) numStates.add(executor.submit(new Callable<Integer>()
+				{
+					public Integer call()
+					{
+						return Automata.states(intersection).size();
+					}
+				}));
+				int expected = Automata.states(new AcceptorIntersection<Character, Double>(a1, a2)).size();
+				for (Future<Integer> n : numStates) assertEquals(expected, (int) n.get());
+				assertEquals(expected, intersection.numInternedStates());
+				for (String str : RandomAutomata.strings(2, 5))
+					assertEquals(sr.multiply(Automata.stringWeight(a1, str), Automata.stringWeight(a2, str)), Automata.stringWeight(intersection, str), 1e-9);
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * The states are interned until the table is cleared, and the states created afterwards are equal to the released states.
+	 */
+
+	@Test
+	public void testClearInternedStates()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		CompactAutomaton<Character, Double> a1 = RandomAutomata.create(new Random(3), sr, 8, 20, 2, 0.0, RandomAutomata.WEIGHTS);
+		AcceptorIntersection<Character, Double> intersection = new AcceptorIntersection<Character, Double>(a1, a1, true);
+		Object initialState = intersection.initialStates().iterator().next();
+		assertSame(initialState, intersection.initialStates().iterator().next());
+		int numStates = Automata.states(intersection).size();
+		assertEquals(numStates, intersection.numInternedStates());
+
+		intersection.clearInternedStates();
+		assertEquals(0, intersection.numInternedStates());
+		assertEquals(initialState, intersection.initialStates().iterator().next());
+		assertEquals(numStates, Automata.states(intersection).size());
+	}
+
+	/**
+	 * An intersection that is not created to intern its states keeps none of them,
+	 * and its states are equal to the states of an intersection that interns them.
+	 */
+
+	@Test
+	public void testStatesNotInternedByDefault()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		CompactAutomaton<Character, Double> a1 = RandomAutomata.create(new Random(5), sr, 8, 20, 2, 0.2, RandomAutomata.WEIGHTS);
+		AcceptorIntersection<Character, Double> intersection = new AcceptorIntersection<Character, Double>(a1, a1);
+		AcceptorIntersection<Character, Double> interned = new AcceptorIntersection<Character, Double>(a1, a1, true);
+		assertEquals(new HashSet<Object>(Automata.states(interned)), new HashSet<Object>(Automata.states(intersection)));
+		assertEquals(0, intersection.numInternedStates());
+		assertEquals(Automata.states(interned).size(), interned.numInternedStates());
+		for (String str : RandomAutomata.strings(2, 4))
+			assertEquals(Automata.stringWeight(interned, str), Automata.stringWeight(intersection, str), 1e-9);
+	}
+
+	/**
+	 * If neither operand supports lookup by label, the transitions are grouped by label in a buffer,
+	 * and the product transitions are the same as those found by looking up the transitions of the operands by label.
+	 * The states have more transitions than the buffer has initial capacity for labels, and labels occur repeatedly.
+	 * The string weights are the products of the string weights of the operands.
+	 */
+
+	@Test
+	public void testGroupingWithoutLabelLookup() throws Exception
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(29);
+		for (int i = 0; i < 10; i++)
+		{
+			CompactAutomaton<Integer, Double> a1 = randomAutomaton(random, sr);
+			CompactAutomaton<Integer, Double> a2 = randomAutomaton(random, sr);
+			final AcceptorIntersection<Integer, Double> intersection = new AcceptorIntersection<Integer, Double>(withoutLabelLookup(a1), withoutLabelLookup(a2));
+			final AcceptorIntersection<Integer, Double> lookup = new AcceptorIntersection<Integer, Double>(a1, a2);
+			
+			// Every check runs in a new thread, so the buffer of the thread grows while the transitions are compared.
+			
+			ExecutorService executor = Executors.newSingleThreadExecutor();
+			try
+			{
+				executor.submit(new Callable<Void>()
+				{
+					public Void call()
+					{
+						List<Object> states = new ArrayList<Object>(intersection.initialStates());
+						Set<Object> visited = new HashSet<Object>(states);
+						for (int j = 0; j < states.size(); j++)
+						{
+							Collection<Object> transitionsOut = intersection.transitionsOut(states.get(j));
+							assertEquals(count(lookup.transitionsOut(states.get(j))), count(transitionsOut));
+							for (Object transition : transitionsOut)
+								if (visited.add(intersection.to(transition))) states.add(intersection.to(transition));
+						}
+						return null;
+					}
+				}).get();
+			}
+			finally
+			{
+				executor.shutdown();
+			}
+			for (int j = 0; j < 20; j++)
+			{
+				List<Integer> string = new ArrayList<Integer>();
+				for (int k = random.nextInt(3); k > 0; k--) string.add(random.nextInt(40));
+				assertEquals(sr.multiply(Automata.stringWeight(a1, string), Automata.stringWeight(a2, string)), Automata.stringWeight(intersection, string), 1e-9);
+			}
+		}
+	}
+
+	static CompactAutomaton<Integer, Double> randomAutomaton(Random random, TropicalSemiring sr)
+	{
+		CompactAutomaton.Builder<Integer, Double> builder = new CompactAutomaton.Builder<Integer, Double>(sr);
+		for (int s = 0; s < 4; s++) builder.addState(s == 0 ? sr.one() : sr.zero(), s == 3 ? sr.one() : sr.zero());
+		for (int t = 0; t < 4 * 88; t++)
+		{
+			Integer label = random.nextInt(10) == 0 ? null : random.nextInt(40);
+			builder.addTransition(t / 88, random.nextInt(4), label, RandomAutomata.WEIGHTS[random.nextInt(RandomAutomata.WEIGHTS.length)]);
+		}
+		return builder.build();
+	}
+
+	public static <L> Automaton<L, Double> withoutLabelLookup(Automaton<L, Double> automaton)
+	{
+		return new LabelConversion<L, L, Double>(automaton)
+		{
+			public L newLabel(L label)
+			{
+				return label;
+			}
+		};
+	}
+
+	static Map<Object, Integer> count(Iterable<Object> transitions)
+	{
+		Map<Object, Integer> counts = new HashMap<Object, Integer>();
+		for (Object transition : transitions)
+		{
+			Integer count = counts.get(transition);
+			counts.put(transition, count == null ? 1 : count + 1);
+		}
+		return counts;
+	}
+}
@@ -0,0 +1,126 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link CachedAutomaton}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class CachedAutomatonTest
+{
+	/**
+	 * @return
+	 * a cycle of five states, in which every state has three transitions to the next state
+	 */
+
+	static CompactAutomaton<Character, Double> cycle()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(sr);
+		for (int s = 0; s < 5; s++) builder.addState(s == 0 ? sr.one() : sr.zero(), (double) s);
+		for (int s = 0; s < 5; s++)
+			for (char c = 'a'; c <= 'c'; c++) builder.addTransition(s, (s + 1) % 5, c, s + (c - 'a') / 2.0);
+		return builder.build();
+	}
+
+	/**
+	 * The least recently used state is evicted if there are more states than the maximum number of states.
+	 */
+
+	@Test
+	public void testMaxStates()
+	{
+		CachedAutomaton<Character, Double> cached = new CachedAutomaton<Character, Double>(cycle(), 2, 0);
+		expand(cached, 0, 1, 2);
+		assertCounts(cached, 0, 3, 2, 6);
+		expand(cached, 1);
+		assertCounts(cached, 1, 3, 2, 6);
+		expand(cached, 0);
+		assertCounts(cached, 1, 4, 2, 6);
+		expand(cached, 1);
+		assertCounts(cached, 2, 4, 2, 6);
+		expand(cached, 2);
+		assertCounts(cached, 2, 5, 2, 6);
+		expand(cached, 0);
+		assertCounts(cached, 2, 6, 2, 6);
+
+		cached.clear();
+		assertCounts(cached, 0, 0, 0, 0);
+	}
+
+	/**
+	 * The least recently used states are evicted if the expanded states have more transitions than the maximum number of transitions,
+	 * but the state that was expanded last is kept.
+	 */
+
+	@Test
+	public void testMaxTransitions()
+	{
+		CachedAutomaton<Character, Double> cached = new CachedAutomaton<Character, Double>(cycle(), 0, 7);
+		expand(cached, 0, 1, 2);
+		assertCounts(cached, 0, 3, 2, 6);
+		expand(cached, 2, 1);
+		assertCounts(cached, 2, 3, 2, 6);
+		expand(cached, 0);
+		assertCounts(cached, 2, 4, 2, 6);
+		expand(cached, 2);
+		assertCounts(cached, 2, 5, 2, 6);
+
+		cached = new CachedAutomaton<Character, Double>(cycle(), 0, 2);
+		expand(cached, 0, 1);
+		assertCounts(cached, 0, 2, 1, 3);
+		expand(cached, 1);
+		assertCounts(cached, 1, 2, 1, 3);
+	}
+
+	/**
+	 * Transitions that were returned before their source state was evicted still have the source, target, label and weight
+	 * of the transition of the operand.
+	 */
+
+	@Test
+	public void testEvictedTransitions()
+	{
+		CompactAutomaton<Character, Double> operand = cycle();
+		CachedAutomaton<Character, Double> cached = new CachedAutomaton<Character, Double>(operand, 1, 0);
+		List<Object> transitions = new ArrayList<Object>(cached.transitionsOut(0));
+		expand(cached, 1, 2, 3);
+		assertEquals(1, cached.numCachedStates());
+		List<Object> operandTransitions = new ArrayList<Object>(operand.transitionsOut(0));
+		assertEquals(operandTransitions.size(), transitions.size());
+		for (int i = 0; i < transitions.size(); i++)
+		{
+			Object t = transitions.get(i);
+			Object operandTransition = operandTransitions.get(i);
+			assertEquals(operand.from(operandTransition), cached.from(t));
+			assertEquals(operand.to(operandTransition), cached.to(t));
+			assertEquals(operand.label(operandTransition), cached.label(t));
+			assertEquals(operand.transitionWeight(operandTransition), cached.transitionWeight(t));
+		}
+		assertEquals(transitions, new ArrayList<Object>(cached.transitionsOut(0)));
+	}
+
+	private static void expand(CachedAutomaton<Character, Double> cached, int... states)
+	{
+		for (int s : states) cached.transitionsOut(s);
+	}
+
+	private static void assertCounts(CachedAutomaton<Character, Double> cached, long hits, long misses, int numStates, long numTransitions)
+	{
+		assertEquals(hits, cached.hits());
+		assertEquals(misses, cached.misses());
+		assertEquals(numStates, cached.numCachedStates());
+		assertEquals(numTransitions, cached.numCachedTransitions());
+	}
+}
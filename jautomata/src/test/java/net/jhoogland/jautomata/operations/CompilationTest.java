@@ -0,0 +1,86 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.RandomAutomata;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link Compilation}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class CompilationTest
+{
+	/**
+	 * With deterministic numbering, the compiled automaton is identical to the automaton built by the constructor of {@link CompactAutomaton}.
+	 * Without it, the numbering may differ, but the compiled automaton is renumbered to the same automaton by the constructor.
+	 * The operands are intersections with hundreds of states, so the levels of the traversal are expanded by several tasks.
+	 */
+
+	@Test
+	public void testCompile()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(31);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			for (int i = 0; i < 10; i++)
+			{
+				CompactAutomaton<Character, Double> a1 = RandomAutomata.create(random, sr, 30, 150, 3, 0.1, RandomAutomata.WEIGHTS);
+				CompactAutomaton<Character, Double> a2 = RandomAutomata.create(random, sr, 30, 150, 3, 0.1, RandomAutomata.WEIGHTS);
+				AcceptorIntersection<Character, Double> src = new AcceptorIntersection<Character, Double>(a1, a2);
+				CompactAutomaton<Character, Double> expected = new CompactAutomaton<Character, Double>(src);
+				assertTrue(expected.numStates() > 100);
+
+				assertIdentical(expected, Compilation.compile(src, true, pool));
+				CompactAutomaton<Character, Double> compiled = Compilation.compile(src, false, pool);
+				assertEquals(expected.numStates(), compiled.numStates());
+				assertIdentical(expected, new CompactAutomaton<Character, Double>(compiled));
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Asserts that the specified automata have the same states and transitions with the same numbers, labels and weights.
+	 */
+
+	static <L, K> void assertIdentical(CompactAutomaton<L, K> expected, CompactAutomaton<L, K> actual)
+	{
+		assertEquals(expected.numStates(), actual.numStates());
+		assertEquals(expected.numTransitions(), actual.numTransitions());
+		for (int s = 0; s < expected.numStates(); s++)
+		{
+			assertEquals(expected.initialWeight(s), actual.initialWeight(s));
+			assertEquals(expected.finalWeight(s), actual.finalWeight(s));
+			assertEquals(expected.outStart(s), actual.outStart(s));
+			assertEquals(expected.outEnd(s), actual.outEnd(s));
+		}
+		for (int t = 0; t < expected.numTransitions(); t++)
+		{
+			assertEquals(expected.toState(t), actual.toState(t));
+			assertEquals(label(expected, t), label(actual, t));
+			assertEquals(expected.transitionWeight(t), actual.transitionWeight(t));
+		}
+	}
+
+	private static <L, K> L label(CompactAutomaton<L, K> automaton, int transition)
+	{
+		int labelId = automaton.labelId(transition);
+		return labelId < 0 ? null : automaton.labelOf(labelId);
+	}
+}
@@ -0,0 +1,312 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.Automata;
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.RandomAutomata;
+import net.jhoogland.jautomata.semirings.RealSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link Determinization}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class DeterminizationTest
+{
+	/**
+	 * @return
+	 * a cyclic automaton with two transitions from the initial state to the same target with the same label,
+	 * and two states reached by the same string with cycles of the same weight, so it is determinizable
+	 */
+
+	static CompactAutomaton<Character, Double> duplicateTargets(Semiring<Double> sr, double w1, double w2, double w3)
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(sr);
+		int s0 = builder.addState(sr.one(), sr.zero());
+		int s1 = builder.addState(sr.zero(), sr.zero());
+		int s2 = builder.addState(sr.zero(), w1);
+		int s3 = builder.addState(sr.zero(), sr.one());
+		builder.addTransition(s0, s1, 'a', w1);
+		builder.addTransition(s0, s2, 'a', w2);
+		builder.addTransition(s0, s1, 'a', w3);
+		builder.addTransition(s1, s1, 'b', w2);
+		builder.addTransition(s2, s2, 'b', w2);
+		builder.addTransition(s1, s3, 'c', w3);
+		builder.addTransition(s2, s3, 'c', w1);
+		builder.addTransition(s2, s3, 'c', w2);
+		builder.addTransition(s2, s0, 'd', w3);
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * an automaton in which every label leads from the initial state to the same two states,
+	 * with remainder weights that differ by less than <code>1e-5</code> between the labels
+	 */
+
+	static CompactAutomaton<Character, Double> nearEqualRemainders(Semiring<Double> sr)
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(sr);
+		int s0 = builder.addState(sr.one(), sr.zero());
+		int s1 = builder.addState(sr.zero(), 0.0);
+		int s2 = builder.addState(sr.zero(), 0.25);
+		for (int k = 0; k < 3; k++)
+		{
+			builder.addTransition(s0, s1, (char) ('a' + k), 0.5);
+			builder.addTransition(s0, s2, (char) ('a' + k), 1.5 + k * 1e-6);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Checks that the states reached from the initial states by at most the specified number of transitions
+	 * have at most one outgoing transition per label, and that there is at most one initial state.
+	 */
+
+	static <K> void assertDeterministic(Automaton<Character, K> automaton, int maxDepth)
+	{
+		assertTrue(automaton.initialStates().size() <= 1);
+		Collection<Object> states = automaton.initialStates();
+		for (int d = 0; d <= maxDepth; d++)
+		{
+			List<Object> next = new ArrayList<Object>();
+			for (Object s : states)
+			{
+				Set<Character> labels = new HashSet<Character>();
+				for (Object t : automaton.transitionsOut(s))
+				{
+					assertTrue(labels.add(automaton.label(t)));
+					next.add(automaton.to(t));
+				}
+			}
+			states = next;
+		}
+	}
+
+	static void assertSameStringWeights(Automaton<Character, Double> expected, Automaton<Character, Double> actual, int numLabels, int maxLength)
+	{
+		for (String str : RandomAutomata.strings(numLabels, maxLength))
+		{
+			double w = Automata.stringWeight(expected, str);
+			assertEquals(str, w, Automata.stringWeight(actual, str), 1e-9 * Math.max(1.0, Math.abs(w)));
+		}
+	}
+
+	/**
+	 * The string weights of the determinization of random epsilon-free cyclic automata
+	 * are the string weights of the operand.
+	 */
+
+	@Test
+	public void testRandomAutomata()
+	{
+		Random random = new Random(5);
+		Semiring<Double> tropical = new TropicalSemiring();
+		Semiring<Double> real = new RealSemiring();
+		for (int i = 0; i < 20; i++)
+		{
+			CompactAutomaton<Character, Double> a1 = RandomAutomata.create(random, tropical, 6, 24, 2, 0.0, RandomAutomata.WEIGHTS);
+			Automaton<Character, Double> d1 = Operations.determinize(a1);
+			assertSameStringWeights(a1, d1, 2, 5);
+			assertDeterministic(d1, 5);
+
+			CompactAutomaton<Character, Double> a2 = RandomAutomata.create(random, real, 6, 24, 2, 0.0, RandomAutomata.REAL_WEIGHTS);
+			Automaton<Character, Double> d2 = Operations.determinize(a2);
+			assertSameStringWeights(a2, d2, 2, 5);
+			assertDeterministic(d2, 5);
+		}
+	}
+
+	/**
+	 * Transitions with the same label to the same target are merged, and their weights are added.
+	 */
+
+	@Test
+	public void testDuplicateTargets()
+	{
+		CompactAutomaton<Character, Double> a1 = duplicateTargets(new TropicalSemiring(), 1.0, 2.0, 0.5);
+		Automaton<Character, Double> d1 = Operations.determinize(a1);
+		assertSameStringWeights(a1, d1, 4, 5);
+		assertDeterministic(d1, 5);
+		assertEquals(1.0, Automata.stringWeight(d1, "ac"), 0.0);
+
+		CompactAutomaton<Character, Double> a2 = duplicateTargets(new RealSemiring(), 0.5, 0.25, 0.125);
+		Automaton<Character, Double> d2 = Operations.determinize(a2);
+		assertSameStringWeights(a2, d2, 4, 5);
+		assertDeterministic(d2, 5);
+		assertEquals(0.625 * 0.125 + 0.25 * 0.75, Automata.stringWeight(d2, "ac"), 1e-12);
+	}
+
+	/**
+	 * Subsets whose remainder weights are rounded to the same multiples of the quantization step are the same state,
+	 * and the weight error is only reported if the remainder weights are rounded.
+	 */
+
+	@Test
+	public void testQuantization()
+	{
+		CompactAutomaton<Character, Double> a = nearEqualRemainders(new TropicalSemiring());
+		Determinization<Character, Double> exact = Operations.determinize(a, 0.0);
+		Automata.states(exact);
+		assertEquals(4, exact.numSubsets());
+		assertEquals(0.0, exact.maxWeightError(), 0.0);
+
+		Determinization<Character, Double> quantized = Operations.determinize(a, 0.01);
+		Automata.states(quantized);
+		assertEquals(2, quantized.numSubsets());
+		assertTrue(quantized.maxWeightError() > 0.0);
+		assertTrue(quantized.maxWeightError() <= 0.005);
+		assertStringWeightErrors(a, quantized, 3, 1);
+	}
+
+	/**
+	 * The string weights of the quantized determinization of random automata differ from the string weights of the operand
+	 * by at most the reported weight error for every remainder weight on the path, and exact determinizations report no error.
+	 */
+
+	@Test
+	public void testRandomQuantization()
+	{
+		Random random = new Random(6);
+		Semiring<Double> sr = new TropicalSemiring();
+		double[] weights = { 0.0, 0.13, 0.71, 1.37 };
+		boolean rounded = false;
+		for (int i = 0; i < 20; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.create(random, sr, 6, 24, 2, 0.0, weights);
+			Determinization<Character, Double> exact = Operations.determinize(a, 0.0);
+			assertSameStringWeights(a, exact, 2, 5);
+			assertEquals(0.0, exact.maxWeightError(), 0.0);
+
+			Determinization<Character, Double> quantized = Operations.determinize(a, 0.1);
+			assertStringWeightErrors(a, quantized, 2, 5);
+			assertTrue(quantized.maxWeightError() <= 0.05 + 1e-12);
+			assertDeterministic(quantized, 5);
+			rounded |= quantized.maxWeightError() > 0.0;
+		}
+		assertTrue(rounded);
+	}
+
+	/**
+	 * Checks that the string weights of a quantized tropical determinization differ from the string weights of the operand
+	 * by at most the reported weight error for every subset on the path of the string.
+	 */
+
+	static void assertStringWeightErrors(Automaton<Character, Double> operand, Determinization<Character, Double> quantized, int numLabels, int maxLength)
+	{
+		for (String str : RandomAutomata.strings(numLabels, maxLength))
+		{
+			double w = Automata.stringWeight(operand, str);
+			double q = Automata.stringWeight(quantized, str);
+			if (Double.isInfinite(w)) assertEquals(str, w, q, 0.0);
+			else assertEquals(str, w, q, (str.length() + 1) * quantized.maxWeightError() + 1e-9);
+		}
+	}
+
+	/**
+	 * The parallel determinization has the string weights and the number of states of the lazy determinization.
+	 */
+
+	@Test
+	public void testParallelDeterminization()
+	{
+		CompactAutomaton<Character, Double> a1 = duplicateTargets(new TropicalSemiring(), 1.0, 2.0, 0.5);
+		CompactAutomaton<Character, Double> p1 = Operations.determinizeParallel(a1);
+		assertSameStringWeights(a1, p1, 4, 6);
+		assertDeterministic(p1, 6);
+		assertEquals(Automata.states(Operations.determinize(a1)).size(), Automata.states(p1).size());
+
+		CompactAutomaton<Character, Double> a2 = duplicateTargets(new RealSemiring(), 0.5, 0.25, 0.125);
+		CompactAutomaton<Character, Double> p2 = Operations.determinizeParallel(a2);
+		assertSameStringWeights(a2, p2, 4, 6);
+		assertDeterministic(p2, 6);
+		assertEquals(Automata.states(Operations.determinize(a2)).size(), Automata.states(p2).size());
+	}
+
+	/**
+	 * The parallel determinization of random acyclic automata with hundreds of states, whose breadth-first levels
+	 * are expanded by several tasks, is identical to the compilation of a new lazy determinization with deterministic numbering,
+	 * so the numbering is the same in every run.
+	 */
+
+	@Test
+	public void testWideParallelDeterminization()
+	{
+		Random random = new Random(24);
+		Semiring<Double> sr = new TropicalSemiring();
+		int maxLevelWidth = 0;
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try
+		{
+			for (int i = 0; i < 5; i++)
+			{
+				CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 300, 900, 3, 0.0, RandomAutomata.WEIGHTS);
+				CompactAutomaton<Character, Double> expected = Operations.compile(new Determinization<Character, Double>(a), true);
+				assertEquals(Automata.states(Operations.determinize(a)).size(), expected.numStates());
+				assertSameStringWeights(a, expected, 3, 4);
+				for (int run = 0; run < 3; run++)
+				{
+					CompilationTest.assertIdentical(expected, Operations.determinizeParallel(a));
+					CompilationTest.assertIdentical(expected, Compilation.compile(new Determinization<Character, Double>(a), true, pool));
+				}
+				maxLevelWidth = Math.max(maxLevelWidth, maxLevelWidth(expected));
+			}
+		}
+		finally
+		{
+			pool.shutdown();
+		}
+		assertTrue(maxLevelWidth > 100);
+	}
+
+	/**
+	 * @return
+	 * the largest number of states at the same distance in transitions from the initial state
+	 */
+
+	static int maxLevelWidth(CompactAutomaton<Character, Double> automaton)
+	{
+		int[] levels = new int[automaton.numStates()];
+		Arrays.fill(levels, -1);
+		int[] widths = new int[automaton.numStates() + 1];
+		List<Integer> front = new ArrayList<Integer>();
+		for (Object s : automaton.initialStates())
+		{
+			levels[(Integer) s] = 0;
+			front.add((Integer) s);
+		}
+		for (int i = 0; i < front.size(); i++)
+		{
+			int s = front.get(i);
+			widths[levels[s]]++;
+			for (int t = automaton.outStart(s); t < automaton.outEnd(s); t++)
+			{
+				int next = automaton.toState(t);
+				if (levels[next] >= 0) continue;
+				levels[next] = levels[s] + 1;
+				front.add(next);
+			}
+		}
+		int maxWidth = 0;
+		for (int width : widths) maxWidth = Math.max(maxWidth, width);
+		return maxWidth;
+	}
+}
@@ -0,0 +1,190 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.Automata;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.RandomAutomata;
+import net.jhoogland.jautomata.semirings.BooleanSemiring;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link Minimization}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class MinimizationTest
+{
+	/**
+	 * @return
+	 * a deterministic automaton with two copies of every state of the specified automaton,
+	 * in which every transition leads to a random copy of its target,
+	 * so it is equivalent to the specified automaton
+	 */
+
+	static <K> CompactAutomaton<Character, K> duplicate(Random random, CompactAutomaton<Character, K> a)
+	{
+		int n = a.numStates();
+		CompactAutomaton.Builder<Character, K> builder = new CompactAutomaton.Builder<Character, K>(a.semiring());
+		for (int c = 0; c < 2; c++)
+			for (int s = 0; s < n; s++) builder.addState(c == 0 ? a.initialWeight(s) : a.semiring().zero(), a.finalWeight(s));
+		for (int c = 0; c < 2; c++)
+			for (int s = 0; s < n; s++)
+				for (int t = a.outStart(s); t < a.outEnd(s); t++)
+					builder.addTransition(c * n + s, random.nextInt(2) * n + a.toState(t), a.labelOf(a.labelId(t)), a.transitionWeight(t));
+		return builder.build();
+	}
+
+	/**
+	 * The initial state is in the same block as a state with a lower number.
+	 */
+
+	@Test
+	public void testInitialStateNotFirstInBlock()
+	{
+		CompactAutomaton.Builder<Character, Boolean> builder = new CompactAutomaton.Builder<Character, Boolean>(new BooleanSemiring());
+		int s0 = builder.addState(false, true);
+		int s1 = builder.addState(true, true);
+		builder.addTransition(s1, s0, 'a', true);
+		builder.addTransition(s0, s0, 'a', true);
+		CompactAutomaton<Character, Boolean> a = builder.build();
+
+		CompactAutomaton<Character, Boolean> m = Operations.minimize(a);
+		assertEquals(1, m.numStates());
+		assertEquals(1, m.initialStates().size());
+		for (String str : new String[] { "", "a", "aaa" })
+			assertEquals(Automata.stringWeight(a, str), Automata.stringWeight(m, str));
+		assertEquals(false, Automata.stringWeight(m, "b"));
+	}
+
+	/**
+	 * Two equivalent branches are merged, and the string weights are preserved.
+	 */
+
+	@Test
+	public void testTropicalBranchesMerged()
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(new TropicalSemiring());
+		double inf = Double.POSITIVE_INFINITY;
+		int s0 = builder.addState(0.0, inf);
+		int s1 = builder.addState(inf, inf);
+		int s2 = builder.addState(inf, inf);
+		int s3 = builder.addState(inf, 1.0);
+		builder.addTransition(s0, s1, 'a', 1.0);
+		builder.addTransition(s0, s2, 'b', 2.0);
+		builder.addTransition(s1, s3, 'c', 3.0);
+		builder.addTransition(s2, s3, 'c', 3.0);
+		CompactAutomaton<Character, Double> a = builder.build();
+
+		CompactAutomaton<Character, Double> m = Operations.minimize(a);
+		assertEquals(3, m.numStates());
+		for (String str : new String[] { "", "ac", "bc", "a", "cc" })
+			assertEquals(Automata.stringWeight(a, str), Automata.stringWeight(m, str), 1e-9);
+	}
+
+	/**
+	 * The minimization of a random deterministic automaton in which every state is duplicated
+	 * has as many states as the minimization of the original automaton, cannot be minimized further,
+	 * and has the string weights of both automata.
+	 * Unweighted minimizations have as many states as the partition computed by the algorithm of Moore.
+	 */
+
+	@Test
+	public void testDuplicatedRandomDFAs()
+	{
+		Random random = new Random(25);
+		TropicalSemiring tropical = new TropicalSemiring();
+		for (int i = 0; i < 50; i++)
+		{
+			CompactAutomaton<Character, Double> a1 = RandomAutomata.deterministic(random, tropical, 10, 3, RandomAutomata.WEIGHTS);
+			CompactAutomaton<Character, Double> m1 = Operations.minimize(a1);
+			CompactAutomaton<Character, Double> d1 = Operations.minimize(duplicate(random, a1));
+			assertEquals(m1.numStates(), d1.numStates());
+			assertEquals(d1.numStates(), Operations.minimize(d1).numStates());
+			assertTrue(d1.numStates() <= Automata.states(a1).size());
+			for (String str : RandomAutomata.strings(3, 5))
+			{
+				assertEquals(str, Automata.stringWeight(a1, str), Automata.stringWeight(m1, str), 1e-9);
+				assertEquals(str, Automata.stringWeight(a1, str), Automata.stringWeight(d1, str), 1e-9);
+			}
+
+			CompactAutomaton<Character, Boolean> a2 = RandomAutomata.unweighted(RandomAutomata.deterministic(random, tropical, 10, 3, RandomAutomata.WEIGHTS));
+			CompactAutomaton<Character, Boolean> m2 = Operations.minimize(a2);
+			CompactAutomaton<Character, Boolean> d2 = Operations.minimize(duplicate(random, a2));
+			assertEquals(numMooreClasses(a2), m2.numStates());
+			assertEquals(m2.numStates(), d2.numStates());
+			assertEquals(d2.numStates(), Operations.minimize(d2).numStates());
+			assertTrue(d2.numStates() <= Automata.states(a2).size());
+			for (String str : RandomAutomata.strings(3, 5))
+			{
+				assertEquals(str, Automata.stringWeight(a2, str), Automata.stringWeight(m2, str));
+				assertEquals(str, Automata.stringWeight(a2, str), Automata.stringWeight(d2, str));
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 * the number of classes of equivalent states of the specified deterministic unweighted automaton
+	 * among the states that are on a path from the initial state to a final state,
+	 * computed by refining the partition into final and other states until it is stable
+	 */
+
+	static int numMooreClasses(CompactAutomaton<Character, Boolean> a)
+	{
+		int n = a.numStates();
+		boolean[] reachable = new boolean[n];
+		boolean[] coreachable = new boolean[n];
+		reachable[(Integer) a.initialStates().iterator().next()] = true;
+		for (int s = 0; s < n; s++) coreachable[s] = a.finalWeight(s);
+		for (boolean changed = true; changed; )
+		{
+			changed = false;
+			for (int s = 0; s < n; s++)
+				for (int t = a.outStart(s); t < a.outEnd(s); t++)
+				{
+					if (reachable[s] && ! reachable[a.toState(t)]) changed = reachable[a.toState(t)] = true;
+					if (coreachable[a.toState(t)] && ! coreachable[s]) changed = coreachable[s] = true;
+				}
+		}
+
+		int[] blocks = new int[n];
+		for (int s = 0; s < n; s++) blocks[s] = a.finalWeight(s) ? 1 : 0;
+		int numBlocks = 0;
+		while (true)
+		{
+			Map<List<Integer>, Integer> signatures = new HashMap<List<Integer>, Integer>();
+			int[] next = new int[n];
+			for (int s = 0; s < n; s++)
+			{
+				if (! reachable[s] || ! coreachable[s]) continue;
+				List<Integer> signature = new ArrayList<Integer>();
+				signature.add(blocks[s]);
+				for (char c = 'a'; c <= 'z'; c++)
+				{
+					int target = -1;
+					for (int t = a.outStart(s); t < a.outEnd(s); t++)
+						if (Character.valueOf(c).equals(a.labelOf(a.labelId(t))) && coreachable[a.toState(t)]) target = blocks[a.toState(t)];
+					signature.add(target);
+				}
+				Integer block = signatures.get(signature);
+				if (block == null) signatures.put(signature, block = signatures.size());
+				next[s] = block;
+			}
+			blocks = next;
+			if (signatures.size() == numBlocks) return numBlocks;
+			numBlocks = signatures.size();
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.RandomAutomata;
+import net.jhoogland.jautomata.semirings.BooleanSemiring;
+
+/**
+ * Tests of {@link PowersetDeterminization}.
+ * The strings accepted by the result are compared with the strings accepted by the operand,
+ * which are found by a simulation of the operand on sets of states.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class PowersetDeterminizationTest
+{
+	/**
+	 * @return
+	 * an automaton with an epsilon cycle between the initial state and state <code>1</code>,
+	 * an epsilon transition and a labeled transition with weight <code>false</code>,
+	 * and an epsilon self-loop on the final state
+	 */
+
+	static CompactAutomaton<Character, Boolean> epsilonCycle()
+	{
+		CompactAutomaton.Builder<Character, Boolean> builder = new CompactAutomaton.Builder<Character, Boolean>(new BooleanSemiring());
+		int s0 = builder.addState(true, false);
+		int s1 = builder.addState(false, false);
+		int s2 = builder.addState(false, true);
+		int s3 = builder.addState(false, true);
+		builder.addTransition(s0, s1, null, true);
+		builder.addTransition(s1, s0, null, true);
+		builder.addTransition(s1, s2, 'a', true);
+		builder.addTransition(s0, s3, 'b', false);
+		builder.addTransition(s2, s3, null, false);
+		builder.addTransition(s2, s2, null, true);
+		builder.addTransition(s2, s1, 'b', true);
+		return builder.build();
+	}
+
+	/**
+	 * @return
+	 * a random automaton over the specified number of labels with a random set of initial states, which may be empty.
+	 * A transition has no label with the specified probability, and has weight <code>false</code> with probability <code>0.2</code>.
+	 */
+
+	static CompactAutomaton<Character, Boolean> random(Random random, int numStates, int numTransitions, int numLabels, double epsilonProbability)
+	{
+		CompactAutomaton.Builder<Character, Boolean> builder = new CompactAutomaton.Builder<Character, Boolean>(new BooleanSemiring());
+		for (int s = 0; s < numStates; s++) builder.addState(random.nextInt(4) == 0, random.nextInt(3) == 0);
+		for (int t = 0; t < numTransitions; t++)
+		{
+			Character label = random.nextDouble() < epsilonProbability ? null : (char) ('a' + random.nextInt(numLabels));
+			builder.addTransition(random.nextInt(numStates), random.nextInt(numStates), label, random.nextInt(5) != 0);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * The result accepts the strings with the epsilon cycle and ignores the transitions with weight <code>false</code>.
+	 */
+
+	@Test
+	public void testEpsilonCycle()
+	{
+		CompactAutomaton<Character, Boolean> a = epsilonCycle();
+		CompactAutomaton<Character, Boolean> d = PowersetDeterminization.determinize(a);
+		assertSameAcceptance(a, d, 2, 6);
+		assertTrue(accepts(d, "aba"));
+		assertFalse(accepts(d, "b"));
+		assertEquals(2, d.numStates());
+	}
+
+	/**
+	 * An automaton without initial states, or with initial weights <code>false</code> only, is determinized to
+	 * a single initial state that accepts no strings.
+	 */
+
+	@Test
+	public void testNoInitialStates()
+	{
+		CompactAutomaton.Builder<Character, Boolean> builder = new CompactAutomaton.Builder<Character, Boolean>(new BooleanSemiring());
+		int s0 = builder.addState(false, true);
+		builder.addTransition(s0, s0, 'a', true);
+		builder.addTransition(s0, s0, null, true);
+		CompactAutomaton<Character, Boolean> a = builder.build();
+		assertEquals(0, a.initialStates().size());
+
+		CompactAutomaton<Character, Boolean> d = PowersetDeterminization.determinize(a);
+		assertSameAcceptance(a, d, 1, 3);
+		assertEquals(1, d.numStates());
+		assertEquals(0, d.numTransitions());
+		assertEquals(1, d.initialStates().size());
+		assertEquals(0, d.finalStates().size());
+
+		d = PowersetDeterminization.determinize(new Union<Character, Boolean>(a, a));
+		assertSameAcceptance(a, d, 1, 3);
+		assertEquals(1, d.numStates());
+	}
+
+	/**
+	 * The result of random automata with epsilon transitions, epsilon cycles and transitions with weight <code>false</code>
+	 * accepts the strings accepted by the operand.
+	 */
+
+	@Test
+	public void testRandomAutomata()
+	{
+		Random random = new Random(7);
+		for (int i = 0; i < 50; i++)
+		{
+			CompactAutomaton<Character, Boolean> a = random(random, 8, 20, 2, 0.3);
+			CompactAutomaton<Character, Boolean> d = PowersetDeterminization.determinize(a);
+			assertSameAcceptance(a, d, 2, 6);
+		}
+	}
+
+	/**
+	 * Checks that the specified result is deterministic without epsilon transitions,
+	 * and that it accepts the strings up to the specified length that the operand accepts.
+	 */
+
+	static void assertSameAcceptance(CompactAutomaton<Character, Boolean> operand, CompactAutomaton<Character, Boolean> result, int numLabels, int maxLength)
+	{
+		assertEquals(1, result.initialStates().size());
+		for (int s = 0; s < result.numStates(); s++)
+		{
+			Set<Character> labels = new HashSet<Character>();
+			for (Object t : result.transitionsOut(s))
+			{
+				assertTrue(result.label(t) != null);
+				assertTrue(result.transitionWeight(t));
+				assertTrue(labels.add(result.label(t)));
+			}
+		}
+		for (String str : RandomAutomata.strings(numLabels, maxLength))
+			assertEquals(str, accepts(operand, str), accepts(result, str));
+	}
+
+	/**
+	 * @return
+	 * true if and only if the specified automaton accepts the specified string,
+	 * using only the initial states, final states and transitions with weight <code>true</code>
+	 */
+
+	static boolean accepts(CompactAutomaton<Character, Boolean> automaton, String str)
+	{
+		Set<Integer> states = new HashSet<Integer>();
+		for (Object s : automaton.initialStates())
+			if (automaton.initialWeight(s)) states.add((Integer) s);
+		states = closure(automaton, states);
+		for (int i = 0; i < str.length(); i++)
+		{
+			Set<Integer> next = new HashSet<Integer>();
+			for (int s : states)
+				for (Object t : automaton.transitionsOut(s))
+					if (automaton.transitionWeight(t) && Character.valueOf(str.charAt(i)).equals(automaton.label(t)))
+						next.add((Integer) automaton.to(t));
+			states = closure(automaton, next);
+		}
+		for (int s : states) if (automaton.finalWeight(s)) return true;
+		return false;
+	}
+
+	private static Set<Integer> closure(CompactAutomaton<Character, Boolean> automaton, Set<Integer> states)
+	{
+		Set<Integer> closure = new HashSet<Integer>(states);
+		List<Integer> stack = new ArrayList<Integer>(states);
+		while (! stack.isEmpty())
+		{
+			int s = stack.remove(stack.size() - 1);
+			for (Object t : automaton.transitionsOut(s))
+				if (automaton.label(t) == null && automaton.transitionWeight(t) && closure.add((Integer) automaton.to(t)))
+					stack.add((Integer) automaton.to(t));
+		}
+		return closure;
+	}
+}
@@ -0,0 +1,163 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.Automata;
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.ExactConvergence;
+import net.jhoogland.jautomata.Path;
+import net.jhoogland.jautomata.RandomAutomata;
+import net.jhoogland.jautomata.SingleSourceShortestDistances;
+import net.jhoogland.jautomata.queues.DefaultQueueFactory;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link PrunedAcceptorIntersection}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class PrunedAcceptorIntersectionTest
+{
+	/**
+	 * A state is expanded to the same transitions after the best weight of the depth of its targets has improved.
+	 */
+
+	@Test
+	public void testExpansionIsFixed()
+	{
+		double inf = Double.POSITIVE_INFINITY;
+		TropicalSemiring sr = new TropicalSemiring();
+		CompactAutomaton.Builder<Character, Double> builder1 = new CompactAutomaton.Builder<Character, Double>(sr);
+		int s0 = builder1.addState(0.0, inf);
+		int s1 = builder1.addState(inf, inf);
+		int s2 = builder1.addState(inf, inf);
+		int s3 = builder1.addState(inf, 0.0);
+		int s4 = builder1.addState(inf, 0.0);
+		builder1.addTransition(s0, s1, 'a', 1.0);
+		builder1.addTransition(s0, s2, 'b', 2.0);
+		builder1.addTransition(s1, s3, 'c', 8.0);
+		builder1.addTransition(s2, s4, 'd', 0.0);
+		CompactAutomaton.Builder<Character, Double> builder2 = new CompactAutomaton.Builder<Character, Double>(sr);
+		int t0 = builder2.addState(0.0, 0.0);
+		for (char c = 'a'; c <= 'd'; c++) builder2.addTransition(t0, t0, c, 0.0);
+
+		PrunedAcceptorIntersection<Character, Double> intersection = new PrunedAcceptorIntersection<Character, Double>(builder1.build(), builder2.build(), 2.0, 0);
+		Object initialState = intersection.initialStates().iterator().next();
+		Object state1 = null;
+		Object state2 = null;
+		for (Object t : intersection.transitionsOut(initialState))
+		{
+			if (intersection.label(t) == 'a') state1 = intersection.to(t);
+			else state2 = intersection.to(t);
+		}
+
+		Collection<Object> transitions1 = intersection.transitionsOut(state1);
+		assertEquals(1, transitions1.size());
+		assertEquals(1, intersection.transitionsOut(state2).size());
+		assertSame(transitions1, intersection.transitionsOut(state1));
+		assertEquals(1, intersection.transitionsOut(state1).size());
+		assertEquals(3, intersection.numExpandedStates());
+
+		intersection.clearExpandedStates();
+		assertEquals(0, intersection.numExpandedStates());
+	}
+
+	/**
+	 * A breadth-first traversal of the pruned intersection of random automata finds at most <code>beamWidth</code> states
+	 * at every depth.
+	 */
+
+	@Test
+	public void testBeamWidth()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(13);
+		for (int i = 0; i < 20; i++)
+		{
+			CompactAutomaton<Character, Double> a1 = RandomAutomata.create(random, sr, 12, 40, 2, 0.0, RandomAutomata.WEIGHTS);
+			CompactAutomaton<Character, Double> a2 = RandomAutomata.create(random, sr, 12, 40, 2, 0.0, RandomAutomata.WEIGHTS);
+			for (int beamWidth = 1; beamWidth <= 4; beamWidth++)
+			{
+				PrunedAcceptorIntersection<Character, Double> intersection = new PrunedAcceptorIntersection<Character, Double>(a1, a2, null, beamWidth);
+				for (int width : levelWidths(intersection, 8)) assertTrue(width <= beamWidth);
+			}
+		}
+	}
+
+	/**
+	 * With a threshold and a beam width that prune nothing, the pruned intersection of random automata
+	 * has the shortest distance and the best path of the intersection without pruning.
+	 */
+
+	@Test
+	public void testGenerousBeam()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		Random random = new Random(14);
+		for (int i = 0; i < 20; i++)
+		{
+			CompactAutomaton<Character, Double> a1 = RandomAutomata.create(random, sr, 8, 24, 2, 0.0, RandomAutomata.WEIGHTS);
+			CompactAutomaton<Character, Double> a2 = RandomAutomata.create(random, sr, 8, 24, 2, 0.0, RandomAutomata.WEIGHTS);
+			AcceptorIntersection<Character, Double> exact = new AcceptorIntersection<Character, Double>(a1, a2);
+			PrunedAcceptorIntersection<Character, Double> pruned = new PrunedAcceptorIntersection<Character, Double>(a1, a2, 1000.0, 1000);
+			assertEquals(shortestDistance(exact), shortestDistance(pruned), 0.0);
+			Path<Character, Double> exactPath = Automata.bestPath(exact);
+			Path<Character, Double> prunedPath = Automata.bestPath(pruned);
+			if (exactPath == null) assertEquals(null, prunedPath);
+			else
+			{
+				assertEquals(exactPath.weight, prunedPath.weight, 0.0);
+				assertEquals(exactPath.label, prunedPath.label);
+			}
+		}
+	}
+
+	/**
+	 * @return
+	 * the number of states at every depth of a breadth-first traversal from the initial states, up to the specified depth
+	 */
+
+	static List<Integer> levelWidths(Automaton<Character, Double> automaton, int maxDepth)
+	{
+		Map<Object, Integer> depths = new HashMap<Object, Integer>();
+		List<Object> level = new ArrayList<Object>();
+		for (Object s : automaton.initialStates()) if (depths.put(s, 0) == null) level.add(s);
+		List<Integer> widths = new ArrayList<Integer>();
+		for (int d = 0; d <= maxDepth && ! level.isEmpty(); d++)
+		{
+			widths.add(level.size());
+			List<Object> next = new ArrayList<Object>();
+			for (Object s : level)
+				for (Object t : automaton.transitionsOut(s))
+				{
+					Object target = automaton.to(t);
+					if (! depths.containsKey(target))
+					{
+						depths.put(target, d + 1);
+						next.add(target);
+					}
+				}
+			level = next;
+		}
+		return widths;
+	}
+
+	static double shortestDistance(Automaton<Character, Double> automaton)
+	{
+		return Automata.shortestCompleteDistances(automaton, new SingleSourceShortestDistances<Double>(new DefaultQueueFactory<Double>(), new ExactConvergence<Double>()));
+	}
+}
@@ -0,0 +1,103 @@
+package net.jhoogland.jautomata.operations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.Automata;
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.semirings.RealSemiring;
+import net.jhoogland.jautomata.semirings.Semiring;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link Push}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class PushTest
+{
+	static CompactAutomaton<Character, Double> automaton(Semiring<Double> sr, double w1, double w2, double w3, boolean deadState)
+	{
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(sr);
+		int s0 = builder.addState(sr.one(), sr.zero());
+		int s1 = builder.addState(sr.zero(), sr.zero());
+		int s2 = builder.addState(sr.zero(), w3);
+		builder.addTransition(s0, s1, 'a', w1);
+		builder.addTransition(s1, s2, 'b', w2);
+		builder.addTransition(s0, s2, 'c', w3);
+		if (deadState)
+		{
+			int s3 = builder.addState(sr.zero(), sr.zero());
+			builder.addTransition(s0, s3, 'd', w1);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Pushing the weights does not change the string weights.
+	 */
+
+	@Test
+	public void testStringWeights()
+	{
+		Semiring<?>[] semirings = { new TropicalSemiring(), new RealSemiring() };
+		for (Semiring<?> s : semirings)
+		{
+			@SuppressWarnings("unchecked")
+			Semiring<Double> sr = (Semiring<Double>) s;
+			CompactAutomaton<Character, Double> a = sr.zero() == 0.0 ? automaton(sr, 0.5, 0.25, 0.5, false) : automaton(sr, 1.0, 2.0, 4.0, false);
+			Automaton<Character, Double> pushed = Operations.push(a);
+			for (String str : new String[] { "", "a", "ab", "c", "cb" })
+			{
+				double w = Automata.stringWeight(pushed, str);
+				assertFalse(Double.isNaN(w));
+				assertEquals(Automata.stringWeight(a, str), w, 1e-9);
+			}
+		}
+	}
+
+	/**
+	 * The weights of a state without a path to a final state are not pushed.
+	 */
+
+	@Test
+	public void testDeadState()
+	{
+		Semiring<?>[] semirings = { new TropicalSemiring(), new RealSemiring() };
+		for (Semiring<?> s : semirings)
+		{
+			@SuppressWarnings("unchecked")
+			Semiring<Double> sr = (Semiring<Double>) s;
+			CompactAutomaton<Character, Double> a = automaton(sr, 0.5, 0.25, 0.5, true);
+			Automaton<Character, Double> pushed = Operations.push(a);
+			int numDeadTransitions = 0;
+			for (Object t : pushed.transitionsOut(0)) if (pushed.label(t) == 'd')
+			{
+				numDeadTransitions++;
+				try
+				{
+					pushed.transitionWeight(t);
+					fail("The weight of a transition to a dead state was pushed.");
+				}
+				catch (RuntimeException e)
+				{
+				}
+			}
+			assertEquals(1, numDeadTransitions);
+			try
+			{
+				pushed.finalWeight(3);
+				fail("The final weight of a dead state was pushed.");
+			}
+			catch (RuntimeException e)
+			{
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package net.jhoogland.jautomata.queues;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.Automata;
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.ExactConvergence;
+import net.jhoogland.jautomata.SingleSourceShortestDistances;
+import net.jhoogland.jautomata.semirings.TropicalSemiring;
+
+/**
+ * Tests of {@link DefaultQueueFactory}.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class DefaultQueueFactoryTest
+{
+	/**
+	 * Records the queues created by a {@link DefaultQueueFactory}.
+	 */
+
+	static class RecordingQueueFactory implements QueueFactory<Double>
+	{
+		List<Queue<Object>> queues = new ArrayList<Queue<Object>>();
+
+		public <L> Queue<Object> createQueue(Automaton<L, Double> automaton, Map<Object, Double> weightMap)
+		{
+			Queue<Object> queue = new DefaultQueueFactory<Double>().createQueue(automaton, weightMap);
+			queues.add(queue);
+			return queue;
+		}
+	}
+
+	static CompactAutomaton<Character, Double> cycle(double weight)
+	{
+		double inf = Double.POSITIVE_INFINITY;
+		CompactAutomaton.Builder<Character, Double> builder = new CompactAutomaton.Builder<Character, Double>(new TropicalSemiring());
+		int s0 = builder.addState(0.0, inf);
+		int s1 = builder.addState(inf, inf);
+		int s2 = builder.addState(inf, 0.0);
+		builder.addTransition(s0, s1, 'a', weight);
+		builder.addTransition(s1, s2, 'b', 2.0);
+		builder.addTransition(s2, s0, 'c', 1.0);
+		builder.addTransition(s0, s2, 'd', 5.0);
+		return builder.build();
+	}
+
+	/**
+	 * The bucket queue is selected through the single initial state wrapper of the public shortest distance methods.
+	 */
+
+	@Test
+	public void testBucketQueueOnPublicCallPath()
+	{
+		CompactAutomaton<Character, Double> a = cycle(1.0);
+		RecordingQueueFactory factory = new RecordingQueueFactory();
+		SingleSourceShortestDistances<Double> sssd = new SingleSourceShortestDistances<Double>(factory, new ExactConvergence<Double>());
+
+		Map<Object, Double> from = Automata.shortestDistancesFromInitialStates(a, sssd);
+		Map<Object, Double> to = Automata.shortestDistancesToFinalStates(a, sssd);
+		assertEquals(2, factory.queues.size());
+		for (Queue<Object> queue : factory.queues) assertTrue(queue instanceof RadixHeapQueue);
+
+		assertEquals(0.0, from.get(0), 0.0);
+		assertEquals(1.0, from.get(1), 0.0);
+		assertEquals(3.0, from.get(2), 0.0);
+		assertEquals(3.0, to.get(0), 0.0);
+		assertEquals(2.0, to.get(1), 0.0);
+		assertEquals(0.0, to.get(2), 0.0);
+	}
+
+	/**
+	 * The comparison-based queue is selected if a transition weight is not an integer.
+	 */
+
+	@Test
+	public void testShortestFirstQueueForFractionalWeights()
+	{
+		CompactAutomaton<Character, Double> a = cycle(0.5);
+		RecordingQueueFactory factory = new RecordingQueueFactory();
+		SingleSourceShortestDistances<Double> sssd = new SingleSourceShortestDistances<Double>(factory, new ExactConvergence<Double>());
+
+		Map<Object, Double> from = Automata.shortestDistancesFromInitialStates(a, sssd);
+		assertEquals(1, factory.queues.size());
+		assertTrue(! (factory.queues.get(0) instanceof RadixHeapQueue));
+		assertEquals(2.5, from.get(2), 0.0);
+	}
+}
@@ -0,0 +1,143 @@
+package net.jhoogland.jautomata.semirings;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of {@link KTropicalSemiring}.
+ * The products and sums are compared with the k best elements of a stable sort of all products or of both lists,
+ * which is how they were computed before the frontier multiplication and the merge.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class KTropicalSemiringTest
+{
+	/**
+	 * The k best products of random sorted lists with many equal weights are the first k elements of the stably sorted products,
+	 * with the same weights and factors, for paths stored as chains, paths stored in the arena and paths that are not stored.
+	 */
+
+	@Test
+	public void testMultiply()
+	{
+		Random random = new Random(9);
+		TropicalSemiring sr = new TropicalSemiring();
+		for (int i = 0; i < 500; i++)
+		{
+			int k = 1 + random.nextInt(6);
+			KTropicalSemiring<Double> kt = new KTropicalSemiring<Double>(k, sr);
+			List<PathWeight<Double>> x1 = randomList(random, sr, null);
+			List<PathWeight<Double>> x2 = randomList(random, sr, null);
+			List<PathWeight<Double>[]> expected = sortedProducts(sr, k, x1, x2);
+
+			List<PathWeight<Double>> product = kt.multiply(x1, x2);
+			assertEquals(expected.size(), product.size());
+			for (int j = 0; j < product.size(); j++)
+			{
+				PathWeight<Double> pw1 = expected.get(j)[0];
+				PathWeight<Double> pw2 = expected.get(j)[1];
+				assertEquals(sr.multiply(pw1.weight, pw2.weight), product.get(j).weight);
+				assertSame(pw1, product.get(j).previous);
+				assertSame(pw2.transition, product.get(j).transition);
+			}
+
+			List<PathWeight<Double>> a1 = randomList(random, sr, kt.arena);
+			expected = sortedProducts(sr, k, a1, x2);
+			product = kt.multiply(a1, x2);
+			assertEquals(expected.size(), product.size());
+			for (int j = 0; j < product.size(); j++)
+			{
+				assertEquals(sr.multiply(expected.get(j)[0].weight, expected.get(j)[1].weight), product.get(j).weight);
+				assertSame(kt.arena, product.get(j).arena);
+				assertEquals(expected.get(j)[0].handle, kt.arena.parent(product.get(j).handle));
+				assertSame(expected.get(j)[1].transition, kt.arena.transition(product.get(j).handle));
+			}
+
+			KTropicalSemiring<Double> weightsOnly = new KTropicalSemiring<Double>(k, false, sr);
+			expected = sortedProducts(sr, k, x1, x2);
+			product = weightsOnly.multiply(x1, x2);
+			assertEquals(expected.size(), product.size());
+			for (int j = 0; j < product.size(); j++)
+				assertEquals(sr.multiply(expected.get(j)[0].weight, expected.get(j)[1].weight), product.get(j).weight);
+		}
+	}
+
+	/**
+	 * The k best elements of the sum of random sorted lists with many equal weights are the first k elements
+	 * of the stably sorted concatenation of the lists, so equal weights in the first list precede those in the second.
+	 */
+
+	@Test
+	public void testAdd()
+	{
+		Random random = new Random(10);
+		TropicalSemiring sr = new TropicalSemiring();
+		for (int i = 0; i < 500; i++)
+		{
+			int k = 1 + random.nextInt(6);
+			KTropicalSemiring<Double> kt = new KTropicalSemiring<Double>(k, sr);
+			List<PathWeight<Double>> x1 = randomList(random, sr, null);
+			List<PathWeight<Double>> x2 = randomList(random, sr, null);
+			List<PathWeight<Double>> sorted = new ArrayList<PathWeight<Double>>(x1);
+			sorted.addAll(x2);
+			Collections.sort(sorted);
+
+			List<PathWeight<Double>> sum = kt.add(x1, x2);
+			assertEquals(Math.min(k, sorted.size()), sum.size());
+			for (int j = 0; j < sum.size(); j++) assertSame(sorted.get(j), sum.get(j));
+		}
+	}
+
+	/**
+	 * @return
+	 * a sorted list of at most five path weights with weights from <code>0</code> to <code>2</code>,
+	 * whose paths consist of a new transition and are stored in the specified arena, or as chains if the arena is <code>null</code>
+	 */
+
+	static List<PathWeight<Double>> randomList(Random random, Semiring<Double> sr, PathArena arena)
+	{
+		List<PathWeight<Double>> list = new ArrayList<PathWeight<Double>>();
+		int size = random.nextInt(6);
+		for (int i = 0; i < size; i++)
+		{
+			Object transition = new Object();
+			double weight = random.nextInt(3);
+			if (arena == null) list.add(new PathWeight<Double>(null, weight, sr, transition));
+			else list.add(new PathWeight<Double>(arena, arena.record(-1, transition), weight, sr));
+		}
+		Collections.sort(list);
+		return list;
+	}
+
+	/**
+	 * @return
+	 * the pairs of factors of the k best products of the specified lists,
+	 * sorted stably by product weight from the order in which all pairs are enumerated
+	 */
+
+	@SuppressWarnings("unchecked")
+	static List<PathWeight<Double>[]> sortedProducts(final Semiring<Double> sr, int k, List<PathWeight<Double>> x1, List<PathWeight<Double>> x2)
+	{
+		List<PathWeight<Double>[]> pairs = new ArrayList<PathWeight<Double>[]>();
+		for (PathWeight<Double> pw1 : x1) for (PathWeight<Double> pw2 : x2) pairs.add(new PathWeight[] { pw1, pw2 });
+		final NaturalOrder<Double> order = new NaturalOrder<Double>(sr);
+		Collections.sort(pairs, new Comparator<PathWeight<Double>[]>()
+		{
+			public int compare(PathWeight<Double>[] p1, PathWeight<Double>[] p2)
+			{
+				return order.compare(sr.multiply(p1[0].weight, p1[1].weight), sr.multiply(p2[0].weight, p2[1].weight));
+			}
+		});
+		return pairs.subList(0, Math.min(k, pairs.size()));
+	}
+}
@@ -0,0 +1,107 @@
+package net.jhoogland.jautomata.semirings;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.jhoogland.jautomata.Automata;
+import net.jhoogland.jautomata.Automaton;
+import net.jhoogland.jautomata.CompactAutomaton;
+import net.jhoogland.jautomata.ExactConvergence;
+import net.jhoogland.jautomata.Path;
+import net.jhoogland.jautomata.RandomAutomata;
+import net.jhoogland.jautomata.SingleSourceShortestDistances;
+import net.jhoogland.jautomata.operations.Operations;
+import net.jhoogland.jautomata.queues.KTropicalQueueFactory;
+
+/**
+ * Tests of {@link PathWeight} with paths stored in a {@link PathArena} and with paths stored as chains.
+ *
+ * @author Jasper Hoogland
+ *
+ */
+
+public class PathWeightTest
+{
+	/**
+	 * The k shortest distances of random acyclic automata computed with paths in the arena
+	 * have the same weights, transitions and labels as those computed with paths stored as chains,
+	 * and the path weights of both are equal and have the same hash codes.
+	 */
+
+	@Test
+	public void testArenaAndChainPaths()
+	{
+		Random random = new Random(10);
+		TropicalSemiring sr = new TropicalSemiring();
+		int numTransitions = 0;
+		for (int i = 0; i < 30; i++)
+		{
+			CompactAutomaton<Character, Double> a = RandomAutomata.createAcyclic(random, sr, 10, 25, 2, 0.2, RandomAutomata.WEIGHTS);
+			List<PathWeight<Double>> arenaWeights = shortestCompleteDistances(a, 5, true);
+			List<PathWeight<Double>> chainWeights = shortestCompleteDistances(a, 5, false);
+			assertEquals(chainWeights.size(), arenaWeights.size());
+			for (int j = 0; j < arenaWeights.size(); j++)
+			{
+				PathWeight<Double> arenaWeight = arenaWeights.get(j);
+				PathWeight<Double> chainWeight = chainWeights.get(j);
+				assertNotNull(arenaWeight.arena);
+				assertNull(chainWeight.arena);
+				Path<Character, Double> arenaPath = arenaWeight.path(a);
+				Path<Character, Double> chainPath = chainWeight.path(a);
+				assertEquals(chainPath.weight, arenaPath.weight);
+				assertEquals(chainPath.transitions, arenaPath.transitions);
+				assertEquals(chainPath.label, arenaPath.label);
+				assertEquals(chainWeight, arenaWeight);
+				assertEquals(arenaWeight, chainWeight);
+				assertEquals(chainWeight.hashCode(), arenaWeight.hashCode());
+				numTransitions += arenaPath.transitions.size();
+			}
+		}
+		assertTrue(numTransitions > 0);
+	}
+
+	/**
+	 * Path weights with the same weight and different paths are different in both modes,
+	 * and so are path weights with the same path and different weights.
+	 */
+
+	@Test
+	public void testEquals()
+	{
+		TropicalSemiring sr = new TropicalSemiring();
+		PathArena arena = new PathArena();
+		Object t1 = "t1";
+		Object t2 = "t2";
+		PathWeight<Double> empty = new PathWeight<Double>(null, 0.0, sr);
+		PathWeight<Double> chain12 = new PathWeight<Double>(new PathWeight<Double>(empty, 1.0, sr, t1), 2.0, sr, t2);
+		PathWeight<Double> chain22 = new PathWeight<Double>(new PathWeight<Double>(empty, 1.0, sr, t2), 2.0, sr, t2);
+		PathWeight<Double> arena12 = new PathWeight<Double>(arena, arena.record(arena.record(-1, t1), t2), 2.0, sr);
+		PathWeight<Double> arena22 = new PathWeight<Double>(arena, arena.record(arena.record(-1, t2), t2), 2.0, sr);
+
+		assertEquals(chain12, arena12);
+		assertEquals(arena12, new PathWeight<Double>(arena, arena.record(arena.record(-1, t1), t2), 2.0, sr));
+		assertFalse(chain12.equals(chain22));
+		assertFalse(arena12.equals(arena22));
+		assertFalse(chain12.equals(arena22));
+		assertFalse(arena12.equals(new PathWeight<Double>(arena, arena12.handle, 3.0, sr)));
+		assertFalse(chain12.equals(new PathWeight<Double>(chain12.previous, 3.0, sr, t2)));
+		assertTrue(empty.equals(new PathWeight<Double>(arena, -1, 0.0, sr)));
+	}
+
+	static List<PathWeight<Double>> shortestCompleteDistances(Automaton<Character, Double> automaton, int k, boolean arena)
+	{
+		Automaton<Character, List<PathWeight<Double>>> kT = Operations.toKTropicalSemiring(automaton, k);
+		if (! arena) ((KTropicalSemiring<Double>) kT.semiring()).arena = null;
+		SingleSourceShortestDistances<List<PathWeight<Double>>> sssd = new SingleSourceShortestDistances<List<PathWeight<Double>>>(
+				new KTropicalQueueFactory<Double>(), new ExactConvergence<List<PathWeight<Double>>>());
+		return Automata.shortestCompleteDistances(kT, sssd);
+	}
+}